@@ -0,0 +1,80 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.Schema;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.message.SchemaStore;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro single-object encoding of the event contracts: a 2-byte marker, the 8-byte fingerprint of the writer
+ * schema, then the binary record. Decoding looks the fingerprint up among the current and retired schemas and
+ * resolves it into the reader's generated class (see {@link EventContracts} on versioning).
+ */
+public final class AvroEventCodec {
+    public static final AvroEventCodec DEFAULT = new AvroEventCodec(EventContracts.retiredSchemas());
+
+    private static final byte MARKER_0 = (byte) 0xC3;
+    private static final byte MARKER_1 = (byte) 0x01;
+    private static final int HEADER_LENGTH = 10;
+
+    private final SchemaStore.Cache schemaStore = new SchemaStore.Cache();
+    private final Map<Class<?>, BinaryMessageEncoder<SpecificRecord>> encoders = new ConcurrentHashMap<>();
+    private final Map<Class<?>, BinaryMessageDecoder<SpecificRecord>> decoders = new ConcurrentHashMap<>();
+
+    public AvroEventCodec(Collection<Schema> retiredSchemas) {
+        List<Schema> schemas = new ArrayList<>(EventContracts.currentSchemas());
+        schemas.addAll(retiredSchemas);
+        schemas.forEach(schemaStore::addSchema);
+    }
+
+    public static boolean isAvro(byte[] data) {
+        return data != null && data.length >= HEADER_LENGTH && data[0] == MARKER_0 && data[1] == MARKER_1;
+    }
+
+    public byte[] encode(SpecificRecord record) {
+        try {
+            ByteBuffer buffer = encoders.computeIfAbsent(record.getClass(), type ->
+                    new BinaryMessageEncoder<>(SpecificData.getForClass(type), record.getSchema())).encode(record);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("Cannot encode " + record.getSchema().getName(), e);
+        }
+    }
+
+    public SpecificRecord decode(byte[] data) {
+        long fingerprint = ByteBuffer.wrap(data, 2, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        Schema writerSchema = schemaStore.findByFingerprint(fingerprint);
+        if (writerSchema == null) {
+            throw new SerializationException("Unknown event schema (fingerprint " + Long.toHexString(fingerprint)
+                    + "); consumers must be deployed with a new contract before producers");
+        }
+        Class<?> type = SpecificData.get().getClass(writerSchema);
+        if (type == null) {
+            throw new SerializationException("No generated class for event schema " + writerSchema.getFullName());
+        }
+        try {
+            return decoders.computeIfAbsent(type, this::decoder).decode(data);
+        } catch (IOException e) {
+            throw new SerializationException("Cannot decode " + writerSchema.getFullName(), e);
+        }
+    }
+
+    private BinaryMessageDecoder<SpecificRecord> decoder(Class<?> type) {
+        SpecificData model = SpecificData.getForClass(type);
+        return new BinaryMessageDecoder<>(model, model.getSchema(type), schemaStore);
+    }
+}
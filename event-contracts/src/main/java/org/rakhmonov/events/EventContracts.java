@@ -0,0 +1,61 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topics whose records follow an Avro contract of this module.
+ * <p>
+ * Versioning: every record carries the fingerprint of the schema it was written with (Avro single-object encoding)
+ * and readers resolve it against their own generated class, so fields may be added with a default or removed when
+ * they had one. A reader must know the writer's schema, hence the order of a rollout: change the .avsc, deploy the
+ * consumers, then the producers. The schema a change replaces is copied to {@code src/main/resources/retired/} and
+ * listed in {@link #RETIRED_SCHEMAS} for as long as records written with it may still sit in a topic or an outbox.
+ */
+public final class EventContracts {
+    public static final String ORDER_CREATED_TOPIC = "order-created-topic";
+    public static final String ORDER_STATUS_CHANGED_TOPIC = "order-status-changed-topic";
+    public static final String INVENTORY_DECREASED_TOPIC = "inventory-decreased-topic";
+
+    private static final Map<String, Schema> TOPIC_SCHEMAS = Map.of(
+            ORDER_CREATED_TOPIC, OrderCreatedEvent.getClassSchema(),
+            ORDER_STATUS_CHANGED_TOPIC, OrderStatusChangedEvent.getClassSchema(),
+            INVENTORY_DECREASED_TOPIC, InventoryDecreasedEvent.getClassSchema());
+
+    // Classpath resources under /retired/, e.g. "InventoryDecreasedEvent-v1.avsc"
+    private static final List<String> RETIRED_SCHEMAS = List.of();
+
+    private EventContracts() {
+    }
+
+    /**
+     * @return the contract of the topic, or null when its records are plain JSON
+     */
+    public static Schema schemaForTopic(String topic) {
+        return TOPIC_SCHEMAS.get(topic);
+    }
+
+    static List<Schema> currentSchemas() {
+        return List.copyOf(TOPIC_SCHEMAS.values());
+    }
+
+    static List<Schema> retiredSchemas() {
+        return RETIRED_SCHEMAS.stream().map(EventContracts::load).toList();
+    }
+
+    private static Schema load(String resource) {
+        try (InputStream in = EventContracts.class.getResourceAsStream("/retired/" + resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Retired schema not found: " + resource);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
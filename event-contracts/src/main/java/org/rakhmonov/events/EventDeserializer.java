@@ -0,0 +1,49 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value deserializer: Avro single-object records become their contract class (resolved from whichever known
+ * schema version wrote them). JSON goes through a {@link JsonDeserializer} given the same configuration; on a
+ * contract topic it is a record from before the Avro switch and is converted to the contract class as well.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (AvroEventCodec.isAvro(data)) {
+            return AvroEventCodec.DEFAULT.decode(data);
+        }
+        Object value = headers != null ? json.deserialize(topic, headers, data) : json.deserialize(topic, data);
+        Schema contract = EventContracts.schemaForTopic(topic);
+        if (contract != null && value instanceof Map<?, ?> legacy) {
+            return LegacyJsonEvents.fromMap(legacy, contract);
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,43 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer: event contracts as Avro single-object records, bytes that already hold one (an outbox
+ * payload) as they are, and anything else as JSON through a {@link JsonSerializer} given the same configuration.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return serialize(topic, null, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof SpecificRecord record) {
+            return AvroEventCodec.DEFAULT.encode(record);
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        return headers != null ? json.serialize(topic, headers, data) : json.serialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,97 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the JSON the services published before the Avro contracts (a {@code Map} from {@code JsonDeserializer})
+ * into the contract's class, so records still in a topic from before the switch keep being consumed.
+ */
+final class LegacyJsonEvents {
+
+    private LegacyJsonEvents() {
+    }
+
+    static SpecificRecord fromMap(Map<?, ?> json, Schema schema) {
+        return (SpecificRecord) convert(json, schema, SpecificData.getForClass(SpecificData.get().getClass(schema)));
+    }
+
+    private static Object convert(Object value, Schema schema, SpecificData model) {
+        switch (schema.getType()) {
+            case UNION -> {
+                if (value == null) {
+                    return null;
+                }
+                Schema branch = schema.getTypes().stream()
+                        .filter(type -> type.getType() != Schema.Type.NULL)
+                        .findFirst()
+                        .orElseThrow();
+                return convert(value, branch, model);
+            }
+            case RECORD -> {
+                SpecificRecord record = (SpecificRecord) model.newRecord(null, schema);
+                Map<?, ?> fields = (Map<?, ?>) value;
+                for (Schema.Field field : schema.getFields()) {
+                    Object fieldValue = fields.get(field.name());
+                    record.put(field.pos(), fieldValue == null && field.hasDefaultValue()
+                            ? model.deepCopy(field.schema(), model.getDefaultValue(field))
+                            : convert(fieldValue, field.schema(), model));
+                }
+                return record;
+            }
+            case ARRAY -> {
+                List<Object> items = new ArrayList<>();
+                for (Object item : (List<?>) value) {
+                    items.add(convert(item, schema.getElementType(), model));
+                }
+                return items;
+            }
+            case ENUM -> {
+                String symbol = String.valueOf(value);
+                return model.createEnum(schema.hasEnumSymbol(symbol) ? symbol : schema.getEnumDefault(), schema);
+            }
+            case STRING -> {
+                return String.valueOf(value);
+            }
+            case BOOLEAN -> {
+                return value instanceof Boolean bool ? bool : Boolean.parseBoolean(String.valueOf(value));
+            }
+            case INT -> {
+                return ((Number) value).intValue();
+            }
+            case LONG -> {
+                return schema.getLogicalType() instanceof LogicalTypes.TimestampMillis
+                        ? toInstant(value)
+                        : ((Number) value).longValue();
+            }
+            default -> throw new IllegalArgumentException("Unsupported type in a legacy event: " + schema.getType());
+        }
+    }
+
+    // Jackson wrote LocalDateTime either as an ISO string or as [year, month, day, hour, minute, second, nanos]
+    private static Instant toInstant(Object value) {
+        if (value instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        LocalDateTime dateTime;
+        if (value instanceof List<?> parts) {
+            int[] p = new int[7];
+            for (int i = 0; i < parts.size() && i < p.length; i++) {
+                p[i] = ((Number) parts.get(i)).intValue();
+            }
+            dateTime = LocalDateTime.of(p[0], p[1], p[2], p[3], p[4], p[5], p[6]);
+        } else {
+            dateTime = LocalDateTime.parse(String.valueOf(value));
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,105 @@
+package org.rakhmonov.events.paging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Opaque continuation tokens for keyset pagination on (createdAt, id) or on id alone, shared by the services so a
+ * cursor means the same everywhere. A token is the URL-safe Base64 of the position followed by its CRC32: cursors are not secret (they
+ * only seek within a listing the caller may read anyway), but an edited, truncated or mangled token is rejected with
+ * {@link InvalidCursorException} instead of silently continuing somewhere else.
+ */
+public final class CursorCodec {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int CHECKSUM_LENGTH = Integer.BYTES;
+
+    public record Cursor(LocalDateTime createdAt, Long id) {
+    }
+
+    private CursorCodec() {
+    }
+
+    public static String encode(LocalDateTime createdAt, Long id) {
+        return seal(createdAt + "|" + id);
+    }
+
+    /**
+     * @return the position after which the next page starts, or null for the first page
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw = unseal(token);
+        try {
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    // For listings ordered by id alone
+    public static String encodeId(Long id) {
+        return seal(String.valueOf(id));
+    }
+
+    /**
+     * @return the id after which the next page starts, or null for the first page
+     */
+    public static Long decodeId(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String raw = unseal(token);
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    private static String seal(String raw) {
+        byte[] position = raw.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer token = ByteBuffer.allocate(position.length + CHECKSUM_LENGTH)
+                .put(position)
+                .putInt(checksum(position));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    private static String unseal(String token) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        if (bytes.length <= CHECKSUM_LENGTH) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        byte[] position = Arrays.copyOf(bytes, bytes.length - CHECKSUM_LENGTH);
+        if (ByteBuffer.wrap(bytes, position.length, CHECKSUM_LENGTH).getInt() != checksum(position)) {
+            throw new InvalidCursorException("Invalid cursor: " + token);
+        }
+        return new String(position, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] position) {
+        CRC32 crc = new CRC32();
+        crc.update(position);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,10 @@
+package org.rakhmonov.events.paging;
+
+/**
+ * A continuation token that was not issued by {@link CursorCodec}; the services answer it with 400 Bad Request.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
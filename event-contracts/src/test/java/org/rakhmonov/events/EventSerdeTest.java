@@ -0,0 +1,117 @@
+package org.rakhmonov.events;
+
+import org.apache.avro.Schema;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSerdeTest {
+
+    private final EventSerializer serializer = new EventSerializer();
+    private final EventDeserializer deserializer = new EventDeserializer();
+
+    @BeforeEach
+    void setUp() {
+        serializer.configure(Map.of(), false);
+        deserializer.configure(Map.of(
+                "spring.json.use.type.headers", "false",
+                "spring.json.value.default.type", "java.util.Map",
+                "spring.json.trusted.packages", "*"), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    void contractEvent_RoundTripsAsAvro() {
+        OrderStatusChangedEvent event = OrderStatusChangedEvent.newBuilder()
+                .setOrderNumber("ORD-1")
+                .setOldStatus(OrderStatus.PENDING)
+                .setNewStatus(OrderStatus.CANCELLED)
+                .setChangedAt(Instant.ofEpochMilli(1_700_000_000_000L))
+                .setOrderItems(List.of(new OrderItem(7L, 2), new OrderItem(9L, 1)))
+                .build();
+
+        byte[] bytes = serializer.serialize(EventContracts.ORDER_STATUS_CHANGED_TOPIC, event);
+
+        assertTrue(AvroEventCodec.isAvro(bytes));
+        assertEquals(event, deserializer.deserialize(EventContracts.ORDER_STATUS_CHANGED_TOPIC, bytes));
+        // outbox payloads are passed through untouched
+        assertSame(bytes, serializer.serialize(EventContracts.ORDER_STATUS_CHANGED_TOPIC, bytes));
+    }
+
+    @Test
+    void olderWriterSchema_IsResolvedIntoTheCurrentClass() {
+        Schema v0 = new Schema.Parser().parse("""
+                {"type": "record", "name": "InventoryDecreasedEvent", "namespace": "org.rakhmonov.events",
+                 "fields": [{"name": "orderNumber", "type": "string"}, {"name": "success", "type": "boolean"}]}""");
+        GenericRecord old = new GenericData.Record(v0);
+        old.put("orderNumber", "ORD-1");
+        old.put("success", true);
+        byte[] bytes = toBytes(new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v0), old);
+
+        assertThrows(SerializationException.class, () -> AvroEventCodec.DEFAULT.decode(bytes));
+        InventoryDecreasedEvent event = (InventoryDecreasedEvent) new AvroEventCodec(List.of(v0)).decode(bytes);
+
+        assertEquals("ORD-1", event.getOrderNumber());
+        assertTrue(event.getSuccess());
+        assertNull(event.getMessage());
+    }
+
+    @Test
+    void legacyJson_OnAContractTopic_BecomesTheContractClass() {
+        byte[] json = """
+                {"orderNumber": "ORD-1", "oldStatus": "PENDING", "newStatus": "ON_HOLD",
+                 "changedAt": [2026, 3, 2, 12, 30, 0, 0],
+                 "orderItems": [{"productId": 7, "quantity": 2}]}""".getBytes(StandardCharsets.UTF_8);
+
+        OrderStatusChangedEvent event = (OrderStatusChangedEvent)
+                deserializer.deserialize(EventContracts.ORDER_STATUS_CHANGED_TOPIC, json);
+
+        assertEquals(OrderStatus.PENDING, event.getOldStatus());
+        assertEquals(OrderStatus.UNKNOWN, event.getNewStatus());
+        assertEquals(LocalDateTime.of(2026, 3, 2, 12, 30).atZone(ZoneId.systemDefault()).toInstant(), event.getChangedAt());
+        assertEquals(List.of(new OrderItem(7L, 2)), event.getOrderItems());
+
+        InventoryDecreasedEvent result = (InventoryDecreasedEvent) deserializer.deserialize(
+                EventContracts.INVENTORY_DECREASED_TOPIC,
+                "{\"orderNumber\": \"ORD-1\", \"success\": false}".getBytes(StandardCharsets.UTF_8));
+        assertFalse(result.getSuccess());
+        assertNull(result.getMessage());
+    }
+
+    @Test
+    void json_OnOtherTopics_StaysJson() {
+        byte[] bytes = serializer.serialize("product-cache-invalidation-topic", Map.of("productId", 5));
+
+        assertEquals(Map.of("productId", 5), deserializer.deserialize("product-cache-invalidation-topic", bytes));
+    }
+
+    private static byte[] toBytes(BinaryMessageEncoder<GenericRecord> encoder, GenericRecord record) {
+        try {
+            ByteBuffer buffer = encoder.encode(record);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.rakhmonov.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize/deserialize cost of an order-status-changed event with ten lines: the Avro contract against the
+ * Map JSON the services sent before. The serialize benchmarks also report the payload size of their format
+ * ({@code payloadBytes}). Not part of the regular build; run with
+ * {@code mvn test -Dtest=EventSerializationBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+    private static final int LINES = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OrderStatusChangedEvent event;
+    private Map<String, Object> json;
+    private byte[] avroBytes;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        event = event();
+        json = json(event);
+        avroBytes = AvroEventCodec.DEFAULT.encode(event);
+        jsonBytes = objectMapper.writeValueAsBytes(json);
+    }
+
+    // Payload size as a secondary result of the serialize benchmarks
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+        public long payloadBytes;
+    }
+
+    @Benchmark
+    public byte[] avroSerialize(PayloadSize size) {
+        byte[] bytes = AvroEventCodec.DEFAULT.encode(event);
+        size.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object avroDeserialize() {
+        return AvroEventCodec.DEFAULT.decode(avroBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize(PayloadSize size) throws Exception {
+        byte[] bytes = objectMapper.writeValueAsBytes(json);
+        size.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object jsonDeserialize() throws Exception {
+        return objectMapper.readValue(jsonBytes, Map.class);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(EventSerializationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static OrderStatusChangedEvent event() {
+        List<OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            items.add(new OrderItem(10_000L + i, i + 1));
+        }
+        return OrderStatusChangedEvent.newBuilder()
+                .setOrderNumber("ORD-20261018-000123")
+                .setOldStatus(OrderStatus.PENDING)
+                .setNewStatus(OrderStatus.CONFIRMED)
+                .setChangedAt(Instant.now())
+                .setOrderItems(items)
+                .build();
+    }
+
+    private static Map<String, Object> json(OrderStatusChangedEvent event) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("orderNumber", event.getOrderNumber());
+        json.put("oldStatus", event.getOldStatus().name());
+        json.put("newStatus", event.getNewStatus().name());
+        json.put("changedAt", event.getChangedAt().toString());
+        json.put("orderItems", event.getOrderItems().stream()
+                .map(item -> Map.of("productId", item.getProductId(), "quantity", item.getQuantity()))
+                .toList());
+        return json;
+    }
+}
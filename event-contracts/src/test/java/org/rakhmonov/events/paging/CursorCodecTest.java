@@ -0,0 +1,82 @@
+package org.rakhmonov.events.paging;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorCodecTest {
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000);
+
+    @Test
+    void decode_RoundTripsTheEncodedPosition() {
+        String token = CursorCodec.encode(CREATED_AT, 42L);
+
+        assertEquals(new CursorCodec.Cursor(CREATED_AT, 42L), CursorCodec.decode(token));
+        assertEquals(new CursorCodec.Cursor(CREATED_AT.withNano(0), Long.MAX_VALUE),
+                CursorCodec.decode(CursorCodec.encode(CREATED_AT.withNano(0), Long.MAX_VALUE)));
+        // safe in a query string as it is
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void decode_NoCursor_StartsAtTheFirstPage() {
+        assertNull(CursorCodec.decode(null));
+        assertNull(CursorCodec.decode(" "));
+    }
+
+    @Test
+    void decode_EveryEditedCharacter_IsRejected() {
+        String token = CursorCodec.encode(CREATED_AT, 42L);
+        // the last character may only carry padding bits, everything before it is covered by the checksum
+        for (int i = 0; i < token.length() - 1; i++) {
+            char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, i) + replacement + token.substring(i + 1);
+
+            assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(tampered), tampered);
+        }
+    }
+
+    @Test
+    void decode_ForgedOrTruncatedToken_IsRejected() {
+        String token = CursorCodec.encode(CREATED_AT, 42L);
+        // a position a client wrote itself, in the old unchecked format
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CREATED_AT + "|43").getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(forged));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(token.substring(0, token.length() - 4)));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(token + "AAAA"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("AAAA"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode("not base64!"));
+    }
+
+    @Test
+    void decode_ChecksummedButMalformedPosition_IsRejected() {
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(CursorCodec.encode(null, 1L)));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(CursorCodec.encode(CREATED_AT, null)));
+    }
+
+    @Test
+    void decodeId_RoundTripsAndRejectsOtherTokens() {
+        String token = CursorCodec.encodeId(42L);
+
+        assertEquals(42L, CursorCodec.decodeId(token));
+        assertNull(CursorCodec.decodeId(null));
+        // a raw id, as the reorder listing used to hand out, or a cursor of another kind of listing
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decodeId("42"));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decodeId(CursorCodec.encode(CREATED_AT, 42L)));
+        assertThrows(InvalidCursorException.class, () -> CursorCodec.decode(token));
+    }
+
+    @Test
+    void clampSize_DefaultsAndCapsThePageSize() {
+        assertEquals(CursorCodec.DEFAULT_PAGE_SIZE, CursorCodec.clampSize(null));
+        assertEquals(CursorCodec.DEFAULT_PAGE_SIZE, CursorCodec.clampSize(0));
+        assertEquals(7, CursorCodec.clampSize(7));
+        assertEquals(CursorCodec.MAX_PAGE_SIZE, CursorCodec.clampSize(10_000));
+    }
+}
@@ -2,8 +2,10 @@ package org.rakhmonov.inventoryservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "org.rakhmonov.inventoryservice")
+@EnableScheduling
 public class InventoryServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,9 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+
+/**
+ * Quantity of one order line taken from one inventory row.
+ */
+public record AllocationLine(Inventory inventory, int quantity) {
+}
@@ -0,0 +1,22 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+
+import java.util.List;
+
+/**
+ * Decides how one order line is split across the inventory rows (warehouses) of its product.
+ * Implementations are Spring beans picked up by {@link StockAllocationEngine} under {@link #name()}.
+ */
+public interface AllocationStrategy {
+
+    String name();
+
+    /**
+     * @param rows                 the product's inventory rows; together they hold at least {@code quantity}
+     * @param preferredWarehouseId warehouse to draw from first, may be null
+     * @return the rows to take stock from and how much from each, summing to {@code quantity};
+     * must not modify the rows
+     */
+    List<AllocationLine> allocate(List<Inventory> rows, int quantity, Long preferredWarehouseId);
+}
@@ -0,0 +1,44 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ships a line from as few warehouses as possible. Full rows are drawn largest first; the remainder
+ * comes from the smallest row that still covers it, so large rows stay intact for later large lines.
+ */
+@Component
+public class FewestSplitsStrategy implements AllocationStrategy {
+    public static final String NAME = "FEWEST_SPLITS";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<AllocationLine> allocate(List<Inventory> rows, int quantity, Long preferredWarehouseId) {
+        List<Inventory> remaining = new ArrayList<>(rows.stream()
+                .filter(inventory -> inventory.getCurrentStock() > 0)
+                .sorted(MostStockFirstStrategy.MOST_STOCK)
+                .toList());
+        List<AllocationLine> lines = new ArrayList<>();
+        int needed = quantity;
+        while (needed > 0) {
+            // sorted by stock descending: the last row that covers the remainder is the tightest fit,
+            // and when none covers it the first (fullest) row is drained
+            int index = 0;
+            while (index + 1 < remaining.size() && remaining.get(index + 1).getCurrentStock() >= needed) {
+                index++;
+            }
+            Inventory taken = remaining.remove(index);
+            int amount = Math.min(needed, taken.getCurrentStock());
+            lines.add(new AllocationLine(taken, amount));
+            needed -= amount;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,28 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Draws from the fullest warehouse first, which keeps stock levels across warehouses even.
+ */
+@Component
+public class MostStockFirstStrategy implements AllocationStrategy {
+    public static final String NAME = "MOST_STOCK_FIRST";
+
+    static final Comparator<Inventory> MOST_STOCK = Comparator.comparing(Inventory::getCurrentStock).reversed()
+            .thenComparing(Inventory::getId);
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<AllocationLine> allocate(List<Inventory> rows, int quantity, Long preferredWarehouseId) {
+        return StockAllocationEngine.takeInOrder(rows.stream().sorted(MOST_STOCK).toList(), quantity);
+    }
+}
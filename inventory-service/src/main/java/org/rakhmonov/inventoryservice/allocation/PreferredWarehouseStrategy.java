@@ -0,0 +1,28 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Draws from the preferred warehouse (e.g. the one nearest the customer) first, then from the fullest others.
+ */
+@Component
+public class PreferredWarehouseStrategy implements AllocationStrategy {
+    public static final String NAME = "PREFERRED_WAREHOUSE";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public List<AllocationLine> allocate(List<Inventory> rows, int quantity, Long preferredWarehouseId) {
+        Comparator<Inventory> preferredFirst = Comparator.comparing(
+                (Inventory inventory) -> !inventory.getWarehouseId().equals(preferredWarehouseId));
+        return StockAllocationEngine.takeInOrder(
+                rows.stream().sorted(preferredFirst.thenComparing(MostStockFirstStrategy.MOST_STOCK)).toList(), quantity);
+    }
+}
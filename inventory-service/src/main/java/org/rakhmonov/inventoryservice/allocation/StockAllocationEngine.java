@@ -0,0 +1,96 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.exception.InvalidAllocationStrategyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits order lines across the inventory rows of each product using an {@link AllocationStrategy}.
+ * Works purely in memory on rows the caller loaded in bulk (and locked, when the result is applied);
+ * it never touches the rows, so a failed allocation leaves nothing to undo.
+ */
+@Component
+public class StockAllocationEngine {
+    private final Map<String, AllocationStrategy> strategies;
+    private final AllocationStrategy defaultStrategy;
+
+    public StockAllocationEngine(List<AllocationStrategy> strategies,
+                                 @Value("${app.inventory.allocation-strategy:" + MostStockFirstStrategy.NAME + "}") String defaultStrategy) {
+        this.strategies = strategies.stream()
+                .collect(Collectors.toMap(AllocationStrategy::name, Function.identity()));
+        this.defaultStrategy = strategy(defaultStrategy);
+    }
+
+    /**
+     * @param name strategy name, case-insensitive; null or blank for the configured default
+     */
+    public AllocationStrategy strategy(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultStrategy;
+        }
+        AllocationStrategy strategy = strategies.get(name.trim().toUpperCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new InvalidAllocationStrategyException("Unknown allocation strategy: " + name
+                    + ". Supported: " + new TreeSet<>(strategies.keySet()));
+        }
+        return strategy;
+    }
+
+    /**
+     * @param quantities    product id to ordered quantity
+     * @param rowsByProduct the inventory rows of those products
+     * @return product id (ascending) to the rows and quantities to take
+     * @throws RuntimeException listing every line the warehouses together cannot cover
+     */
+    public Map<Long, List<AllocationLine>> allocate(Map<Long, Integer> quantities,
+                                                    Map<Long, List<Inventory>> rowsByProduct,
+                                                    AllocationStrategy strategy,
+                                                    Long preferredWarehouseId) {
+        Map<Long, List<AllocationLine>> allocations = new TreeMap<>();
+        List<String> shortLines = new ArrayList<>();
+        new TreeMap<>(quantities).forEach((productId, quantity) -> {
+            List<Inventory> rows = rowsByProduct.getOrDefault(productId, List.of());
+            int available = rows.stream().mapToInt(Inventory::getCurrentStock).filter(stock -> stock > 0).sum();
+            if (available < quantity) {
+                shortLines.add("product " + productId + " (available " + available + ", requested " + quantity + ")");
+            } else if (shortLines.isEmpty()) {
+                allocations.put(productId, strategy.allocate(rows, quantity, preferredWarehouseId));
+            }
+        });
+        if (!shortLines.isEmpty()) {
+            throw new RuntimeException("Insufficient stock for " + String.join(", ", shortLines));
+        }
+        return allocations;
+    }
+
+    /**
+     * Row that receives returned stock when no warehouse is given: the emptiest one.
+     */
+    public Inventory restockTarget(List<Inventory> rows) {
+        return rows.stream()
+                .min(Comparator.comparing(Inventory::getCurrentStock).thenComparing(Inventory::getId))
+                .orElse(null);
+    }
+
+    // Takes from the rows in the given order until the quantity is covered
+    static List<AllocationLine> takeInOrder(List<Inventory> ordered, int quantity) {
+        List<AllocationLine> lines = new ArrayList<>();
+        int needed = quantity;
+        for (Inventory inventory : ordered) {
+            if (needed == 0) {
+                break;
+            }
+            int amount = Math.min(needed, inventory.getCurrentStock());
+            if (amount > 0) {
+                lines.add(new AllocationLine(inventory, amount));
+                needed -= amount;
+            }
+        }
+        return lines;
+    }
+}
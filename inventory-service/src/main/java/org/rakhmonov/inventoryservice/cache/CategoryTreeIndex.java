@@ -0,0 +1,103 @@
+package org.rakhmonov.inventoryservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.repo.CategoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory closure of the category tree (category id -> all descendant ids).
+ * Built from a single query and rebuilt lazily after CategoryService writes, or once it is older
+ * than the refresh interval so replicas pick up changes made elsewhere.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeIndex {
+    private static final long MIN_REBUILD_INTERVAL_MS = 1000;
+
+    private final CategoryRepository categoryRepository;
+
+    @Value("${app.category.index.refresh-ms:300000}")
+    private long refreshIntervalMs;
+
+    private volatile Snapshot snapshot;
+
+    public boolean contains(Long categoryId) {
+        Snapshot current = current();
+        if (current.descendants.containsKey(categoryId)) {
+            return true;
+        }
+        // May have been created on another replica since the last build; rebuild at most once a second
+        if (System.currentTimeMillis() - current.builtAt < MIN_REBUILD_INTERVAL_MS) {
+            return false;
+        }
+        invalidate();
+        return current().descendants.containsKey(categoryId);
+    }
+
+    /**
+     * @return the category itself plus every descendant id, or an empty list for an unknown category
+     */
+    public List<Long> getSelfAndDescendantIds(Long categoryId) {
+        return current().descendants.getOrDefault(categoryId, List.of());
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.builtAt > refreshIntervalMs) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || System.currentTimeMillis() - current.builtAt > refreshIntervalMs) {
+                    current = build();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build() {
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : categoryRepository.findAllIdAndParentId()) {
+            Long id = (Long) row[0];
+            Long parentId = (Long) row[1];
+            ids.add(id);
+            if (parentId != null) {
+                children.computeIfAbsent(parentId, key -> new ArrayList<>()).add(id);
+            }
+        }
+
+        Map<Long, List<Long>> descendants = new HashMap<>();
+        for (Long id : ids) {
+            List<Long> closure = new ArrayList<>();
+            Set<Long> visited = new HashSet<>();
+            Deque<Long> stack = new ArrayDeque<>();
+            stack.push(id);
+            while (!stack.isEmpty()) {
+                Long current = stack.pop();
+                if (!visited.add(current)) {
+                    continue; // guard against a cycle in bad data
+                }
+                closure.add(current);
+                for (Long child : children.getOrDefault(current, List.of())) {
+                    stack.push(child);
+                }
+            }
+            descendants.put(id, List.copyOf(closure));
+        }
+        log.debug("Category tree index rebuilt with {} categories", ids.size());
+        return new Snapshot(descendants, System.currentTimeMillis());
+    }
+
+    private record Snapshot(Map<Long, List<Long>> descendants, long builtAt) {
+    }
+}
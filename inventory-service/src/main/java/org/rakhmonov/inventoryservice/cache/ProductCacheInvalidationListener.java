@@ -0,0 +1,45 @@
+package org.rakhmonov.inventoryservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.event.ProductCacheInvalidatedEvent;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.event.ProductsImportedEvent;
+import org.rakhmonov.inventoryservice.kafka.InventoryKafkaProducer;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheInvalidationListener {
+    public static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryKafkaProducer inventoryKafkaProducer;
+
+    // After commit, so a concurrent read can't re-cache the old row before the change is visible,
+    // and a rolled back change never reaches the search index; other replicas follow through Kafka
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent event) {
+        productCache.evict(event.getProductId());
+        if (event.isReindex()) {
+            productSearchIndex.reindex(event.getProductId());
+        }
+        inventoryKafkaProducer.publishProductCacheInvalidated(
+                new ProductCacheInvalidatedEvent(event.getProductId(), INSTANCE_ID, event.isReindex()));
+    }
+
+    // One index load and one broadcast per import chunk instead of one per product
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProductsImported(ProductsImportedEvent event) {
+        event.getProductIds().forEach(productCache::evict);
+        productSearchIndex.reindex(event.getProductIds());
+        inventoryKafkaProducer.publishProductCacheInvalidated(
+                new ProductCacheInvalidatedEvent(null, INSTANCE_ID, true, event.getProductIds()));
+    }
+}
@@ -0,0 +1,51 @@
+package org.rakhmonov.inventoryservice.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Products, inventory, variants, stock movements and order stock allocations moved from IDENTITY columns to pooled
+ * sequences.
+ * On an existing database the new sequences start at 1, so move each one past the highest id already in its table.
+ * Runs after Hibernate's schema update has created the sequences.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdSequenceInitializer {
+    private static final int ALLOCATION_SIZE = 50;
+
+    // sequence -> table
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "products_seq", "products",
+            "inventory_seq", "inventory",
+            "product_variants_seq", "product_variants",
+            "stock_movements_seq", "stock_movements",
+            "order_stock_allocations_seq", "order_stock_allocations");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                Long value = jdbcTemplate.queryForObject(
+                        "SELECT setval('public." + sequence + "', GREATEST(" +
+                                "(SELECT COALESCE(MAX(id), 0) FROM public." + table + ") + " + ALLOCATION_SIZE + ", " +
+                                "(SELECT last_value FROM public." + sequence + ")))",
+                        Long.class);
+                log.debug("Sequence {} aligned to {}", sequence, value);
+            } catch (DataAccessException e) {
+                log.warn("Could not align sequence {} with table {}: {}", sequence, table, e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package org.rakhmonov.inventoryservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.rakhmonov.events.EventContracts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Declares the inventory-decreased topic, keyed by order number, created on startup if missing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class KafkaTopicConfig {
+
+    @Value("${app.kafka.inventory-events.partitions:6}")
+    private int partitions;
+
+    @Value("${app.kafka.inventory-events.replicas:1}")
+    private int replicas;
+
+    @Bean
+    public NewTopic inventoryDecreasedTopic() {
+        return TopicBuilder.name(EventContracts.INVENTORY_DECREASED_TOPIC).partitions(partitions).replicas(replicas).build();
+    }
+}
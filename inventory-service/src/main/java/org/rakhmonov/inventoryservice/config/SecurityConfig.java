@@ -47,6 +47,7 @@ public class SecurityConfig {
                         .requestMatchers("/doc.html").permitAll()
                         .requestMatchers("/error").permitAll()
                         .requestMatchers("/uploads/**").permitAll() // Allow access to uploaded images
+                        .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll() // Resized product images
                         .requestMatchers("/api/products/**").permitAll() // Allow all product endpoints
                         .requestMatchers(HttpMethod.GET, "/categories", "/categories/**", "/categories/{id}", "/categories/search").permitAll() // Allow only GET requests to categories
                         .anyRequest().authenticated()
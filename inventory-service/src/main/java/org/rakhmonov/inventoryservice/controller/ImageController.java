@@ -0,0 +1,37 @@
+package org.rakhmonov.inventoryservice.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.image.ImageResponseWriter;
+import org.rakhmonov.inventoryservice.image.ImageSize;
+import org.rakhmonov.inventoryservice.image.ImageStorageService;
+import org.rakhmonov.inventoryservice.image.ResolvedImage;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class ImageController {
+    private final ImageStorageService imageStorageService;
+    private final ImageResponseWriter imageResponseWriter;
+
+    /**
+     * Serves an uploaded image in the requested size (thumbnail, list, detail or original).
+     * Falls back to the original while the resized variant is still being generated.
+     * Also answers the legacy /uploads URLs stored on products, so they get the same validators and caching.
+     */
+    @GetMapping({"/api/images/{fileName}", "/uploads/{fileName}"})
+    public void getImage(@PathVariable String fileName,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        ResolvedImage image = imageStorageService.resolve(fileName, ImageSize.from(size));
+        if (image == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        imageResponseWriter.write(image, request, response);
+    }
+}
@@ -2,11 +2,20 @@ package org.rakhmonov.inventoryservice.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.rakhmonov.inventoryservice.dto.request.InventoryRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.HotStockResponse;
 import org.rakhmonov.inventoryservice.dto.response.InventoryResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockAllocationResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.hotstock.HotStockService;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
+import org.rakhmonov.inventoryservice.service.CatalogExportService;
 import org.rakhmonov.inventoryservice.service.InventoryService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,6 +24,9 @@ import java.util.List;
 @RequestMapping("/inventory")
 public class InventroyController {
     private final InventoryService inventoryService;
+    private final CatalogExportService catalogExportService;
+    private final HotStockService hotStockService;
+    private final ReorderEngine reorderEngine;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -49,6 +61,66 @@ public class InventroyController {
         return ResponseEntity.ok(inventoryService.getAllInventory());
     }
     
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportInventory(@RequestParam(required = false) String format) {
+        CatalogExportService.ExportFormat exportFormat = CatalogExportService.ExportFormat.from(format);
+        StreamingResponseBody body = out -> catalogExportService.exportInventory(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName("inventory") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Shows how a quantity of a product would be split across warehouses, without reserving or taking stock.
+     */
+    @GetMapping("/allocation")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<StockAllocationResponse> previewAllocation(
+            @RequestParam Long productId,
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) String strategy,
+            @RequestParam(required = false) Long preferredWarehouseId) {
+        return ResponseEntity.ok(inventoryService.previewAllocation(productId, quantity, strategy, preferredWarehouseId));
+    }
+
+    @GetMapping("/hot-stock")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<HotStockResponse>> getHotStock() {
+        return ResponseEntity.ok(hotStockService.getHotStock());
+    }
+
+    /**
+     * Moves a product's stock into in-memory counters for a flash sale (requires app.hot-stock.enabled).
+     */
+    @PostMapping("/hot-stock/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<HotStockResponse>> flagHotStock(@PathVariable Long productId) {
+        hotStockService.flag(productId);
+        return ResponseEntity.ok(hotStockService.getHotStock());
+    }
+
+    @DeleteMapping("/hot-stock/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> unflagHotStock(@PathVariable Long productId) {
+        hotStockService.unflag(productId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Low and out of stock rows (or only those in {@code state}), read from the incrementally kept stock state.
+     */
+    @GetMapping("/reorder")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<CursorPageResponse<InventoryResponse>> getReorderSet(
+            @RequestParam(required = false) Inventory.StockState state,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(reorderEngine.getReorderSet(state, warehouseId, cursor, size));
+    }
+
     @GetMapping("/filter")
     @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
     public ResponseEntity<List<InventoryResponse>> filterInventory(
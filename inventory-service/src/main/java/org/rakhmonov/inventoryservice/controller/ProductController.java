@@ -2,23 +2,41 @@ package org.rakhmonov.inventoryservice.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.cache.ProductCache;
 import org.rakhmonov.inventoryservice.dto.request.ProductRequest;
+import org.rakhmonov.inventoryservice.dto.request.ProductSearchRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductImportResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductListResponse;
 import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+import org.rakhmonov.inventoryservice.service.CatalogExportService;
+import org.rakhmonov.inventoryservice.service.ProductFilterService;
+import org.rakhmonov.inventoryservice.service.ProductImportService;
 import org.rakhmonov.inventoryservice.service.ProductService;
 import org.rakhmonov.inventoryservice.util.JwtUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductFilterService productFilterService;
+    private final ProductImportService productImportService;
+    private final CatalogExportService catalogExportService;
+    private final ProductCache productCache;
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ProductResponse> createProduct(@Valid @ModelAttribute ProductRequest productRequest) {
@@ -41,6 +59,35 @@ public class ProductController {
         return ResponseEntity.ok(product);
     }
 
+    /**
+     * Bulk import from a CSV (header row required) or NDJSON file. Valid rows are imported even when others fail;
+     * the response lists the failed rows.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('SELLER') or hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+        return ResponseEntity.ok(productImportService.importProducts(file, format));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(required = false) String format) {
+        CatalogExportService.ExportFormat exportFormat = CatalogExportService.ExportFormat.from(format);
+        StreamingResponseBody body = out -> catalogExportService.exportProducts(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName("products") + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getProductCacheStats() {
+        return ResponseEntity.ok(productCache.getStats());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
         ProductResponse product = productService.getProductById(id);
@@ -55,6 +102,13 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getProductsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getProductsByCursor(cursor, size));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         try {
@@ -68,12 +122,24 @@ public class ProductController {
     @GetMapping("/search")
     public ResponseEntity<Page<ProductResponse>> searchProducts(
             @RequestParam String keyword,
-            @PageableDefault(size = 20, sort = "name")
+            @PageableDefault(size = 20) // results come back in relevance order
             Pageable pageable) {
         Page<ProductResponse> products = productService.searchProducts(keyword, pageable);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<ProductListResponse> filterProducts(@Valid @ModelAttribute ProductSearchRequest searchRequest) {
+        return ResponseEntity.ok(productFilterService.filterProducts(searchRequest));
+    }
+
+    @PostMapping("/search/reindex")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> reindexProducts() {
+        int indexed = productService.reindexProducts();
+        return ResponseEntity.ok(Map.of("indexedProducts", indexed));
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
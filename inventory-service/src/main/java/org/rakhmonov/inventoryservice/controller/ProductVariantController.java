@@ -5,13 +5,16 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.rakhmonov.inventoryservice.dto.request.ProductVariantRequest;
 import org.rakhmonov.inventoryservice.dto.response.ProductVariantResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockReservationResponse;
 import org.rakhmonov.inventoryservice.service.ProductVariantService;
+import org.rakhmonov.inventoryservice.service.StockReservationService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/products/{productId}/variants")
@@ -20,6 +23,7 @@ import java.util.List;
 public class ProductVariantController {
 
     private final ProductVariantService productVariantService;
+    private final StockReservationService stockReservationService;
 
     @PostMapping
     public ResponseEntity<ProductVariantResponse> createProductVariant(
@@ -70,22 +74,34 @@ public class ProductVariantController {
         return ResponseEntity.ok(variant);
     }
 
+    /**
+     * Holds stock for a checkout; the hold expires after ttlSeconds (default app.reservation.default-ttl)
+     * unless it is confirmed or released first.
+     */
     @PatchMapping("/{variantId}/reserve")
-    public ResponseEntity<ProductVariantResponse> reserveStock(
+    public ResponseEntity<StockReservationResponse> reserveStock(
             @PathVariable Long productId,
             @PathVariable Long variantId,
-            @RequestParam Integer quantity) {
-        ProductVariantResponse variant = productVariantService.reserveStock(productId, variantId, quantity);
-        return ResponseEntity.ok(variant);
+            @RequestParam Integer quantity,
+            @RequestParam(required = false) Long ttlSeconds) {
+        StockReservationResponse reservation = stockReservationService.reserve(productId, variantId, quantity, ttlSeconds);
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
     }
 
     @PatchMapping("/{variantId}/release")
-    public ResponseEntity<ProductVariantResponse> releaseReservedStock(
+    public ResponseEntity<StockReservationResponse> releaseReservedStock(
             @PathVariable Long productId,
             @PathVariable Long variantId,
-            @RequestParam Integer quantity) {
-        ProductVariantResponse variant = productVariantService.releaseReservedStock(productId, variantId, quantity);
-        return ResponseEntity.ok(variant);
+            @RequestParam UUID reservationId) {
+        return ResponseEntity.ok(stockReservationService.release(productId, variantId, reservationId));
+    }
+
+    @PatchMapping("/{variantId}/confirm")
+    public ResponseEntity<StockReservationResponse> confirmReservedStock(
+            @PathVariable Long productId,
+            @PathVariable Long variantId,
+            @RequestParam UUID reservationId) {
+        return ResponseEntity.ok(stockReservationService.confirm(productId, variantId, reservationId));
     }
 
     @PatchMapping("/{variantId}/activate")
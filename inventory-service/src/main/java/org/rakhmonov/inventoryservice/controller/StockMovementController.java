@@ -3,16 +3,27 @@ package org.rakhmonov.inventoryservice.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementBatchRequest;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementFilterRequest;
 import org.rakhmonov.inventoryservice.dto.request.StockMovementRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockLevelResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementDailyReportResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementRollupBackfillResponse;
 import org.rakhmonov.inventoryservice.dto.response.StockMovementResponse;
 import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.service.CatalogExportService;
+import org.rakhmonov.inventoryservice.service.StockMovementRollupService;
 import org.rakhmonov.inventoryservice.service.StockMovementService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -22,6 +33,8 @@ import java.util.List;
 @Slf4j
 public class StockMovementController {
     private final StockMovementService stockMovementService;
+    private final CatalogExportService catalogExportService;
+    private final StockMovementRollupService stockMovementRollupService;
 
     @PostMapping
     public ResponseEntity<StockMovementResponse> createStockMovement(@Valid @RequestBody StockMovementRequest request) {
@@ -29,60 +42,138 @@ public class StockMovementController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Records up to app.stock-movement.batch-max-size movements in one transaction, in submission order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<StockMovementResponse>> createStockMovements(@RequestBody StockMovementBatchRequest request) {
+        List<StockMovementResponse> responses = stockMovementService.createStockMovements(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(responses);
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportStockMovements(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        CatalogExportService.ExportFormat exportFormat = CatalogExportService.ExportFormat.from(format);
+        StreamingResponseBody body = out -> catalogExportService.exportStockMovements(exportFormat, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + exportFormat.fileName("stock-movements") + "\"")
+                .body(body);
+    }
+
+    /**
+     * Ledger stock of a product at an instant, in one warehouse or (without warehouseId) all of them.
+     */
+    @GetMapping("/stock-as-of")
+    public ResponseEntity<StockLevelResponse> getStockAsOf(
+            @RequestParam Long productId,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(stockMovementService.getStockAsOf(productId, warehouseId, at));
+    }
+
+    /**
+     * Per-day inbound/outbound totals over [from, to], read from the daily rollups only.
+     */
+    @GetMapping("/reports/daily")
+    public ResponseEntity<List<StockMovementDailyReportResponse>> getDailyReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Long warehouseId) {
+        return ResponseEntity.ok(stockMovementRollupService.getDailyReport(from, to, productId, warehouseId));
+    }
+
+    @PostMapping("/rollups/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StockMovementRollupBackfillResponse> backfillRollups(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(stockMovementRollupService.backfill(from, to));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<StockMovementResponse> getStockMovement(@PathVariable Long id) {
         StockMovementResponse response = stockMovementService.getStockMovement(id);
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping
-    public ResponseEntity<List<StockMovementResponse>> getAllStockMovements() {
-        List<StockMovementResponse> responses = stockMovementService.getAllStockMovements();
-        return ResponseEntity.ok(responses);
+    /**
+     * Combined filter: any of productId, warehouseId, movementType, referenceNumber, referenceType, createdBy,
+     * from and to, newest first, one keyset page at a time.
+     */
+    @GetMapping({"", "/search"})
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> filterStockMovements(
+            @ModelAttribute StockMovementFilterRequest filter) {
+        return ResponseEntity.ok(stockMovementService.filterStockMovements(filter));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder(), cursor, size);
     }
 
     @GetMapping("/product/{productId}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByProduct(@PathVariable Long productId) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByProduct(productId);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByProduct(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().productId(productId), cursor, size);
     }
 
     @GetMapping("/warehouse/{warehouseId}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByWarehouse(@PathVariable Long warehouseId) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByWarehouse(warehouseId);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByWarehouse(
+            @PathVariable Long warehouseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().warehouseId(warehouseId), cursor, size);
     }
 
     @GetMapping("/type/{movementType}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByType(@PathVariable StockMovement.MovementType movementType) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByType(movementType);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByType(
+            @PathVariable StockMovement.MovementType movementType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().movementType(movementType), cursor, size);
     }
 
     @GetMapping("/date-range")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByDateRange(
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByDateRange(startDate, endDate);
-        return ResponseEntity.ok(responses);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().from(startDate).to(endDate), cursor, size);
     }
 
     @GetMapping("/reference/{referenceNumber}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByReference(@PathVariable String referenceNumber) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByReference(referenceNumber);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByReference(
+            @PathVariable String referenceNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().referenceNumber(referenceNumber), cursor, size);
     }
 
     @GetMapping("/reference-type/{referenceType}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByReferenceType(@PathVariable String referenceType) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByReferenceType(referenceType);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByReferenceType(
+            @PathVariable String referenceType,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().referenceType(referenceType), cursor, size);
     }
 
     @GetMapping("/created-by/{createdBy}")
-    public ResponseEntity<List<StockMovementResponse>> getStockMovementsByCreatedBy(@PathVariable String createdBy) {
-        List<StockMovementResponse> responses = stockMovementService.getStockMovementsByCreatedBy(createdBy);
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<CursorPageResponse<StockMovementResponse>> getStockMovementsByCreatedBy(
+            @PathVariable String createdBy,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return page(StockMovementFilterRequest.builder().createdBy(createdBy), cursor, size);
     }
 
     @DeleteMapping("/{id}")
@@ -124,4 +215,9 @@ public class StockMovementController {
         StockMovementResponse response = stockMovementService.createStockMovement(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    private ResponseEntity<CursorPageResponse<StockMovementResponse>> page(
+            StockMovementFilterRequest.StockMovementFilterRequestBuilder filter, String cursor, Integer size) {
+        return ResponseEntity.ok(stockMovementService.filterStockMovements(filter.cursor(cursor).size(size).build()));
+    }
 }
@@ -0,0 +1,43 @@
+package org.rakhmonov.inventoryservice.dto.request;
+
+import lombok.*;
+import org.rakhmonov.inventoryservice.dto.ProductVariantRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One product of a bulk import: a CSV record or an NDJSON line. Checked row by row in ProductImportService
+ * so that one bad row does not reject the whole file.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    private String name;
+
+    private String description;
+
+    private BigDecimal price;
+
+    private String sku;
+    private String barcode;
+
+    // Either the category id or its name
+    private Long categoryId;
+    private String category;
+
+    private Long thirdPartySellerId;
+    private Long supplierId;
+
+    // Inventory is created when a warehouse is given
+    private Long warehouseId;
+    private Integer currentStock;
+    private Integer reorderPoint;
+    private BigDecimal unitCost;
+
+    @Builder.Default
+    private List<ProductVariantRequest> variants = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package org.rakhmonov.inventoryservice.dto.request;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementBatchRequest {
+    // Applied in this order, all or nothing
+    private List<StockMovementRequest> movements;
+}
@@ -0,0 +1,34 @@
+package org.rakhmonov.inventoryservice.dto.request;
+
+import lombok.*;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock movement listing filters; every field is optional and set ones are combined with AND.
+ * Results come newest first in keyset-paginated slices.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementFilterRequest {
+    private Long productId;
+    private Long warehouseId;
+    private StockMovement.MovementType movementType;
+    private String referenceNumber;
+    private String referenceType;
+    private String createdBy;
+
+    // Inclusive creation time range
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    // Pagination
+    private String cursor;
+    private Integer size;
+}
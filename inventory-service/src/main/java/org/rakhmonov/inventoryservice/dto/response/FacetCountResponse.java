@@ -0,0 +1,16 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountResponse {
+    private String key;   // value to filter on, e.g. category id or "100-500"
+    private String label; // display text
+    private long count;
+}
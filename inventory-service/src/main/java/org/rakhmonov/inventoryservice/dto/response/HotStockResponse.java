@@ -0,0 +1,19 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotStockResponse {
+    private Long productId;
+    private Long inventoryId;
+    private Long warehouseId;
+    private Long currentStock;
+    // change not yet written to the stock movement ledger
+    private Long unflushedDelta;
+}
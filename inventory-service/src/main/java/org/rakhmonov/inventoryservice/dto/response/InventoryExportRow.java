@@ -0,0 +1,24 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryExportRow {
+    private Long id;
+    private Long productId;
+    private String productSku;
+    private String productName;
+    private Long warehouseId;
+    private Integer currentStock;
+    private Integer reorderPoint;
+    private BigDecimal unitCost;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
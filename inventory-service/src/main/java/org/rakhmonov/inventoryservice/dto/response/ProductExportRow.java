@@ -0,0 +1,32 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat product row for catalog export, built directly by a JPQL constructor expression
+ * so streamed rows are never managed entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductExportRow {
+    private Long id;
+    private String sku;
+    private String name;
+    private String description;
+    private BigDecimal price;
+    private String barcode;
+    private Boolean isActive;
+    private Long categoryId;
+    private String categoryName;
+    private Long thirdPartySellerId;
+    private Long supplierId;
+    private Long totalStock; // sum over live inventory rows, null when the product has none
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductImportResponse {
+    private String format;
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long durationMs;
+
+    @Builder.Default
+    private List<ProductImportErrorResponse> errors = new ArrayList<>();
+    private boolean errorsTruncated; // only the first errors are reported for very bad files
+}
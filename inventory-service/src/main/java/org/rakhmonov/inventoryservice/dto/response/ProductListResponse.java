@@ -39,6 +39,12 @@ public class ProductListResponse {
     private long activeProducts;
     private long inactiveProducts;
     private long outOfStockProducts;
+    private long lowStockProducts;
+    
+    // Facet counts over the whole matching set
+    private List<FacetCountResponse> categoryFacets;
+    private List<FacetCountResponse> priceRangeFacets;
+    private List<FacetCountResponse> stockFacets;
     
     // Business logic methods
     public boolean hasResults() {
@@ -1,10 +1,12 @@
 package org.rakhmonov.inventoryservice.dto.response;
 
 import lombok.*;
+import org.rakhmonov.inventoryservice.entity.Inventory;
 import org.rakhmonov.inventoryservice.entity.Product;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -18,6 +20,7 @@ public class ProductResponse {
     private String sku;
     private String barcode;
     private String imageUrl;
+    private Map<String, String> imageVariants; // ImageSize key -> URL, filled by ProductPageAssembler
     private Boolean isActive;
     
     // Related entities (simplified)
@@ -46,6 +49,10 @@ public class ProductResponse {
     }
 
     public static ProductResponse fromEntity(Product product) {
+        return fromEntity(product, product.getInventory());
+    }
+
+    public static ProductResponse fromEntity(Product product, Inventory inventory) {
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
@@ -62,13 +69,13 @@ public class ProductResponse {
                         .build() : null)
                 .thirdPartySellerId(product.getThirdPartySellerId())
                 .supplierId(product.getSupplierId())
-                .inventory(product.getInventory() != null ?
+                .inventory(inventory != null ?
                     InventorySummaryResponse.builder()
-                        .id(product.getInventory().getId())
-                        .currentStock(product.getInventory().getCurrentStock())
-                        .reorderPoint(product.getInventory().getReorderPoint())
-                        .unitCost(product.getInventory().getUnitCost())
-                        .stockStatus(product.getInventory().getStockStatus())
+                        .id(inventory.getId())
+                        .currentStock(inventory.getCurrentStock())
+                        .reorderPoint(inventory.getReorderPoint())
+                        .unitCost(inventory.getUnitCost())
+                        .stockStatus(inventory.getStockStatus())
                         .build() : null)
                 .createdAt(product.getCreatedAt())
                 .updatedAt(product.getUpdatedAt())
@@ -26,6 +26,8 @@ public class ProductVariantResponse {
     private String dimensions; // "LxWxH" format
     private String imageUrl; // Specific image for this variant
     private Integer stockQuantity;
+    private Integer reservedQuantity;
+    private Integer availableQuantity; // stock not held by active reservations
     private Boolean isDefault;
     private ProductVariant.VariantStatus status;
     private Integer sortOrder; // For display ordering
@@ -0,0 +1,36 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.rakhmonov.inventoryservice.allocation.AllocationLine;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAllocationResponse {
+    private Long productId;
+    private Integer requestedQuantity;
+    private String strategy;
+    private List<WarehouseAllocationResponse> allocations;
+
+    public static StockAllocationResponse toResponse(Long productId, int quantity, String strategy, List<AllocationLine> lines) {
+        return StockAllocationResponse.builder()
+                .productId(productId)
+                .requestedQuantity(quantity)
+                .strategy(strategy)
+                .allocations(lines.stream()
+                        .map(line -> WarehouseAllocationResponse.builder()
+                                .inventoryId(line.inventory().getId())
+                                .warehouseId(line.inventory().getWarehouseId())
+                                .quantity(line.quantity())
+                                .remainingStock(line.inventory().getCurrentStock() - line.quantity())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLevelResponse {
+    private Long productId;
+    // null: summed over all warehouses
+    private Long warehouseId;
+    private LocalDateTime asOf;
+    private Long stock;
+    // snapshot run the level was computed from (null before the first run) and the ledger change after it
+    private LocalDateTime snapshotAt;
+    private Long changeSinceSnapshot;
+}
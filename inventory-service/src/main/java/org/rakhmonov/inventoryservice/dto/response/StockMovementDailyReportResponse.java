@@ -0,0 +1,25 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementDailyReportResponse {
+    private LocalDate day;
+    private Long quantityIn;
+    private Long quantityOut;
+    private BigDecimal totalCost;
+    private Long movementCount;
+
+    public Long getNetQuantity() {
+        return quantityIn - quantityOut;
+    }
+}
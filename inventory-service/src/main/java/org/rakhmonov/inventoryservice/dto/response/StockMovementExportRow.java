@@ -0,0 +1,30 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementExportRow {
+    private Long id;
+    private Long productId;
+    private String productSku;
+    private Long warehouseId;
+    private StockMovement.MovementType movementType;
+    private Integer quantity;
+    private BigDecimal unitCost;
+    private BigDecimal totalCost;
+    private Integer stockBefore;
+    private Integer stockAfter;
+    private String referenceNumber;
+    private String referenceType;
+    private String notes;
+    private String createdBy;
+    private LocalDateTime createdAt;
+}
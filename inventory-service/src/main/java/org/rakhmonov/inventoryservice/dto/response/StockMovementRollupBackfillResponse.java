@@ -0,0 +1,19 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementRollupBackfillResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+    private int rollupRows;
+}
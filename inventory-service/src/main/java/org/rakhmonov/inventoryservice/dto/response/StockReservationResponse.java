@@ -0,0 +1,36 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.rakhmonov.inventoryservice.entity.StockReservation;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservationResponse {
+    private UUID reservationId;
+    private Long productId;
+    private Long variantId;
+    private Integer quantity;
+    private StockReservation.ReservationStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime closedAt;
+
+    public static StockReservationResponse toResponse(StockReservation reservation) {
+        return StockReservationResponse.builder()
+                .reservationId(reservation.getId())
+                .productId(reservation.getProductId())
+                .variantId(reservation.getVariantId())
+                .quantity(reservation.getQuantity())
+                .status(reservation.getStatus())
+                .expiresAt(reservation.getExpiresAt())
+                .closedAt(reservation.getClosedAt())
+                .build();
+    }
+}
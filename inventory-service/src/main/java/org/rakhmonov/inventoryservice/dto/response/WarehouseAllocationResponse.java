@@ -0,0 +1,18 @@
+package org.rakhmonov.inventoryservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WarehouseAllocationResponse {
+    private Long inventoryId;
+    private Long warehouseId;
+    private Integer quantity;
+    // stock left in the row after the allocation is applied
+    private Integer remainingStock;
+}
@@ -9,7 +9,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "inventory", schema = "public")
+@Table(name = "inventory", schema = "public",
+        // the reorder set: low and out of stock rows, without scanning the rest
+        indexes = @Index(name = "idx_inventory_stock_state_id", columnList = "stock_state, id"))
 @Data
 @Setter
 @Builder
@@ -17,7 +19,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Inventory {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -38,6 +41,25 @@ public class Inventory {
     
     @Column(name = "warehouse_id", nullable = false)
     private Long warehouseId; // Reference to Warehouse Service
+
+    // getStockStatus() as of the last write: set on every entity write and by the bulk stock UPDATEs
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stock_state", length = 20)
+    private StockState stockState;
+
+    // Most severe state a reorder-needed event went out for since the row was last in stock (see ReorderEngine)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reorder_alert_state", length = 20)
+    private StockState reorderAlertState;
+
+    // Last HOT_STOCK stock movement already folded into currentStock (see HotStockService)
+    @Column(name = "hot_stock_watermark")
+    private Long hotStockWatermark;
+
+    // Instance counting this row in memory (see HotStockService), null when it is not hot. Written only by the
+    // repository's bulk updates, so saving a stale entity cannot clear or set it.
+    @Column(name = "hot_stock_owner", length = 100, insertable = false, updatable = false)
+    private String hotStockOwner;
     
     // Timestamps
     @CreationTimestamp
@@ -57,14 +79,31 @@ public class Inventory {
         this.isDeleted = isDeleted;
     }
     
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.stockState = StockState.of(currentStock, reorderPoint);
+    }
+
     // Business logic methods
     public String getStockStatus() {
-        if (currentStock <= 0) return "OUT_OF_STOCK";
-        if (currentStock <= reorderPoint) return "LOW_STOCK";
-        return "IN_STOCK";
+        return StockState.of(currentStock, reorderPoint).name();
     }
     
     public boolean needsReorder() {
         return currentStock <= reorderPoint;
     }
+
+    // In increasing severity
+    public enum StockState {
+        IN_STOCK,
+        LOW_STOCK,
+        OUT_OF_STOCK;
+
+        public static StockState of(int currentStock, int reorderPoint) {
+            if (currentStock <= 0) return OUT_OF_STOCK;
+            if (currentStock <= reorderPoint) return LOW_STOCK;
+            return IN_STOCK;
+        }
+    }
 }
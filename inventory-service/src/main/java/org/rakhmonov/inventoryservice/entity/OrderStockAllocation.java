@@ -0,0 +1,50 @@
+package org.rakhmonov.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock one order took from one warehouse, so cancelling the order returns it to the same warehouse.
+ * An order takes a product from a warehouse at most once; the unique key also serves lookups by order number.
+ */
+@Entity
+@Table(name = "order_stock_allocations", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_stock_allocations_order_product_warehouse",
+                columnNames = {"order_number", "product_id", "warehouse_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStockAllocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_stock_allocation_seq")
+    @SequenceGenerator(name = "order_stock_allocation_seq", sequenceName = "order_stock_allocations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, length = 100)
+    private String orderNumber;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // set when the stock was given back; a released line is never given back again
+    @Column(name = "released_at")
+    private LocalDateTime releasedAt;
+}
@@ -0,0 +1,44 @@
+package org.rakhmonov.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of taking stock for one order, written in the same transaction. Order-created events are delivered at
+ * least once (outbox resends, consumer rebalances); a redelivered order finds its row and gets the same answer
+ * without taking stock again. The unique order number makes a duplicate processed concurrently roll back.
+ */
+@Entity
+@Table(name = "processed_orders", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_processed_orders_order_number", columnNames = "order_number"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProcessedOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processed_order_seq")
+    @SequenceGenerator(name = "processed_order_seq", sequenceName = "processed_orders_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_number", nullable = false, length = 100)
+    private String orderNumber;
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    // why the order could not be covered
+    @Column(length = 500)
+    private String message;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
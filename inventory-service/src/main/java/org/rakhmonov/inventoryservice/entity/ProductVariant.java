@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -20,7 +21,8 @@ import java.time.LocalDateTime;
 public class ProductVariant {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_variant_seq")
+    @SequenceGenerator(name = "product_variant_seq", sequenceName = "product_variants_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -56,7 +58,13 @@ public class ProductVariant {
     
     @Column(name = "stock_quantity")
     @Builder.Default
-    private Integer stockQuantity = 0;
+    private Integer stockQuantity = 0; // on hand, including reserved units
+
+    // Sum of active reservations (see StockReservation); kept next to stock_quantity so availability is one row
+    @Column(name = "reserved_quantity", nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Integer reservedQuantity = 0;
     
     @Column(name = "is_default")
     @Builder.Default
@@ -94,24 +102,16 @@ public class ProductVariant {
         return price != null ? price : product.getPrice();
     }
     
+    public int getAvailableQuantity() {
+        return stockQuantity - (reservedQuantity != null ? reservedQuantity : 0);
+    }
+
     public boolean isInStock() {
-        return stockQuantity > 0 && status == VariantStatus.ACTIVE;
+        return getAvailableQuantity() > 0 && status == VariantStatus.ACTIVE;
     }
     
     public boolean canReserve(int quantity) {
-        return stockQuantity >= quantity && status == VariantStatus.ACTIVE;
-    }
-    
-    public void reserveStock(int quantity) {
-        if (canReserve(quantity)) {
-            this.stockQuantity -= quantity;
-        } else {
-            throw new IllegalArgumentException("Insufficient stock to reserve");
-        }
-    }
-    
-    public void releaseReservedStock(int quantity) {
-        this.stockQuantity += quantity;
+        return getAvailableQuantity() >= quantity && status == VariantStatus.ACTIVE;
     }
     
     public void sellStock(int quantity) {
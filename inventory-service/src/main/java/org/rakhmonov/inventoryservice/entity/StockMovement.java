@@ -11,7 +11,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_movements", schema = "public")
+@Table(name = "stock_movements", schema = "public",
+        indexes = {
+                @Index(name = "idx_stock_movements_created_at_id", columnList = "created_at, id"),
+                // per-product and per-warehouse listings in keyset order, and stock-as-of delta scans
+                @Index(name = "idx_stock_movements_product_created_at", columnList = "product_id, created_at, id"),
+                @Index(name = "idx_stock_movements_warehouse_created_at", columnList = "warehouse_id, created_at, id"),
+                @Index(name = "idx_stock_movements_reference_number", columnList = "reference_number")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +27,9 @@ import java.time.LocalDateTime;
 public class StockMovement {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence ids so batch ingestion can insert movements as JDBC batches
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movements_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,54 @@
+package org.rakhmonov.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Stock movement totals of one product in one warehouse on one day, kept up to date as movements are written
+ * (see {@code StockMovementRollupService}). Movements without a warehouse are rolled up under
+ * {@link #NO_WAREHOUSE}, so the (product, warehouse, day) key can be a plain unique constraint to upsert on.
+ */
+@Entity
+@Table(name = "stock_movement_daily_rollups", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_movement_daily_rollups_key",
+                columnNames = {"product_id", "warehouse_id", "day"}),
+        indexes = @Index(name = "idx_stock_movement_daily_rollups_day", columnList = "day"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovementDailyRollup {
+    public static final long NO_WAREHOUSE = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(name = "day", nullable = false)
+    private LocalDate day;
+
+    // inbound (IN, TRANSFER_IN, RELEASED) and all other movements, as StockMovement#isInbound
+    @Column(name = "quantity_in", nullable = false)
+    private Long quantityIn;
+
+    @Column(name = "quantity_out", nullable = false)
+    private Long quantityOut;
+
+    @Column(name = "total_cost", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalCost;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+}
@@ -0,0 +1,62 @@
+package org.rakhmonov.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A hold on variant stock until it is confirmed, released or expires.
+ * Active reservations are summed into {@link ProductVariant#getReservedQuantity()}.
+ */
+@Entity
+@Table(name = "stock_reservations", schema = "public",
+        // the expiry sweeper reads only active rows, oldest expiry first
+        indexes = @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // when the reservation stopped being active
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    public enum ReservationStatus {
+        ACTIVE,
+        CONFIRMED,  // turned into a sale, stock taken
+        RELEASED,   // given back by the caller
+        EXPIRED     // given back by the sweeper
+    }
+}
@@ -0,0 +1,46 @@
+package org.rakhmonov.inventoryservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger stock of one product in one warehouse at {@code asOf}: the sum of the effective quantities of all stock
+ * movements created at or before it. Written only for keys that moved since the previous snapshot run, so the
+ * latest snapshot at or before a run's {@code asOf} is the stock at that instant. Movements without a warehouse
+ * are kept under {@link #NO_WAREHOUSE}: a NULL would make every row distinct to the unique key, letting two
+ * instances write the same run twice.
+ */
+@Entity
+@Table(name = "stock_snapshots", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_snapshots_key_as_of",
+                columnNames = {"product_id", "warehouse_id", "as_of"}),
+        indexes = @Index(name = "idx_stock_snapshots_as_of", columnList = "as_of"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+    public static final long NO_WAREHOUSE = StockMovementDailyRollup.NO_WAREHOUSE;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_snapshot_seq")
+    @SequenceGenerator(name = "stock_snapshot_seq", sequenceName = "stock_snapshots_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(name = "stock", nullable = false)
+    private Long stock;
+}
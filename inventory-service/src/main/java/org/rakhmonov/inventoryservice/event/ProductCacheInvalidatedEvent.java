@@ -0,0 +1,26 @@
+package org.rakhmonov.inventoryservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Event broadcast to every inventory-service replica so they drop their cached copy of a product
+ * and, with {@code reindex} set, refresh it in their search index. An import chunk sends its products
+ * together in {@code productIds}, leaving {@code productId} empty.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCacheInvalidatedEvent {
+    private Long productId;
+    private String sourceInstanceId; // replica that made the change
+    private boolean reindex;
+    private List<Long> productIds;
+
+    public ProductCacheInvalidatedEvent(Long productId, String sourceInstanceId, boolean reindex) {
+        this(productId, sourceInstanceId, reindex, null);
+    }
+}
@@ -0,0 +1,22 @@
+package org.rakhmonov.inventoryservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published (in-process) whenever product data, its variants or its stock change.
+ * Cached product responses are dropped once the surrounding transaction commits; with {@code reindex} set (the
+ * product was created, deleted or its searchable text changed) the search index is refreshed too.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private Long productId;
+    private boolean reindex;
+
+    public ProductChangedEvent(Long productId) {
+        this(productId, false);
+    }
+}
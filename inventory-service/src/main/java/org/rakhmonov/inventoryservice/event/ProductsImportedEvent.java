@@ -0,0 +1,18 @@
+package org.rakhmonov.inventoryservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published (in-process) once per committed import chunk. The new products are added to the search index
+ * here and, through a single {@link ProductCacheInvalidatedEvent}, on every other replica.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private List<Long> productIds;
+}
@@ -0,0 +1,21 @@
+package org.rakhmonov.inventoryservice.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published once when an inventory row drops to low stock and once more if it then runs out;
+ * nothing more until it has been back in stock.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderNeededEvent {
+    private Long inventoryId;
+    private Long productId;
+    private Long warehouseId;
+    private Integer currentStock;
+    private Integer reorderPoint;
+    private String stockStatus; // LOW_STOCK or OUT_OF_STOCK
+}
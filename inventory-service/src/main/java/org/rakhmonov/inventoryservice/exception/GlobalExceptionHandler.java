@@ -1,6 +1,7 @@
 package org.rakhmonov.inventoryservice.exception;
 
 import io.swagger.v3.oas.annotations.Hidden;
+import org.rakhmonov.events.paging.InvalidCursorException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +39,62 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(StockReservationNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleStockReservationNotFoundException(StockReservationNotFoundException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Stock Reservation Not Found");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidCursorException(InvalidCursorException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Cursor");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidImportFileException(InvalidImportFileException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Import File");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidExportFormatException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidExportFormatException(InvalidExportFormatException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Export Format");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidAllocationStrategyException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidAllocationStrategyException(InvalidAllocationStrategyException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Allocation Strategy");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidDateRangeException(InvalidDateRangeException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Date Range");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InvalidStockMovementBatchException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidStockMovementBatchException(InvalidStockMovementBatchException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Invalid Stock Movement Batch");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, String> error = new HashMap<>();
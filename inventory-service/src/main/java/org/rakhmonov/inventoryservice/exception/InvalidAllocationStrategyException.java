@@ -0,0 +1,7 @@
+package org.rakhmonov.inventoryservice.exception;
+
+public class InvalidAllocationStrategyException extends RuntimeException {
+    public InvalidAllocationStrategyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.rakhmonov.inventoryservice.exception;
+
+public class InvalidDateRangeException extends RuntimeException {
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
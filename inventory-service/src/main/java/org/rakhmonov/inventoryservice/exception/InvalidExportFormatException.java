@@ -0,0 +1,7 @@
+package org.rakhmonov.inventoryservice.exception;
+
+public class InvalidExportFormatException extends RuntimeException {
+    public InvalidExportFormatException(String message) {
+        super(message);
+    }
+}
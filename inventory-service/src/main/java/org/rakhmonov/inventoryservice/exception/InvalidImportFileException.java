@@ -0,0 +1,7 @@
+package org.rakhmonov.inventoryservice.exception;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package org.rakhmonov.inventoryservice.exception;
+
+public class InvalidStockMovementBatchException extends RuntimeException {
+    public InvalidStockMovementBatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package org.rakhmonov.inventoryservice.exception;
+
+import java.util.UUID;
+
+public class StockReservationNotFoundException extends RuntimeException {
+    public StockReservationNotFoundException(UUID reservationId, Long variantId) {
+        super("Stock reservation not found with ID: " + reservationId + " for variant ID: " + variantId);
+    }
+}
@@ -0,0 +1,418 @@
+package org.rakhmonov.inventoryservice.hotstock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.response.HotStockResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.service.StockMovementRollupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Hot SKU" mode for flash sales: stock of flagged products lives in {@link StripedStockCounter}s, so order
+ * traffic for them never takes a database row lock.
+ * <p>
+ * Write-behind: every flush interval the net change of each counter is appended to the stock movement ledger
+ * (reference type {@value #REFERENCE_TYPE}); every few flushes the ledger rows are folded into
+ * {@code inventory.current_stock} together with a watermark (the last movement applied). On start-up any ledger
+ * rows past the watermark are folded in first, so stock written to the ledger survives a crash; at most one flush
+ * interval of in-memory changes can be lost.
+ * <p>
+ * Counters are per instance. The inventory rows of a flagged product record the instance that counts them
+ * ({@code hot_stock_owner}, {@code app.hot-stock.instance-id}, which must stay the same across restarts of an
+ * instance): another instance refuses to flag the product, and the database paths of every instance, order
+ * decrements as well as stock movements, leave the rows alone until the product is unflagged.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotStockService {
+    public static final String REFERENCE_TYPE = "HOT_STOCK";
+
+    private final InventoryRepository inventoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+    private final StockMovementRollupService stockMovementRollupService;
+    private final ReorderEngine reorderEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.hot-stock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.hot-stock.product-ids:}")
+    private Set<Long> configuredProductIds;
+
+    @Value("${app.hot-stock.stripes:16}")
+    private int stripes;
+
+    @Value("${app.hot-stock.checkpoint-every:10}")
+    private int checkpointEvery;
+
+    @Value("${app.hot-stock.instance-id:${HOSTNAME:${spring.application.name}}}")
+    private String instanceId;
+
+    private final Map<Long, List<HotInventory>> hotByProduct = new ConcurrentHashMap<>();
+    // guards flag/unflag/flush; never taken on the take/add path, which the counters fence themselves (close)
+    private final Object flushLock = new Object();
+    private int flushesSinceCheckpoint;
+
+    /**
+     * Stock taken from one hot inventory row; {@link #giveBack} undoes it.
+     */
+    public record HotTake(Long productId, Long inventoryId, Long warehouseId, int quantity, long remainingStock,
+                          HotInventory source) {
+    }
+
+    public boolean isHot(Long productId) {
+        return !hotByProduct.isEmpty() && hotByProduct.containsKey(productId);
+    }
+
+    /**
+     * Takes stock for several hot products, all or nothing. When a transaction is active the stock is given back
+     * if it does not commit, so hot lines roll back together with the rest of the order.
+     *
+     * @return the takes, one per product; products that are not hot are ignored
+     * @throws RuntimeException listing the lines no single hot row can cover (nothing is taken)
+     */
+    public List<HotTake> takeAll(Map<Long, Integer> productQuantities, Long warehouseId) {
+        List<HotTake> takes = new ArrayList<>();
+        List<String> shortLines = new ArrayList<>();
+        new TreeMap<>(productQuantities).forEach((productId, quantity) -> {
+            List<HotInventory> rows = hotByProduct.get(productId);
+            if (rows == null) {
+                return;
+            }
+            HotTake take = take(productId, rows, warehouseId, quantity);
+            if (take != null) {
+                takes.add(take);
+            } else {
+                shortLines.add("product " + productId + " (available " + rows.stream()
+                        .filter(row -> warehouseId == null || row.warehouseId.equals(warehouseId))
+                        .mapToLong(row -> row.counter.sum()).max().orElse(0) + ", requested " + quantity + ")");
+            }
+        });
+        if (!shortLines.isEmpty()) {
+            takes.forEach(this::giveBack);
+            throw new RuntimeException("Insufficient stock for " + String.join(", ", shortLines));
+        }
+        if (!takes.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        takes.forEach(HotStockService.this::giveBack);
+                    }
+                }
+            });
+        }
+        return takes;
+    }
+
+    public void giveBack(HotTake take) {
+        if (!take.source().counter.add(take.quantity())) {
+            // the product left hot mode and its final write-back is taken or under way: return it to the row,
+            // in a transaction of its own since this also runs after the order's transaction rolled back
+            TransactionTemplate requiresNew = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            requiresNew.executeWithoutResult(status ->
+                    inventoryRepository.returnHotStock(take.inventoryId(), take.quantity()));
+        }
+    }
+
+    /**
+     * Called by the database path once it holds the rows of {@code productIds} (locked, or left unchanged by a
+     * conditional UPDATE): {@link #flag} switches a product under the same row locks, so a product found not hot
+     * here cannot be counted in memory before this transaction's change is committed.
+     *
+     * @throws RuntimeException when one of the products went hot meanwhile, here (the caller rolls back and
+     *                          retries) or on another instance
+     */
+    public void requireNotHot(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productIds.stream().filter(this::isHot).findFirst().ifPresent(productId -> {
+            throw new RuntimeException("Hot stock mode for product " + productId + " started, retry the order");
+        });
+        inventoryRepository.findHotProductIds(productIds).stream().findFirst().ifPresent(productId -> {
+            throw new RuntimeException("Product " + productId + " is in hot stock mode on another instance");
+        });
+    }
+
+    /**
+     * Returns stock to a hot product: the given warehouse, or the emptiest one.
+     *
+     * @return false when the product (or that warehouse) is not hot, and the caller should use the database
+     */
+    public boolean add(Long productId, Long warehouseId, int quantity) {
+        List<HotInventory> rows = hotByProduct.get(productId);
+        if (rows == null) {
+            return false;
+        }
+        HotInventory target = rows.stream()
+                .filter(row -> warehouseId == null || row.warehouseId.equals(warehouseId))
+                .min(Comparator.comparingLong((HotInventory row) -> row.counter.sum()).thenComparing(row -> row.inventoryId))
+                .orElse(null);
+        // a closed counter (unflagging) refuses the units, which then go to the database row
+        return target != null && target.counter.add(quantity);
+    }
+
+    // Whole quantity from one row: the given warehouse, otherwise the fullest row that covers it
+    private HotTake take(Long productId, List<HotInventory> rows, Long warehouseId, int quantity) {
+        List<HotInventory> candidates = rows.stream()
+                .filter(row -> warehouseId == null || row.warehouseId.equals(warehouseId))
+                .sorted(Comparator.comparingLong((HotInventory row) -> row.counter.sum()).reversed())
+                .toList();
+        for (HotInventory row : candidates) {
+            if (row.counter.tryTake(quantity)) {
+                return new HotTake(productId, row.inventoryId, row.warehouseId, quantity, row.counter.sum(), row);
+            }
+        }
+        if (candidates.stream().anyMatch(row -> row.counter.isClosed())) {
+            throw new RuntimeException("Hot stock mode for product " + productId + " ended, retry the order");
+        }
+        return null;
+    }
+
+    public List<HotStockResponse> getHotStock() {
+        return hotByProduct.values().stream()
+                .flatMap(List::stream)
+                .map(row -> HotStockResponse.builder()
+                        .productId(row.productId)
+                        .inventoryId(row.inventoryId)
+                        .warehouseId(row.warehouseId)
+                        .currentStock(row.counter.sum())
+                        .unflushedDelta(row.counter.sum() - row.flushed)
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Moves a product's stock into in-memory counters, starting from the stored stock. The inventory rows stay
+     * locked until the product is hot, so a database-path change is either committed before the counters read the
+     * stock or, once it gets the lock, finds the product hot and rolls back (see {@link #requireNotHot}).
+     *
+     * @throws RuntimeException when another instance counts the product
+     */
+    public void flag(Long productId) {
+        if (!enabled) {
+            throw new RuntimeException("Hot stock mode is disabled (app.hot-stock.enabled)");
+        }
+        synchronized (flushLock) {
+            if (hotByProduct.containsKey(productId)) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Inventory> locked = inventoryRepository.lockByProductIdIn(List.of(productId));
+                if (locked.isEmpty()) {
+                    throw new RuntimeException("No inventory found for product ID: " + productId);
+                }
+                locked.stream()
+                        .map(Inventory::getHotStockOwner)
+                        .filter(owner -> owner != null && !owner.equals(instanceId))
+                        .findFirst()
+                        .ifPresent(owner -> {
+                            throw new RuntimeException("Product " + productId + " is in hot stock mode on " + owner);
+                        });
+                List<HotInventory> rows = locked.stream().map(inventory -> new HotInventory(inventory, stripes)).toList();
+                inventoryRepository.setHotStockOwner(rows.stream().map(row -> row.inventoryId).toList(), instanceId);
+                hotByProduct.put(productId, rows);
+                log.info("Product {} switched to hot stock mode ({} inventory rows)", productId, rows.size());
+            });
+        }
+    }
+
+    /**
+     * Writes the product's counters back and returns it to the regular database path. The counters are closed
+     * first, so the value written back is final: takes racing this fail and are retried on the database, adds go
+     * to the database row. The rows are released in the write-back's transaction; if it fails the counters reopen
+     * and the product stays hot.
+     */
+    public void unflag(Long productId) {
+        synchronized (flushLock) {
+            List<HotInventory> rows = hotByProduct.get(productId);
+            if (rows == null) {
+                return;
+            }
+            long[] closed = rows.stream().mapToLong(row -> row.counter.close()).toArray();
+            if (!writeBack(rows, closed, true, true)) {
+                for (int i = 0; i < rows.size(); i++) {
+                    rows.get(i).counter.reopen(closed[i]);
+                }
+                throw new RuntimeException("Could not write back hot stock of product " + productId + ", it stays hot");
+            }
+            hotByProduct.remove(productId);
+            log.info("Product {} left hot stock mode", productId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.hot-stock.flush-interval-ms:200}")
+    public void flush() {
+        if (hotByProduct.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            boolean checkpoint = ++flushesSinceCheckpoint >= checkpointEvery;
+            List<HotInventory> rows = hotByProduct.values().stream().flatMap(List::stream).toList();
+            writeBack(rows, rows.stream().mapToLong(row -> row.counter.sum()).toArray(), checkpoint, false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        synchronized (flushLock) {
+            recoverLedger();
+        }
+        if (enabled) {
+            configuredProductIds.forEach(this::flag);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long productId : new ArrayList<>(hotByProduct.keySet())) {
+            try {
+                unflag(productId);
+            } catch (RuntimeException e) {
+                // the ledger rows written so far are folded in on the next start-up
+                log.error("Hot stock of product {} not written back on shutdown: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends the counters' net change since the last flush ({@code current}, the counter values) to the ledger
+     * and, on a checkpoint, folds the ledger into the inventory rows, then {@code release}s them from hot mode if
+     * asked. One transaction; on failure nothing moves and the next flush retries the larger delta.
+     *
+     * @return false when the write-back failed
+     */
+    private boolean writeBack(List<HotInventory> rows, long[] current, boolean checkpoint, boolean release) {
+        try {
+            List<StockMovement> movements = transactionTemplate.execute(status -> {
+                List<StockMovement> written = new ArrayList<>();
+                for (int i = 0; i < rows.size(); i++) {
+                    HotInventory row = rows.get(i);
+                    long delta = current[i] - row.flushed;
+                    if (delta == 0) {
+                        written.add(null);
+                        continue;
+                    }
+                    StockMovement movement = stockMovementRepository.save(StockMovement.builder()
+                            .product(productRepository.getReferenceById(row.productId))
+                            .warehouseId(row.warehouseId)
+                            .movementType(delta < 0 ? StockMovement.MovementType.OUT : StockMovement.MovementType.IN)
+                            .quantity((int) Math.abs(delta))
+                            .stockBefore((int) row.flushed)
+                            .stockAfter((int) current[i])
+                            .referenceType(REFERENCE_TYPE)
+                            .notes("Hot stock write-behind")
+                            .createdBy("system")
+                            .build());
+                    stockMovementRollupService.record(movement, 1);
+                    written.add(movement);
+                }
+                if (checkpoint) {
+                    Set<Long> applied = new TreeSet<>();
+                    for (int i = 0; i < rows.size(); i++) {
+                        HotInventory row = rows.get(i);
+                        long pending = row.unapplied + (current[i] - row.flushed);
+                        Long watermark = written.get(i) != null ? written.get(i).getId() : row.lastMovementId;
+                        if (pending != 0) {
+                            inventoryRepository.applyHotStockCheckpoint(row.inventoryId, (int) pending, watermark);
+                            applied.add(row.productId);
+                        }
+                    }
+                    reorderEngine.stockChanged(applied);
+                }
+                if (release) {
+                    inventoryRepository.setHotStockOwner(rows.stream().map(row -> row.inventoryId).toList(), null);
+                }
+                return written;
+            });
+            Set<Long> checkpointed = new HashSet<>();
+            for (int i = 0; i < rows.size(); i++) {
+                HotInventory row = rows.get(i);
+                StockMovement movement = movements.get(i);
+                row.unapplied += current[i] - row.flushed;
+                row.flushed = current[i];
+                if (movement != null) {
+                    row.lastMovementId = movement.getId();
+                }
+                if (checkpoint && row.unapplied != 0) {
+                    checkpointed.add(row.productId);
+                    row.unapplied = 0;
+                }
+            }
+            if (checkpoint) {
+                flushesSinceCheckpoint = 0;
+                checkpointed.forEach(productId -> eventPublisher.publishEvent(new ProductChangedEvent(productId)));
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Hot stock write-behind failed, retrying on the next flush: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    // Folds ledger rows past each inventory row's watermark into its stock (after a crash between checkpoints) and
+    // releases the rows this instance held. Start-up only: while products are hot their rows legitimately have a
+    // tail awaiting the next checkpoint, so rows other instances hold are left to them.
+    private void recoverLedger() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Object[] tail : stockMovementRepository.findUnappliedLedgerTotals(REFERENCE_TYPE, instanceId)) {
+                Long inventoryId = (Long) tail[0];
+                int delta = ((Number) tail[1]).intValue();
+                inventoryRepository.applyHotStockCheckpoint(inventoryId, delta, (Long) tail[2]);
+                log.warn("Recovered {} units of hot stock ledger for inventory {}", delta, inventoryId);
+            }
+            int released = inventoryRepository.releaseHotStock(instanceId);
+            if (released > 0) {
+                log.warn("Released {} inventory rows left in hot stock mode by the previous run", released);
+            }
+        });
+    }
+
+    /**
+     * One inventory row in hot mode. Only the flush thread (under the flush lock) touches the bookkeeping fields.
+     */
+    static final class HotInventory {
+        final Long inventoryId;
+        final Long productId;
+        final Long warehouseId;
+        final StripedStockCounter counter;
+        // counter value last written to the ledger
+        long flushed;
+        // ledger quantity not yet folded into the inventory row
+        long unapplied;
+        Long lastMovementId;
+
+        HotInventory(Inventory inventory, int stripes) {
+            this.inventoryId = inventory.getId();
+            this.productId = inventory.getProduct().getId();
+            this.warehouseId = inventory.getWarehouseId();
+            this.counter = new StripedStockCounter(stripes, inventory.getCurrentStock());
+            this.flushed = inventory.getCurrentStock();
+            this.lastMovementId = inventory.getHotStockWatermark();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.rakhmonov.inventoryservice.hotstock;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stock counter that never goes below zero and spreads concurrent writers over several cache-line-separated
+ * stripes, each holding part of the stock. A take is a CAS on the caller's own stripe; only when no single stripe
+ * covers the quantity does it gather from several stripes, under a lock used by nobody else.
+ * Like {@code LongAdder}, {@link #sum()} is exact only when no update is in flight; {@link #close()} gives the
+ * exact final value, because it swaps each stripe for a closed marker that every later take or add fails on.
+ */
+final class StripedStockCounter {
+    // 8 longs = 64 bytes between stripes, so two stripes never share a cache line
+    private static final int PAD = 8;
+    // a closed stripe; below any quantity, so the take fast path skips it without a separate check
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final int stripeCount;
+    private final AtomicLongArray cells;
+
+    StripedStockCounter(int stripes, long initialStock) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripes);
+        }
+        this.stripeCount = stripes;
+        this.cells = new AtomicLongArray(stripes * PAD);
+        fill(initialStock);
+    }
+
+    /**
+     * Takes {@code quantity} if that much is in stock.
+     *
+     * @return false (and nothing taken) when the stock cannot cover it or the counter is closed
+     */
+    boolean tryTake(long quantity) {
+        int home = stripe();
+        // fast path: one stripe covers the quantity, starting with this thread's own
+        for (int i = 0; i < stripeCount; i++) {
+            int index = ((home + i) & (stripeCount - 1)) * PAD;
+            long current = cells.get(index);
+            while (current >= quantity) {
+                if (cells.compareAndSet(index, current, current - quantity)) {
+                    return true;
+                }
+                current = cells.get(index);
+            }
+        }
+        return gather(quantity);
+    }
+
+    /**
+     * @return false (and nothing added) when the counter is closed
+     */
+    boolean add(long quantity) {
+        int index = stripe() * PAD;
+        long current;
+        do {
+            current = cells.get(index);
+            if (current == CLOSED) {
+                return false;
+            }
+        } while (!cells.compareAndSet(index, current, current + quantity));
+        return true;
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            long cell = cells.get(i * PAD);
+            if (cell != CLOSED) {
+                sum += cell;
+            }
+        }
+        return sum;
+    }
+
+    boolean isClosed() {
+        return cells.get(0) == CLOSED;
+    }
+
+    /**
+     * Stops all takes and adds. Each one either completed before its stripe closed, and is in the returned value,
+     * or fails; none can land afterwards. Synchronized with {@link #gather} so a multi-stripe take is all in or out.
+     *
+     * @return the final stock
+     */
+    synchronized long close() {
+        if (isClosed()) {
+            throw new IllegalStateException("Counter already closed");
+        }
+        long stock = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            stock += cells.getAndSet(i * PAD, CLOSED);
+        }
+        return stock;
+    }
+
+    // Undoes close(), e.g. when the final write-back failed
+    synchronized void reopen(long stock) {
+        if (!isClosed()) {
+            throw new IllegalStateException("Counter is open");
+        }
+        fill(stock);
+    }
+
+    private void fill(long stock) {
+        long share = stock / stripeCount;
+        // stripe 0 last: it doubles as the closed flag (see isClosed)
+        for (int i = stripeCount - 1; i >= 0; i--) {
+            cells.set(i * PAD, share + (i < stock % stripeCount ? 1 : 0));
+        }
+    }
+
+    // Slow path: stock is fragmented across stripes. Takes what each stripe has; gives it all back if short.
+    // Closed stripes hold CLOSED (< 0) and are skipped; close() cannot run in between, as both are synchronized.
+    private synchronized boolean gather(long quantity) {
+        long[] taken = new long[stripeCount];
+        long remaining = quantity;
+        for (int i = 0; i < stripeCount && remaining > 0; i++) {
+            int index = i * PAD;
+            long current = cells.get(index);
+            while (current > 0) {
+                long amount = Math.min(current, remaining);
+                if (cells.compareAndSet(index, current, current - amount)) {
+                    taken[i] = amount;
+                    remaining -= amount;
+                    break;
+                }
+                current = cells.get(index);
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int i = 0; i < stripeCount; i++) {
+            if (taken[i] > 0) {
+                cells.getAndAdd(i * PAD, taken[i]);
+            }
+        }
+        return false;
+    }
+
+    private int stripe() {
+        // spread thread hashes (Fibonacci hashing) so threads land on different stripes
+        return (System.identityHashCode(Thread.currentThread()) * 0x9E3779B9 >>> 16) & (stripeCount - 1);
+    }
+}
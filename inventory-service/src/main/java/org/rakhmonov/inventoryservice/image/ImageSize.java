@@ -0,0 +1,47 @@
+package org.rakhmonov.inventoryservice.image;
+
+import java.util.Locale;
+
+/**
+ * Sizes served to the storefront. Resized variants fit inside a square of {@code maxDimension} pixels
+ * and are never upscaled.
+ */
+public enum ImageSize {
+    THUMBNAIL(150),
+    LIST(400),
+    DETAIL(1000),
+    ORIGINAL(0);
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isResized() {
+        return this != ORIGINAL;
+    }
+
+    public String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Unknown or missing sizes fall back to the original image.
+     */
+    public static ImageSize from(String value) {
+        if (value == null || value.isBlank()) {
+            return ORIGINAL;
+        }
+        for (ImageSize size : values()) {
+            if (size.name().equalsIgnoreCase(value.trim())) {
+                return size;
+            }
+        }
+        return ORIGINAL;
+    }
+}
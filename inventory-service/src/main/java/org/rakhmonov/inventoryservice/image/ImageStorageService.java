@@ -0,0 +1,394 @@
+package org.rakhmonov.inventoryservice.image;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Stores uploaded images under the SHA-256 of their content, so identical uploads share one file,
+ * and generates the resized {@link ImageSize} variants on a small background pool.
+ * Files live in app.upload.dir and keep the existing "/uploads/{name}" URLs.
+ * <p>
+ * A shared file can be reused by one upload while the last product using it lets go. Storing, deleting and
+ * placing variants therefore run under a per-name lock, and a name stored inside a transaction counts as
+ * referenced until that transaction completes, before its new reference is visible to the delete check.
+ */
+@Service
+@Slf4j
+public class ImageStorageService {
+    public static final String URL_PREFIX = "/uploads/";
+
+    private static final Pattern SAFE_FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("[a-z0-9]{1,5}");
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final Path uploadDir;
+    private final ExecutorService resizeExecutor;
+    // originals with variant generation queued or running, so a burst of requests schedules it once
+    private final Set<String> pendingVariants = ConcurrentHashMap.newKeySet();
+    // names stored by transactions that have not completed yet, with how many such stores each
+    private final Map<String, Integer> pendingReferences = new ConcurrentHashMap<>();
+    // striped per-name locks: a name always maps to the same lock, unrelated names rarely share one
+    private final Object[] nameLocks = new Object[64];
+
+    @Autowired
+    public ImageStorageService(ProductRepository productRepository,
+                               ProductVariantRepository productVariantRepository,
+                               @Value("${app.upload.dir:/home/baxti/uploads}") String uploadDir,
+                               @Value("${app.image.resize-threads:2}") int resizeThreads,
+                               @Value("${app.image.resize-queue:1000}") int resizeQueue) {
+        this(productRepository, productVariantRepository, Paths.get(uploadDir).toAbsolutePath(),
+                newResizePool(resizeThreads, resizeQueue));
+    }
+
+    ImageStorageService(ProductRepository productRepository, ProductVariantRepository productVariantRepository,
+                        Path uploadDir, ExecutorService resizeExecutor) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.uploadDir = uploadDir;
+        this.resizeExecutor = resizeExecutor;
+        for (int i = 0; i < nameLocks.length; i++) {
+            nameLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Saves the upload under its content hash and queues its resized variants. Call it in the transaction that
+     * saves the returned URL: until that transaction completes, the file is not deleted as unreferenced.
+     *
+     * @return the image URL to store on the entity, e.g. "/uploads/3f9a...c1.jpg"
+     */
+    public String store(MultipartFile image) {
+        if (image == null || image.isEmpty()) {
+            throw new RuntimeException("Image file is required");
+        }
+        String extension = extensionOf(image.getOriginalFilename());
+
+        String fileName;
+        try {
+            Files.createDirectories(uploadDir);
+            Path temp = Files.createTempFile(uploadDir, "upload-", ".tmp");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream in = new DigestInputStream(image.getInputStream(), digest)) {
+                    Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                fileName = HexFormat.of().formatHex(digest.digest()) + "." + extension;
+                Path target = uploadDir.resolve(fileName);
+                synchronized (lockFor(fileName)) {
+                    if (Files.exists(target)) {
+                        log.debug("Image {} already stored, reusing it", fileName);
+                    } else {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                    holdUntilTransactionCompletes(fileName);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to upload image", e);
+        }
+
+        scheduleVariants(fileName);
+        return URL_PREFIX + fileName;
+    }
+
+    // Marks the name referenced until the current transaction, which is saving the reference, completes
+    private void holdUntilTransactionCompletes(String fileName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        pendingReferences.merge(fileName, 1, Integer::sum);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pendingReferences.computeIfPresent(fileName, (name, count) -> count == 1 ? null : count - 1);
+                if (status != STATUS_COMMITTED) {
+                    // the rolled-back reference may have been the only one
+                    submit(() -> deleteIfUnreferenced(fileName));
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the file to serve for the requested size: the variant when it exists, otherwise the original
+     * (generating the missing variants in the background), or null when the image does not exist
+     */
+    public ResolvedImage resolve(String fileName, ImageSize size) throws IOException {
+        if (!isSafeFileName(fileName)) {
+            return null;
+        }
+        Path original = uploadDir.resolve(fileName);
+        if (!Files.isRegularFile(original)) {
+            return null;
+        }
+        String hash = contentHash(fileName);
+        if (size.isResized()) {
+            Path variant = variantPath(fileName, size);
+            if (Files.isRegularFile(variant)) {
+                return new ResolvedImage(variant, etag(hash, variant, size), hash != null, false);
+            }
+            // uploaded before variants existed, or generation still running; the URL will serve other bytes later
+            scheduleVariants(fileName);
+            return new ResolvedImage(original, etag(hash, original, ImageSize.ORIGINAL), false, true);
+        }
+        return new ResolvedImage(original, etag(hash, original, ImageSize.ORIGINAL), hash != null, false);
+    }
+
+    /**
+     * Deletes an image and its variants once no product or variant refers to it any more.
+     * Inside a transaction the check runs after commit, so a rollback never loses a file.
+     */
+    public void release(String imageUrl) {
+        String fileName = localFileName(imageUrl);
+        if (fileName == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(() -> deleteIfUnreferenced(fileName));
+                }
+            });
+        } else {
+            submit(() -> deleteIfUnreferenced(fileName));
+        }
+    }
+
+    /**
+     * @return the stored file name for a local image URL ("/uploads/x.jpg" or "x.jpg"), or null for external URLs
+     */
+    public static String localFileName(String imageUrl) {
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return null;
+        }
+        String name = imageUrl.startsWith(URL_PREFIX) ? imageUrl.substring(URL_PREFIX.length()) : imageUrl;
+        return isSafeFileName(name) ? name : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resizeExecutor.shutdownNow();
+    }
+
+    void generateVariants(String fileName) {
+        try {
+            Path original = uploadDir.resolve(fileName);
+            String format = formatOf(fileName);
+            if (format == null || !Files.isRegularFile(original)) {
+                return;
+            }
+            BufferedImage source = null;
+            for (ImageSize size : ImageSize.values()) {
+                Path target = variantPath(fileName, size);
+                if (!size.isResized() || Files.exists(target)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = ImageIO.read(original.toFile());
+                    if (source == null) {
+                        log.debug("No image reader for {}, serving the original only", fileName);
+                        return;
+                    }
+                }
+                writeAtomically(resize(source, size.getMaxDimension(), format), fileName, format, target);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to generate variants for {}: {}", fileName, e.getMessage());
+        } finally {
+            pendingVariants.remove(fileName);
+        }
+    }
+
+    private void scheduleVariants(String fileName) {
+        if (formatOf(fileName) != null && !isVariantName(fileName) && pendingVariants.add(fileName)) {
+            if (!submit(() -> generateVariants(fileName))) {
+                pendingVariants.remove(fileName);
+            }
+        }
+    }
+
+    private boolean submit(Runnable task) {
+        try {
+            resizeExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // queue full or shutting down; variants are generated again on the next request
+            log.warn("Image task rejected: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    void deleteIfUnreferenced(String fileName) {
+        String url = URL_PREFIX + fileName;
+        // under the name's lock, so a concurrent store() either reused the file and is pending, or stores it anew
+        synchronized (lockFor(fileName)) {
+            if (pendingReferences.containsKey(fileName)
+                    || productRepository.countByImageUrl(url) > 0 || productVariantRepository.countByImageUrl(url) > 0) {
+                return;
+            }
+            try {
+                for (ImageSize size : ImageSize.values()) {
+                    Files.deleteIfExists(size.isResized() ? variantPath(fileName, size) : uploadDir.resolve(fileName));
+                }
+                log.debug("Deleted unreferenced image {}", fileName);
+            } catch (IOException e) {
+                log.warn("Failed to delete image {}: {}", fileName, e.getMessage());
+            }
+        }
+    }
+
+    private Object lockFor(String fileName) {
+        return nameLocks[Math.floorMod(fileName.hashCode(), nameLocks.length)];
+    }
+
+    private static String etag(String hash, Path file, ImageSize size) throws IOException {
+        if (hash != null) {
+            return "\"" + hash + (size.isResized() ? "-" + size.key() : "") + "\"";
+        }
+        return "\"" + Files.size(file) + "-" + Files.getLastModifiedTime(file).toMillis() + "\"";
+    }
+
+    // SHA-256 of the content for files written by store(), null for older uploads
+    private static String contentHash(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return CONTENT_HASH.matcher(base).matches() ? base : null;
+    }
+
+    private Path variantPath(String fileName, ImageSize size) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String extension = dot > 0 ? fileName.substring(dot) : "";
+        return uploadDir.resolve(base + "-" + size.key() + extension);
+    }
+
+    private void writeAtomically(BufferedImage image, String fileName, String format, Path target) throws IOException {
+        Path temp = Files.createTempFile(uploadDir, "variant-", ".tmp");
+        try {
+            if (!ImageIO.write(image, format, temp.toFile())) {
+                throw new IOException("No image writer for " + format);
+            }
+            synchronized (lockFor(fileName)) {
+                // the original may have been deleted while resizing; do not leave an orphaned variant behind
+                if (Files.isRegularFile(uploadDir.resolve(fileName))) {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Halves the image until close to the target, then scales once more; keeps detail when shrinking a lot
+    static BufferedImage resize(BufferedImage source, int maxDimension, String format) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        // JPEG has no alpha channel
+        int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+
+        BufferedImage current = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (type == BufferedImage.TYPE_INT_RGB) {
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, currentWidth, currentHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    // ImageIO writer name for the variants, or null when variants are not generated for this type
+    private static String formatOf(String fileName) {
+        String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        return switch (extension) {
+            case "jpg", "png", "gif", "bmp" -> extension;
+            default -> null;
+        };
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "bin";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        if (extension.equals("jpeg")) {
+            return "jpg";
+        }
+        return SAFE_EXTENSION.matcher(extension).matches() ? extension : "bin";
+    }
+
+    private static boolean isVariantName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        for (ImageSize size : ImageSize.values()) {
+            if (size.isResized() && base.endsWith("-" + size.key())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSafeFileName(String fileName) {
+        return fileName != null && SAFE_FILE_NAME.matcher(fileName).matches() && !fileName.contains("..");
+    }
+
+    private static ExecutorService newResizePool(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
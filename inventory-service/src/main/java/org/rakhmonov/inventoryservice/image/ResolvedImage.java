@@ -0,0 +1,13 @@
+package org.rakhmonov.inventoryservice.image;
+
+import java.nio.file.Path;
+
+/**
+ * A file chosen to answer an image request.
+ *
+ * @param etag      strong validator: the content hash for content-addressed files, otherwise length and mtime
+ * @param immutable the bytes behind this URL can never change (content-addressed and exactly the size asked for)
+ * @param fallback  the original served in place of a resized variant that does not exist yet
+ */
+public record ResolvedImage(Path path, String etag, boolean immutable, boolean fallback) {
+}
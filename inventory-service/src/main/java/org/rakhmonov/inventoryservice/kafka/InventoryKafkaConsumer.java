@@ -2,14 +2,27 @@ package org.rakhmonov.inventoryservice.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.rakhmonov.inventoryservice.event.InventoryDecreasedEvent;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.InventoryDecreasedEvent;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.rakhmonov.events.OrderItem;
+import org.rakhmonov.events.OrderStatus;
+import org.rakhmonov.events.OrderStatusChangedEvent;
 import org.rakhmonov.inventoryservice.service.InventoryService;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Component
@@ -20,39 +33,42 @@ public class InventoryKafkaConsumer {
     
     private final InventoryService inventoryService;
     private final InventoryKafkaProducer inventoryKafkaProducer;
+    private final KeyedOrderedExecutor stockExecutor;
     
-    @KafkaListener(topics = "order-created-topic", groupId = "inventory-service-group")
-    public void handleOrderCreated(Map<String, Object> orderEvent) {
+    // Record-at-a-time mode, used when app.kafka.order-created.batch-enabled=false
+    @KafkaListener(id = "order-created", topics = EventContracts.ORDER_CREATED_TOPIC, groupId = "inventory-service-group",
+            concurrency = "${app.kafka.order-events.concurrency:3}",
+            autoStartup = "#{!${app.kafka.order-created.batch-enabled:true}}")
+    public void handleOrderCreated(OrderCreatedEvent orderEvent) {
         try {
             log.info("Received OrderCreatedEvent: {}", orderEvent);
             
-            String orderNumber = (String) orderEvent.get("orderNumber");
+            String orderNumber = orderEvent.getOrderNumber();
             
             // Get orderItems directly from event (optimized structure)
-            List<Map<String, Object>> orderItems = (List<Map<String, Object>>) orderEvent.get("orderItems");
-            if (orderItems == null || orderItems.isEmpty()) {
+            List<OrderItem> orderItems = orderEvent.getOrderItems();
+            if (orderItems.isEmpty()) {
                 log.warn("Order items are empty for order: {}", orderNumber);
                 return;
             }
             
             log.info("Processing order: {} with {} items", orderNumber, orderItems.size());
             
-            // Extract productId and quantity from orderItems
-            Map<Long, Integer> productQuantities = orderItems.stream()
-                    .collect(Collectors.toMap(
-                            item -> ((Number) item.get("productId")).longValue(),
-                            item -> ((Number) item.get("quantity")).intValue(),
-                            Integer::sum
-                    ));
+            Map<Long, Integer> productQuantities = productQuantities(orderItems);
             
             log.info("Decreasing inventory for order {}: {}", orderNumber, productQuantities);
             
-            // Decrease inventory stock for all products
+            // Decrease inventory stock for all products, holding the lanes of all of them (see runOnLane).
+            // A redelivered order gets the result recorded the first time instead of taking stock again.
             try {
-                inventoryService.decreaseStockForOrder(productQuantities);
+                InventoryService.OrderStockResult outcome = runOnLane(productQuantities,
+                        () -> decreaseStockForOrder(new InventoryService.OrderStockRequest(orderNumber, productQuantities)));
+                if (!outcome.success()) {
+                    throw new IllegalStateException(outcome.message());
+                }
                 
                 // Publish success event to order-service
-                InventoryDecreasedEvent successEvent = new InventoryDecreasedEvent(
+                InventoryDecreasedEvent successEvent = inventoryDecreased(
                         orderNumber,
                         true,
                         "Inventory decreased successfully"
@@ -64,7 +80,7 @@ public class InventoryKafkaConsumer {
                 log.error("Failed to decrease inventory for order {}: {}", orderNumber, e.getMessage(), e);
                 
                 // Publish failure event to order-service
-                InventoryDecreasedEvent failureEvent = new InventoryDecreasedEvent(
+                InventoryDecreasedEvent failureEvent = inventoryDecreased(
                         orderNumber,
                         false,
                         "Failed to decrease inventory: " + e.getMessage()
@@ -76,39 +92,124 @@ public class InventoryKafkaConsumer {
             log.error("Error processing OrderCreatedEvent: {}", e.getMessage(), e);
         }
     }
+
+    /**
+     * Drains a whole poll of order-created events. A product always maps to the same lane (see
+     * {@link KeyedOrderedExecutor}); orders sharing a lane, directly or through other orders, form a group that holds
+     * all of its lanes while it runs. Groups of the poll run in parallel on disjoint lanes, and a product's orders
+     * are taken one group at a time in arrival order, across polls and listener threads too.
+     * Each group takes the stock of its orders in one transaction (see {@link InventoryService#decreaseStockForOrders}),
+     * each order still succeeding or failing on its own; if that transaction fails, the group retries its orders one
+     * by one so every order still gets its own answer. An order delivered again gets the answer recorded for it the
+     * first time, sent again, without taking stock twice. All result events are then sent without waiting on each.
+     */
+    @KafkaListener(id = "order-created-batch", topics = EventContracts.ORDER_CREATED_TOPIC, groupId = "inventory-service-group",
+            concurrency = "${app.kafka.order-events.concurrency:3}",
+            batch = "true", autoStartup = "${app.kafka.order-created.batch-enabled:true}",
+            properties = "max.poll.records=${app.kafka.order-created.max-batch-size:200}")
+    public void handleOrderCreatedBatch(List<OrderCreatedEvent> orderEvents) {
+        log.info("Received {} OrderCreatedEvents", orderEvents.size());
+        List<InventoryDecreasedEvent> results = new ArrayList<>();
+        List<String> orderNumbers = new ArrayList<>();
+        List<Map<Long, Integer>> orders = new ArrayList<>();
+        for (OrderCreatedEvent orderEvent : orderEvents) {
+            String orderNumber = orderEvent != null ? orderEvent.getOrderNumber() : null;
+            try {
+                List<OrderItem> orderItems = orderEvent.getOrderItems();
+                if (orderItems.isEmpty()) {
+                    log.warn("Order items are empty for order: {}", orderNumber);
+                    continue;
+                }
+                orders.add(productQuantities(orderItems));
+                orderNumbers.add(orderNumber);
+            } catch (Exception e) {
+                log.error("Error processing OrderCreatedEvent {}: {}", orderEvent, e.getMessage(), e);
+                if (orderNumber != null) {
+                    results.add(inventoryDecreased(orderNumber, false, "Failed to decrease inventory: " + e.getMessage()));
+                }
+            }
+        }
+
+        if (!orders.isEmpty()) {
+            InventoryService.OrderStockResult[] outcomes = new InventoryService.OrderStockResult[orders.size()];
+            List<CompletableFuture<Void>> groups = new ArrayList<>();
+            for (OrderGroup group : orderGroups(orders, stockExecutor)) {
+                groups.add(stockExecutor.submitToLanes(group.lanes(), () -> {
+                    List<InventoryService.OrderStockResult> groupOutcomes = decreaseStockForOrders(group.orders().stream()
+                            .map(i -> new InventoryService.OrderStockRequest(orderNumbers.get(i), orders.get(i)))
+                            .toList());
+                    for (int i = 0; i < group.orders().size(); i++) {
+                        outcomes[group.orders().get(i)] = groupOutcomes.get(i);
+                    }
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(groups.toArray(CompletableFuture[]::new)).join();
+            for (int i = 0; i < orders.size(); i++) {
+                InventoryService.OrderStockResult outcome = outcomes[i];
+                if (!outcome.success()) {
+                    log.error("Failed to decrease inventory for order {}: {}", orderNumbers.get(i), outcome.message());
+                }
+                results.add(inventoryDecreased(orderNumbers.get(i), outcome.success(), outcome.success()
+                        ? "Inventory decreased successfully"
+                        : "Failed to decrease inventory: " + outcome.message()));
+            }
+        }
+        results.forEach(inventoryKafkaProducer::publishInventoryDecreasedAsync);
+        log.info("Processed {} orders, {} failed", results.size(), results.stream().filter(result -> !result.getSuccess()).count());
+    }
+
+    private List<InventoryService.OrderStockResult> decreaseStockForOrders(List<InventoryService.OrderStockRequest> orders) {
+        try {
+            return inventoryService.decreaseStockForOrders(orders);
+        } catch (Exception e) {
+            log.warn("Batch of {} orders failed ({}), retrying them one by one", orders.size(), e.getMessage());
+            return orders.stream().map(this::decreaseStockForOrder).toList();
+        }
+    }
+
+    // Goes through the batch path so a failed order is recorded too, and fails the same way when delivered again
+    private InventoryService.OrderStockResult decreaseStockForOrder(InventoryService.OrderStockRequest order) {
+        try {
+            return inventoryService.decreaseStockForOrders(List.of(order)).get(0);
+        } catch (Exception e) {
+            return new InventoryService.OrderStockResult(false, e.getMessage());
+        }
+    }
     
-    @KafkaListener(topics = "order-status-changed-topic", groupId = "inventory-service-group")
-    public void handleOrderStatusChanged(Map<String, Object> orderEvent) {
+    @KafkaListener(topics = EventContracts.ORDER_STATUS_CHANGED_TOPIC, groupId = "inventory-service-group",
+            concurrency = "${app.kafka.order-events.concurrency:3}")
+    public void handleOrderStatusChanged(OrderStatusChangedEvent orderEvent) {
         try {
             log.info("Received OrderStatusChangedEvent: {}", orderEvent);
             
-            String orderNumber = (String) orderEvent.get("orderNumber");
-            String newStatus = (String) orderEvent.get("newStatus");
-            String oldStatus = (String) orderEvent.get("oldStatus");
+            String orderNumber = orderEvent.getOrderNumber();
+            OrderStatus newStatus = orderEvent.getNewStatus();
+            OrderStatus oldStatus = orderEvent.getOldStatus();
             
             log.info("Order {} status changed from {} to {}", orderNumber, oldStatus, newStatus);
             
             // If order is cancelled, restore inventory
-            if ("CANCELLED".equals(newStatus)) {
+            if (newStatus == OrderStatus.CANCELLED) {
                 log.info("Order {} was cancelled, need to restore inventory", orderNumber);
                 
                 // Get orderItems directly from event
-                List<Map<String, Object>> orderItems = (List<Map<String, Object>>) orderEvent.get("orderItems");
-                if (orderItems != null && !orderItems.isEmpty()) {
+                List<OrderItem> orderItems = orderEvent.getOrderItems();
+                if (!orderItems.isEmpty()) {
                     // Restore inventory by increasing stock
-                    Map<Long, Integer> productQuantities = orderItems.stream()
-                            .collect(Collectors.toMap(
-                                    item -> ((Number) item.get("productId")).longValue(),
-                                    item -> ((Number) item.get("quantity")).intValue(),
-                                    Integer::sum
-                            ));
+                    Map<Long, Integer> productQuantities = productQuantities(orderItems);
                     
                     log.info("Restoring inventory for order {}: {}", orderNumber, productQuantities);
                     
-                    // Increase stock (reverse the decrease)
-                    inventoryService.increaseStockForOrder(productQuantities);
+                    // Give back exactly what the order took, to the warehouses it took it from
+                    boolean released = runOnLane(productQuantities,
+                            () -> inventoryService.releaseStockForOrder(orderNumber));
                     
-                    log.info("Successfully restored inventory for order: {}", orderNumber);
+                    if (released) {
+                        log.info("Successfully restored inventory for order: {}", orderNumber);
+                    } else {
+                        log.warn("No stock taken for order {} is left to restore", orderNumber);
+                    }
                 } else {
                     log.warn("Order items are empty for order: {}, cannot restore inventory", orderNumber);
                 }
@@ -118,7 +219,72 @@ public class InventoryKafkaConsumer {
             log.error("Error processing OrderStatusChangedEvent: {}", e.getMessage(), e);
         }
     }
-}
 
+    // productId to quantity, summing repeated lines of one product
+    private static Map<Long, Integer> productQuantities(List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .collect(Collectors.toMap(
+                        OrderItem::getProductId,
+                        OrderItem::getQuantity,
+                        Integer::sum
+                ));
+    }
 
+    /**
+     * Orders of a batch that share lanes, in arrival order, and the lanes of all their products.
+     */
+    record OrderGroup(SortedSet<Integer> lanes, List<Integer> orders) {
+    }
 
+    /**
+     * Splits a batch into groups of orders connected through the lanes of their products, in order of each group's
+     * first order. Groups have disjoint lanes, so they can run at the same time without sharing a product.
+     */
+    static List<OrderGroup> orderGroups(List<Map<Long, Integer>> orders, KeyedOrderedExecutor executor) {
+        // union-find over order indexes, joining the orders of each lane
+        int[] parent = new int[orders.size()];
+        Map<Integer, Integer> orderByLane = new HashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            parent[i] = i;
+            for (Long productId : orders.get(i).keySet()) {
+                Integer other = orderByLane.putIfAbsent(executor.lane(productId), i);
+                if (other != null) {
+                    parent[root(parent, i)] = root(parent, other);
+                }
+            }
+        }
+        Map<Integer, OrderGroup> groupByRoot = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            OrderGroup group = groupByRoot.computeIfAbsent(root(parent, i),
+                    root -> new OrderGroup(new TreeSet<>(), new ArrayList<>()));
+            orders.get(i).keySet().forEach(productId -> group.lanes().add(executor.lane(productId)));
+            group.orders().add(i);
+        }
+        return new ArrayList<>(groupByRoot.values());
+    }
+
+    private static int root(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Single-order work (record-at-a-time creates, cancellations) holds the lanes of all the order's products
+    private <T> T runOnLane(Map<Long, Integer> productQuantities, Supplier<T> task) {
+        try {
+            return stockExecutor.submit(productQuantities.keySet(), task).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private static InventoryDecreasedEvent inventoryDecreased(String orderNumber, boolean success, String message) {
+        return InventoryDecreasedEvent.newBuilder()
+                .setOrderNumber(orderNumber)
+                .setSuccess(success)
+                .setMessage(message)
+                .build();
+    }
+}
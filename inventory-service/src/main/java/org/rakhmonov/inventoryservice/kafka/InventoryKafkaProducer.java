@@ -2,7 +2,10 @@
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.rakhmonov.inventoryservice.event.InventoryDecreasedEvent;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.InventoryDecreasedEvent;
+import org.rakhmonov.inventoryservice.event.ProductCacheInvalidatedEvent;
+import org.rakhmonov.inventoryservice.event.ReorderNeededEvent;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
@@ -20,7 +23,7 @@ public class InventoryKafkaProducer {
     public void publishInventoryDecreased(InventoryDecreasedEvent event) {
         try {
             log.info("Publishing InventoryDecreasedEvent to Kafka: {}", event);
-            kafkaTemplate.send("inventory-decreased-topic", event)
+            kafkaTemplate.send(EventContracts.INVENTORY_DECREASED_TOPIC, event.getOrderNumber(), event)
                     .get(KAFKA_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             log.info("InventoryDecreasedEvent published successfully to Kafka");
         } catch (TimeoutException e) {
@@ -29,8 +32,52 @@ public class InventoryKafkaProducer {
             log.error("Error publishing InventoryDecreasedEvent to Kafka: {}", e.getMessage(), e);
         }
     }
-}
-
 
+    // Batch listener: the whole poll's results are sent without waiting on each; failures are logged per order
+    public void publishInventoryDecreasedAsync(InventoryDecreasedEvent event) {
+        try {
+            kafkaTemplate.send(EventContracts.INVENTORY_DECREASED_TOPIC, event.getOrderNumber(), event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.error("Failed to publish InventoryDecreasedEvent for order {}: {}",
+                                    event.getOrderNumber(), ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Error publishing InventoryDecreasedEvent for order {}: {}", event.getOrderNumber(), e.getMessage(), e);
+        }
+    }
 
+    // Fire-and-forget: a lost invalidation only costs staleness until the cache TTL expires
+    public void publishProductCacheInvalidated(ProductCacheInvalidatedEvent event) {
+        try {
+            // an import chunk has no single product to key by
+            String key = event.getProductId() != null ? String.valueOf(event.getProductId()) : null;
+            kafkaTemplate.send("product-cache-invalidation-topic", key, event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.warn("Failed to publish ProductCacheInvalidatedEvent for product {}: {}",
+                                    event.getProductId() != null ? event.getProductId() : event.getProductIds(),
+                                    ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Error publishing ProductCacheInvalidatedEvent to Kafka: {}", e.getMessage());
+        }
+    }
 
+    // Keyed by product so a product's alerts stay in order; deduplicated upstream by ReorderEngine
+    public void publishReorderNeeded(ReorderNeededEvent event) {
+        try {
+            kafkaTemplate.send("reorder-needed-topic", String.valueOf(event.getProductId()), event)
+                    .whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            log.warn("Failed to publish ReorderNeededEvent for inventory {}: {}",
+                                    event.getInventoryId(), ex.getMessage());
+                        }
+                    });
+        } catch (Exception e) {
+            log.warn("Error publishing ReorderNeededEvent to Kafka: {}", e.getMessage());
+        }
+    }
+}
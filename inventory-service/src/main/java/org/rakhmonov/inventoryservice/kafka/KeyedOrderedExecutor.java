@@ -0,0 +1,176 @@
+package org.rakhmonov.inventoryservice.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs stock work on a fixed set of single-threaded lanes, a key always mapping to the same lane. Tasks submitted
+ * under one key therefore run one at a time in submission order, whichever consumer thread submitted them, while
+ * tasks for keys on other lanes run in parallel. What the key of a piece of work is, and so which work is ordered
+ * against which, is up to the caller. Work touching several keys holds all of their lanes while it runs (see
+ * {@link #submitToLanes}), so a key's work stays ordered and never runs twice at once, across listener threads and
+ * polls. The lane count also caps the database connections Kafka work can hold.
+ * On shutdown queued and running tasks are finished, up to a timeout.
+ */
+@Component
+@Slf4j
+public class KeyedOrderedExecutor {
+
+    private final ExecutorService[] lanes;
+    private final Duration shutdownTimeout;
+    // Multi-lane work is queued on all of its lanes at once, so every lane sees such tasks in the same order
+    private final Object multiLaneSubmitLock = new Object();
+
+    public KeyedOrderedExecutor(int lanes) {
+        this(lanes, Duration.ofSeconds(30));
+    }
+
+    @Autowired
+    public KeyedOrderedExecutor(@Value("${app.kafka.stock-lanes:4}") int lanes,
+                                @Value("${app.kafka.stock-lanes-shutdown-timeout:30s}") Duration shutdownTimeout) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("At least one lane is required: " + lanes);
+        }
+        this.shutdownTimeout = shutdownTimeout;
+        this.lanes = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            String name = "stock-lane-" + i;
+            // unbounded: submitters wait for their own tasks, so the queue never holds more than a few polls
+            // not daemons: the JVM must not exit halfway through a stock transaction (see shutdown)
+            this.lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(runnable, name));
+        }
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    public int lane(long key) {
+        return Math.floorMod(Long.hashCode(key), lanes.length);
+    }
+
+    public <T> CompletableFuture<T> submit(long key, Supplier<T> task) {
+        return submitToLane(lane(key), task);
+    }
+
+    /**
+     * Runs {@code task} on the lanes of all {@code keys}, see {@link #submitToLanes}.
+     */
+    public <T> CompletableFuture<T> submit(Collection<Long> keys, Supplier<T> task) {
+        return submitToLanes(keys.stream().map(this::lane).collect(Collectors.toCollection(TreeSet::new)), task);
+    }
+
+    /**
+     * Runs {@code task} after everything submitted to {@code lane} before it.
+     */
+    public <T> CompletableFuture<T> submitToLane(int lane, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, lanes[lane]);
+    }
+
+    /**
+     * Runs {@code task} after everything submitted to any of {@code laneSet} before it, and before anything submitted
+     * to them after it. The lowest lane runs the task once the other lanes have reached it and wait there; they are
+     * released when it is done. Since multi-lane tasks are queued on all their lanes under one lock, two of them are
+     * in the same order on every lane they share and can never wait for each other.
+     */
+    public <T> CompletableFuture<T> submitToLanes(SortedSet<Integer> laneSet, Supplier<T> task) {
+        if (laneSet.size() == 1) {
+            return submitToLane(laneSet.first(), task);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CountDownLatch arrived = new CountDownLatch(laneSet.size() - 1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        int owner = laneSet.first();
+        synchronized (multiLaneSubmitLock) {
+            int queued = 0;
+            try {
+                for (int lane : laneSet) {
+                    lanes[lane].execute(lane == owner
+                            ? () -> runHoldingLanes(task, result, arrived, done, cancelled)
+                            : () -> {
+                                arrived.countDown();
+                                awaitQuietly(done);
+                            });
+                    queued++;
+                }
+            } catch (RejectedExecutionException e) {
+                // shutting down: whatever was queued must not wait for the lanes that refused
+                cancelled.set(true);
+                for (int i = Math.max(queued, 1); i < laneSet.size(); i++) {
+                    arrived.countDown();
+                }
+                result.completeExceptionally(e);
+            }
+        }
+        return result;
+    }
+
+    private static <T> void runHoldingLanes(Supplier<T> task, CompletableFuture<T> result, CountDownLatch arrived,
+                                            CountDownLatch done, AtomicBoolean cancelled) {
+        try {
+            arrived.await();
+            if (!cancelled.get()) {
+                result.complete(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the queued ones; lanes still busy after the timeout are interrupted.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    log.warn("Stock lanes did not finish within {}, interrupting them", shutdownTimeout);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+}
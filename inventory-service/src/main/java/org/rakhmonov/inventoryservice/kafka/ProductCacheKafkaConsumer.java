@@ -0,0 +1,53 @@
+package org.rakhmonov.inventoryservice.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.cache.ProductCache;
+import org.rakhmonov.inventoryservice.cache.ProductCacheInvalidationListener;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "spring.kafka.enabled", havingValue = "true", matchIfMissing = false)
+public class ProductCacheKafkaConsumer {
+
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+
+    // Unique group per replica: every instance must see every invalidation
+    @KafkaListener(topics = "product-cache-invalidation-topic",
+            groupId = "inventory-service-cache-#{T(java.util.UUID).randomUUID().toString()}",
+            properties = "auto.offset.reset=latest")
+    public void handleProductCacheInvalidated(Map<String, Object> event) {
+        try {
+            if (ProductCacheInvalidationListener.INSTANCE_ID.equals(event.get("sourceInstanceId"))) {
+                return; // already evicted and reindexed locally
+            }
+            if (event.get("productIds") instanceof List<?> productIds) {
+                // an import chunk: new products, one index load for all of them
+                List<Long> ids = productIds.stream().map(id -> ((Number) id).longValue()).toList();
+                ids.forEach(productCache::evict);
+                productSearchIndex.reindex(ids);
+                return;
+            }
+            Object productId = event.get("productId");
+            if (productId == null) {
+                log.warn("Product id is null in ProductCacheInvalidatedEvent");
+                return;
+            }
+            productCache.evict(((Number) productId).longValue());
+            if (Boolean.TRUE.equals(event.get("reindex"))) {
+                productSearchIndex.reindex(((Number) productId).longValue());
+            }
+        } catch (Exception e) {
+            log.error("Error processing ProductCacheInvalidatedEvent: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package org.rakhmonov.inventoryservice.reorder;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.InventoryResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Inventory.StockState;
+import org.rakhmonov.inventoryservice.event.ReorderNeededEvent;
+import org.rakhmonov.inventoryservice.kafka.InventoryKafkaProducer;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Incremental reorder detection. Every stock write keeps {@code inventory.stock_state} current (entity callback or
+ * the bulk UPDATE itself), so the low/out of stock set is an index range rather than a scan of all inventory.
+ * <p>
+ * Writers report the products whose stock they changed with {@link #stockChanged}; just before the transaction
+ * commits their rows are re-read once and a reorder-needed event is claimed for every row that became low or ran
+ * out. The claim is a conditional UPDATE of {@code reorder_alert_state}, so concurrent writers and instances alert a
+ * row once per state, and the row alerts again only after it has been back in stock. Events are published after the
+ * commit, never for changes that rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReorderEngine {
+    private static final List<StockState> REORDER_STATES = List.of(StockState.LOW_STOCK, StockState.OUT_OF_STOCK);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryKafkaProducer inventoryKafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Schedules a re-evaluation of the products' inventory rows at the end of the current transaction
+     * (or right away, in a transaction of its own, when none is active).
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<ReorderNeededEvent> alerts = transactionTemplate.execute(status -> evaluate(productIds));
+            publish(alerts);
+            return;
+        }
+        PendingEvaluation pending = (PendingEvaluation) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvaluation();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.productIds.addAll(productIds);
+    }
+
+    public void stockChanged(Long productId) {
+        stockChanged(List.of(productId));
+    }
+
+    /**
+     * One keyset page of the reorder set: low and/or out of stock rows in id order, optionally in one warehouse.
+     */
+    public CursorPageResponse<InventoryResponse> getReorderSet(StockState state, Long warehouseId, String cursor,
+                                                               Integer size) {
+        int pageSize = CursorCodec.clampSize(size);
+        Long after = CursorCodec.decodeId(cursor);
+        long afterId = after != null ? after : 0L;
+        List<Inventory> rows = inventoryRepository.findByStockStateIn(state != null ? List.of(state) : REORDER_STATES,
+                warehouseId, afterId, PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+        return CursorPageResponse.<InventoryResponse>builder()
+                .content(rows.stream().map(InventoryResponse::toResponse).toList())
+                .size(rows.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encodeId(rows.get(rows.size() - 1).getId()) : null)
+                .build();
+    }
+
+    // Rows written before stock_state existed get it once, so the reorder set is complete from the start
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeStockStates() {
+        int initialized = inventoryRepository.initializeStockStates();
+        if (initialized > 0) {
+            log.info("Stock state initialized for {} inventory rows", initialized);
+        }
+    }
+
+    /**
+     * Re-reads the products' rows, claims an alert for each row that needs one and re-arms rows back in stock.
+     * Returns the events to publish once the transaction commits.
+     */
+    List<ReorderNeededEvent> evaluate(Collection<Long> productIds) {
+        List<ReorderNeededEvent> alerts = new ArrayList<>();
+        List<Long> backInStock = new ArrayList<>();
+        for (Object[] row : inventoryRepository.findReorderRows(productIds)) {
+            Long inventoryId = (Long) row[0];
+            int currentStock = (Integer) row[3];
+            int reorderPoint = (Integer) row[4];
+            StockState alerted = (StockState) row[5];
+            StockState state = StockState.of(currentStock, reorderPoint);
+            if (state == StockState.IN_STOCK) {
+                if (alerted != null) {
+                    backInStock.add(inventoryId);
+                }
+            } else if ((alerted == null || alerted.compareTo(state) < 0)
+                    && inventoryRepository.claimReorderAlert(inventoryId, state, lessSevereThan(state)) == 1) {
+                alerts.add(new ReorderNeededEvent(inventoryId, (Long) row[1], (Long) row[2], currentStock, reorderPoint,
+                        state.name()));
+            }
+        }
+        if (!backInStock.isEmpty()) {
+            inventoryRepository.clearReorderAlerts(backInStock);
+        }
+        return alerts;
+    }
+
+    private void publish(List<ReorderNeededEvent> alerts) {
+        if (alerts == null) {
+            return;
+        }
+        for (ReorderNeededEvent alert : alerts) {
+            log.info("Reorder needed: inventory {} (product {}, warehouse {}) is {} with {} left",
+                    alert.getInventoryId(), alert.getProductId(), alert.getWarehouseId(), alert.getStockStatus(),
+                    alert.getCurrentStock());
+            inventoryKafkaProducer.publishReorderNeeded(alert);
+        }
+    }
+
+    private static List<StockState> lessSevereThan(StockState state) {
+        return Arrays.stream(StockState.values()).filter(other -> other.compareTo(state) < 0).toList();
+    }
+
+    // Products changed in one transaction, evaluated together just before it commits
+    private final class PendingEvaluation implements TransactionSynchronization {
+        private final Set<Long> productIds = new TreeSet<>();
+        private List<ReorderNeededEvent> alerts = List.of();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            alerts = evaluate(productIds);
+        }
+
+        @Override
+        public void afterCommit() {
+            publish(alerts);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReorderEngine.this);
+        }
+    }
+}
@@ -14,4 +14,7 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     @Query("SELECT c.id FROM Category c WHERE c.parent.id = :categoryId AND c.isDeleted = false")
     List<Long> findCategoryChildrenIds(Long categoryId);
+
+    @Query("SELECT c.id, p.id FROM Category c LEFT JOIN c.parent p WHERE c.isDeleted = false")
+    List<Object[]> findAllIdAndParentId();
 }
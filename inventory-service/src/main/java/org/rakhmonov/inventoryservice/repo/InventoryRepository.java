@@ -1,29 +1,162 @@
 package org.rakhmonov.inventoryservice.repo;
 
-import org.rakhmonov.inventoryservice.dto.response.InventoryResponse;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.rakhmonov.inventoryservice.dto.response.InventoryExportRow;
 import org.rakhmonov.inventoryservice.entity.Inventory;
 import org.rakhmonov.inventoryservice.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
-    @Query("SELECT i FROM Inventory i WHERE i.warehouseId = :warehouseId AND i.product.id = :productId AND i.isDeleted = false")
-    List<InventoryResponse> filterInventory(@Param("warehouseId") Long warehouseId,
-                                            @Param("productId") Long productId);
+    // Bulk stock UPDATEs skip entity callbacks, so they set Inventory#stockState themselves (as StockState.of)
+    String STATE = "org.rakhmonov.inventoryservice.entity.Inventory.StockState.";
+
+    @Query("SELECT i FROM Inventory i WHERE i.warehouseId = :warehouseId AND i.product.id = :productId " +
+            "AND i.stockState = :state AND i.isDeleted = false")
+    List<Inventory> filterInventory(@Param("warehouseId") Long warehouseId,
+                                    @Param("productId") Long productId,
+                                    @Param("state") Inventory.StockState state);
     
     @Query("SELECT i FROM Inventory i WHERE i.product.id = :productId AND i.warehouseId = :warehouseId AND i.isDeleted = false")
     Optional<Inventory> findByProductIdAndWarehouseId(Long productId, Long warehouseId);
     
     @Query("SELECT i FROM Inventory i WHERE i.product = :product AND i.isDeleted = false")
     List<Inventory> findByProduct(@Param("product") Product product);
+
+    // Inventory export; consume inside a read-only transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.rakhmonov.inventoryservice.dto.response.InventoryExportRow(" +
+            "i.id, p.id, p.sku, p.name, i.warehouseId, i.currentStock, i.reorderPoint, i.unitCost, i.createdAt, i.updatedAt) " +
+            "FROM Inventory i JOIN i.product p WHERE i.isDeleted = false ORDER BY i.id")
+    Stream<InventoryExportRow> streamExportRows();
+
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds AND i.isDeleted = false ORDER BY i.id")
+    List<Inventory> findByProductIdIn(@Param("productIds") Collection<Long> productIds);
     
     @Query("SELECT i FROM Inventory i WHERE i.warehouseId = :warehouseId AND i.isDeleted = false")
     List<Inventory> findByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    // Row locks are taken in product id, then id order, so two orders sharing products cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Inventory i WHERE i.product.id IN :productIds AND i.isDeleted = false " +
+            "ORDER BY i.product.id, i.id")
+    List<Inventory> lockByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Conditional stock updates: the row lock is held only for the statement and the stock check is re-evaluated
+    // against the latest row version, so concurrent orders can neither oversell nor lose an update.
+    // Rows in hot stock mode are left alone, whichever instance counts them.
+    // Each returns the number of rows changed; 0 means not found, not enough stock or hot.
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock - :quantity, i.updatedAt = CURRENT_TIMESTAMP, " +
+            "i.stockState = CASE WHEN i.currentStock - :quantity <= 0 THEN " + STATE + "OUT_OF_STOCK " +
+            "WHEN i.currentStock - :quantity <= i.reorderPoint THEN " + STATE + "LOW_STOCK ELSE " + STATE + "IN_STOCK END " +
+            "WHERE i.product.id = :productId AND i.warehouseId = :warehouseId AND i.isDeleted = false " +
+            "AND i.currentStock >= :quantity AND i.hotStockOwner IS NULL")
+    int decrementStock(@Param("productId") Long productId,
+                       @Param("warehouseId") Long warehouseId,
+                       @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock + :quantity, i.updatedAt = CURRENT_TIMESTAMP, " +
+            "i.stockState = CASE WHEN i.currentStock + :quantity <= 0 THEN " + STATE + "OUT_OF_STOCK " +
+            "WHEN i.currentStock + :quantity <= i.reorderPoint THEN " + STATE + "LOW_STOCK ELSE " + STATE + "IN_STOCK END " +
+            "WHERE i.product.id = :productId AND i.warehouseId = :warehouseId AND i.isDeleted = false " +
+            "AND i.hotStockOwner IS NULL")
+    int incrementStock(@Param("productId") Long productId,
+                       @Param("warehouseId") Long warehouseId,
+                       @Param("quantity") int quantity);
+
+    @Query("SELECT i.currentStock FROM Inventory i WHERE i.product.id = :productId AND i.warehouseId = :warehouseId " +
+            "AND i.isDeleted = false")
+    Optional<Integer> findCurrentStock(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId);
+
+    // Folds write-behind ledger rows into the stored stock and remembers the last one applied
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock + :delta, i.hotStockWatermark = :watermark, " +
+            "i.updatedAt = CURRENT_TIMESTAMP, " +
+            "i.stockState = CASE WHEN i.currentStock + :delta <= 0 THEN " + STATE + "OUT_OF_STOCK " +
+            "WHEN i.currentStock + :delta <= i.reorderPoint THEN " + STATE + "LOW_STOCK ELSE " + STATE + "IN_STOCK END " +
+            "WHERE i.id = :id")
+    int applyHotStockCheckpoint(@Param("id") Long id, @Param("delta") int delta, @Param("watermark") Long watermark);
+
+    // Stock taken from a hot row and handed back after the row left (or is leaving) hot mode
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.currentStock = i.currentStock + :quantity, i.updatedAt = CURRENT_TIMESTAMP, " +
+            "i.stockState = CASE WHEN i.currentStock + :quantity <= 0 THEN " + STATE + "OUT_OF_STOCK " +
+            "WHEN i.currentStock + :quantity <= i.reorderPoint THEN " + STATE + "LOW_STOCK ELSE " + STATE + "IN_STOCK END " +
+            "WHERE i.id = :id")
+    int returnHotStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // Marks rows as counted in memory by the given instance, or returns them to the database path (owner null)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.hotStockOwner = :owner WHERE i.id IN :ids")
+    int setHotStockOwner(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    // Start-up: the counters of the instance's previous run are gone
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Inventory i SET i.hotStockOwner = NULL WHERE i.hotStockOwner = :owner")
+    int releaseHotStock(@Param("owner") String owner);
+
+    @Query("SELECT DISTINCT i.product.id FROM Inventory i WHERE i.product.id IN :productIds " +
+            "AND i.hotStockOwner IS NOT NULL AND i.isDeleted = false")
+    List<Long> findHotProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // Reorder set, one keyset page in id order: rows in any of the given states, optionally in one warehouse
+    @Query("SELECT i FROM Inventory i WHERE i.stockState IN :states AND i.id > :afterId " +
+            "AND (:warehouseId IS NULL OR i.warehouseId = :warehouseId) AND i.isDeleted = false ORDER BY i.id")
+    List<Inventory> findByStockStateIn(@Param("states") Collection<Inventory.StockState> states,
+                                       @Param("warehouseId") Long warehouseId,
+                                       @Param("afterId") long afterId,
+                                       Pageable pageable);
+
+    // Fresh stock and alert state of the rows of the given products, {id, productId, warehouseId, currentStock,
+    // reorderPoint, reorderAlertState}; scalar, so it is read from the database even when entities are cached
+    @Query("SELECT i.id, i.product.id, i.warehouseId, i.currentStock, i.reorderPoint, i.reorderAlertState " +
+            "FROM Inventory i WHERE i.product.id IN :productIds AND i.isDeleted = false ORDER BY i.id")
+    List<Object[]> findReorderRows(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Records that a reorder-needed event goes out for the row in {@code state}, unless one already went out for
+     * it or a more severe state; returns 0 when another transaction claimed it first.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reorderAlertState = :state WHERE i.id = :id " +
+            "AND (i.reorderAlertState IS NULL OR i.reorderAlertState IN :lessSevere)")
+    int claimReorderAlert(@Param("id") Long id,
+                          @Param("state") Inventory.StockState state,
+                          @Param("lessSevere") Collection<Inventory.StockState> lessSevere);
+
+    // Back in stock: the next drop raises a new alert
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reorderAlertState = NULL WHERE i.id IN :ids")
+    int clearReorderAlerts(@Param("ids") Collection<Long> ids);
+
+    // Rows written before stock_state existed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Inventory i SET i.stockState = CASE WHEN i.currentStock <= 0 THEN " + STATE + "OUT_OF_STOCK " +
+            "WHEN i.currentStock <= i.reorderPoint THEN " + STATE + "LOW_STOCK ELSE " + STATE + "IN_STOCK END " +
+            "WHERE i.stockState IS NULL")
+    int initializeStockStates();
 }
@@ -0,0 +1,30 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import jakarta.persistence.LockModeType;
+import org.rakhmonov.inventoryservice.entity.OrderStockAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderStockAllocationRepository extends JpaRepository<OrderStockAllocation, Long> {
+
+    // Locked, so a second cancellation of the same order waits and then finds the lines released
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM OrderStockAllocation a WHERE a.orderNumber = :orderNumber AND a.releasedAt IS NULL " +
+            "ORDER BY a.productId, a.warehouseId")
+    List<OrderStockAllocation> lockUnreleased(@Param("orderNumber") String orderNumber);
+
+    List<OrderStockAllocation> findByOrderNumberOrderByProductIdAscWarehouseIdAsc(String orderNumber);
+
+    @Modifying
+    @Query("UPDATE OrderStockAllocation a SET a.releasedAt = :releasedAt WHERE a.id IN :ids")
+    int markReleased(@Param("ids") Collection<Long> ids, @Param("releasedAt") LocalDateTime releasedAt);
+}
@@ -0,0 +1,17 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.rakhmonov.inventoryservice.entity.ProcessedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProcessedOrderRepository extends JpaRepository<ProcessedOrder, Long> {
+
+    Optional<ProcessedOrder> findByOrderNumber(String orderNumber);
+
+    List<ProcessedOrder> findByOrderNumberIn(Collection<String> orderNumbers);
+}
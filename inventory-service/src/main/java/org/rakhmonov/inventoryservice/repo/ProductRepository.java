@@ -1,32 +1,148 @@
 package org.rakhmonov.inventoryservice.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.rakhmonov.inventoryservice.dto.response.ProductExportRow;
 import org.rakhmonov.inventoryservice.entity.Category;
 import org.rakhmonov.inventoryservice.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.isDeleted = false")
     Page<Product> findAll(Pageable pageable);
 
     @Query("SELECT p FROM Product p WHERE p.supplierId = :supplierId AND p.isDeleted = false")
     List<Product> findBySupplierId(Long supplierId);
 
+    // Keyset pagination, newest first: (createdAt, id) < cursor
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.isDeleted = false ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFirstSlice(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.isDeleted = false " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findSliceAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.thirdPartySellerId = :sellerId AND p.isDeleted = false")
     Page<Product> findByThirdPartySellerId(@Param("sellerId") Long sellerId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "category")
     @Query("SELECT p FROM Product p WHERE p.category.id IN :categoryIds AND p.isDeleted = false")
     Page<Product> findByCategoryId(@Param("categoryIds")List<Long> categoryId, Pageable pageable);
 
-    @Query("SELECT p FROM Product p WHERE (LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND p.isDeleted = false")
-    Page<Product> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String searchTerm, Pageable pageable);
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids AND p.isDeleted = false")
+    List<Product> findByIdInAndIsDeletedFalse(@Param("ids") Collection<Long> ids);
+
+    // Keyset batches for rebuilding the search index
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId AND p.isDeleted = false ORDER BY p.id")
+    List<Product> findIndexableAfterId(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Catalog filter shared by the filter queries below; stock filters are per-product subqueries on the inventory
+    String IN_STOCK = "(SELECT COALESCE(SUM(i.currentStock), 0) FROM Inventory i " +
+            "WHERE i.product = p AND i.isDeleted = false) > 0";
+    String NEEDS_REORDER = "EXISTS (SELECT i.id FROM Inventory i " +
+            "WHERE i.product = p AND i.isDeleted = false AND i.currentStock <= i.reorderPoint)";
+    String FILTER = "FROM Product p LEFT JOIN p.category c " +
+            "WHERE p.isDeleted = false " +
+            "AND (:filterByIds = false OR p.id IN :productIds) " +
+            "AND (:filterByCategory = false OR c.id IN :categoryIds) " +
+            "AND (:sellerId IS NULL OR p.thirdPartySellerId = :sellerId) " +
+            "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
+            "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "AND (:sku IS NULL OR p.sku = :sku) " +
+            "AND (:barcode IS NULL OR p.barcode = :barcode) " +
+            "AND (:inStock IS NULL OR (:inStock = true AND " + IN_STOCK + ") OR (:inStock = false AND NOT " + IN_STOCK + ")) " +
+            "AND (:needsReorder IS NULL OR (:needsReorder = true AND " + NEEDS_REORDER + ") " +
+            "OR (:needsReorder = false AND NOT " + NEEDS_REORDER + ")) ";
+
+    /**
+     * Ids of the matching products in the pageable's order, one page of them (LIMIT/OFFSET) unless unpaged.
+     */
+    @Query("SELECT p.id " + FILTER)
+    List<Long> findFilteredIds(@Param("filterByIds") boolean filterByIds,
+                               @Param("productIds") Collection<Long> productIds,
+                               @Param("filterByCategory") boolean filterByCategory,
+                               @Param("categoryIds") Collection<Long> categoryIds,
+                               @Param("sellerId") Long sellerId,
+                               @Param("minPrice") BigDecimal minPrice,
+                               @Param("maxPrice") BigDecimal maxPrice,
+                               @Param("sku") String sku,
+                               @Param("barcode") String barcode,
+                               @Param("inStock") Boolean inStock,
+                               @Param("needsReorder") Boolean needsReorder,
+                               Pageable pageable);
+
+    /**
+     * Facet counts of the matching products, one row per category (null for uncategorised): category id, category
+     * name, products, active, in stock, in stock but needing reorder, marketplace, then one count per price bucket
+     * (below bound1, bound1 to bound2, ..., bound4 and up). Summed over the rows these are the result's totals.
+     */
+    @Query("SELECT c.id, c.name, COUNT(p.id), " +
+            "SUM(CASE WHEN p.isActive = true THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_STOCK + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN " + IN_STOCK + " AND " + NEEDS_REORDER + " THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.thirdPartySellerId IS NOT NULL THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.price < :bound1 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.price >= :bound1 AND p.price < :bound2 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.price >= :bound2 AND p.price < :bound3 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.price >= :bound3 AND p.price < :bound4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN p.price >= :bound4 THEN 1 ELSE 0 END) " +
+            FILTER +
+            "GROUP BY c.id, c.name")
+    List<Object[]> countFacets(@Param("filterByIds") boolean filterByIds,
+                               @Param("productIds") Collection<Long> productIds,
+                               @Param("filterByCategory") boolean filterByCategory,
+                               @Param("categoryIds") Collection<Long> categoryIds,
+                               @Param("sellerId") Long sellerId,
+                               @Param("minPrice") BigDecimal minPrice,
+                               @Param("maxPrice") BigDecimal maxPrice,
+                               @Param("sku") String sku,
+                               @Param("barcode") String barcode,
+                               @Param("inStock") Boolean inStock,
+                               @Param("needsReorder") Boolean needsReorder,
+                               @Param("bound1") BigDecimal bound1,
+                               @Param("bound2") BigDecimal bound2,
+                               @Param("bound3") BigDecimal bound3,
+                               @Param("bound4") BigDecimal bound4);
+
+    /**
+     * Catalog export, one row per product in id order. Consume inside a read-only transaction;
+     * the fetch size makes the driver use a server-side cursor instead of reading every row up front.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.rakhmonov.inventoryservice.dto.response.ProductExportRow(" +
+            "p.id, p.sku, p.name, p.description, p.price, p.barcode, p.isActive, c.id, c.name, " +
+            "p.thirdPartySellerId, p.supplierId, SUM(i.currentStock), p.createdAt, p.updatedAt) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN Inventory i ON i.product = p AND i.isDeleted = false " +
+            "WHERE p.isDeleted = false " +
+            "GROUP BY p.id, c.id " +
+            "ORDER BY p.id")
+    Stream<ProductExportRow> streamExportRows();
+
+    // Includes soft-deleted products: the sku column is unique across all rows
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    // Counts soft-deleted products too, they may still be restored
+    long countByImageUrl(String imageUrl);
 
     List<Product> findByCategoryId(Long categoryId);
 
@@ -2,8 +2,12 @@ package org.rakhmonov.inventoryservice.repo;
 
 import org.rakhmonov.inventoryservice.entity.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,4 +15,30 @@ import java.util.Optional;
 public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
     List<ProductVariant> findByProductId(Long productId);
     Optional<ProductVariant> findByIdAndProductId(Long id, Long productId);
+
+    long countByImageUrl(String imageUrl);
+
+    @Query("SELECT v.sku FROM ProductVariant v WHERE v.sku IN :skus")
+    List<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    // Reservation counters: single conditional UPDATEs, no read-modify-write. Each returns the rows changed.
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant v SET v.reservedQuantity = v.reservedQuantity + :quantity " +
+            "WHERE v.id = :id AND v.status = org.rakhmonov.inventoryservice.entity.ProductVariant.VariantStatus.ACTIVE " +
+            "AND v.stockQuantity - v.reservedQuantity >= :quantity")
+    int reserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant v SET v.reservedQuantity = " +
+            "CASE WHEN v.reservedQuantity > :quantity THEN v.reservedQuantity - :quantity ELSE 0 END " +
+            "WHERE v.id = :id")
+    int unreserve(@Param("id") Long id, @Param("quantity") int quantity);
+
+    // A confirmed reservation leaves the warehouse: on-hand and reserved drop together
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductVariant v SET v.stockQuantity = v.stockQuantity - :quantity, " +
+            "v.reservedQuantity = CASE WHEN v.reservedQuantity > :quantity THEN v.reservedQuantity - :quantity ELSE 0 END " +
+            "WHERE v.id = :id")
+    int commitReserved(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -1,39 +1,66 @@
 package org.rakhmonov.inventoryservice.repo;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementExportRow;
 import org.rakhmonov.inventoryservice.entity.StockMovement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
-    
-    List<StockMovement> findByProductId(Long productId);
-    
-    List<StockMovement> findByWarehouseId(Long warehouseId);
-    
-    List<StockMovement> findByMovementType(StockMovement.MovementType movementType);
-    
-    List<StockMovement> findByReferenceNumber(String referenceNumber);
-    
-    List<StockMovement> findByReferenceType(String referenceType);
-    
-    List<StockMovement> findByCreatedBy(String createdBy);
-    
-    List<StockMovement> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId AND sm.warehouseId = :warehouseId")
-    List<StockMovement> findByProductIdAndWarehouseId(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId);
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, JpaSpecificationExecutor<StockMovement> {
+
+    // Signed quantity of a movement, as StockMovement#getEffectiveQuantity
+    String EFFECTIVE_QUANTITY = "CASE WHEN sm.movementType IN (" +
+            "org.rakhmonov.inventoryservice.entity.StockMovement.MovementType.IN, " +
+            "org.rakhmonov.inventoryservice.entity.StockMovement.MovementType.TRANSFER_IN, " +
+            "org.rakhmonov.inventoryservice.entity.StockMovement.MovementType.RELEASED) " +
+            "THEN sm.quantity ELSE -sm.quantity END";
     
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.movementType = :movementType AND sm.createdAt BETWEEN :startDate AND :endDate")
-    List<StockMovement> findByMovementTypeAndDateRange(@Param("movementType") StockMovement.MovementType movementType, 
-                                                      @Param("startDate") LocalDateTime startDate, 
-                                                      @Param("endDate") LocalDateTime endDate);
+    // Movement export, optionally limited to [from, to); consume inside a read-only transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.rakhmonov.inventoryservice.dto.response.StockMovementExportRow(" +
+            "sm.id, p.id, p.sku, sm.warehouseId, sm.movementType, sm.quantity, sm.unitCost, sm.totalCost, " +
+            "sm.stockBefore, sm.stockAfter, sm.referenceNumber, sm.referenceType, sm.notes, sm.createdBy, sm.createdAt) " +
+            "FROM StockMovement sm JOIN sm.product p " +
+            "WHERE (:from IS NULL OR sm.createdAt >= :from) AND (:to IS NULL OR sm.createdAt < :to) " +
+            "ORDER BY sm.id")
+    Stream<StockMovementExportRow> streamExportRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
     
-    @Query("SELECT sm FROM StockMovement sm WHERE sm.product.id = :productId ORDER BY sm.createdAt DESC")
-    List<StockMovement> findByProductIdOrderByCreatedAtDesc(@Param("productId") Long productId);
+    /**
+     * Write-behind ledger rows not yet folded into their inventory row, per inventory row:
+     * {inventoryId, net quantity, last movement id}. Rows another instance holds in hot mode are skipped: their
+     * tail is still on its way to that instance's next checkpoint.
+     */
+    @Query("SELECT i.id, SUM(CASE WHEN sm.movementType = org.rakhmonov.inventoryservice.entity.StockMovement.MovementType.IN " +
+            "THEN sm.quantity ELSE -sm.quantity END), MAX(sm.id) " +
+            "FROM StockMovement sm JOIN Inventory i ON i.product = sm.product AND i.warehouseId = sm.warehouseId " +
+            "WHERE sm.referenceType = :referenceType AND sm.id > COALESCE(i.hotStockWatermark, 0) AND i.isDeleted = false " +
+            "AND (i.hotStockOwner IS NULL OR i.hotStockOwner = :owner) " +
+            "GROUP BY i.id")
+    List<Object[]> findUnappliedLedgerTotals(@Param("referenceType") String referenceType, @Param("owner") String owner);
+
+    // Net ledger change of a product (one warehouse, or all with a null warehouse) in (from, to]
+    @Query("SELECT COALESCE(SUM(" + EFFECTIVE_QUANTITY + "), 0) FROM StockMovement sm " +
+            "WHERE sm.product.id = :productId AND (:warehouseId IS NULL OR sm.warehouseId = :warehouseId) " +
+            "AND (:from IS NULL OR sm.createdAt > :from) AND sm.createdAt <= :to")
+    long sumEffectiveQuantity(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId,
+                              @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Net ledger change per {productId, warehouseId} in (from, to], for the keys that moved
+    @Query("SELECT sm.product.id, sm.warehouseId, SUM(" + EFFECTIVE_QUANTITY + ") FROM StockMovement sm " +
+            "WHERE (:from IS NULL OR sm.createdAt > :from) AND sm.createdAt <= :to " +
+            "GROUP BY sm.product.id, sm.warehouseId")
+    List<Object[]> sumEffectiveQuantityByKey(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(sm.createdAt) FROM StockMovement sm")
+    LocalDateTime findEarliestCreatedAt();
 }
@@ -0,0 +1,70 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.rakhmonov.inventoryservice.dto.response.StockMovementDailyReportResponse;
+import org.rakhmonov.inventoryservice.entity.StockMovementDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockMovementRollupRepository extends JpaRepository<StockMovementDailyRollup, Long> {
+
+    /**
+     * Adds to (or subtracts from, with negative amounts) the rollup row of a product/warehouse/day, creating it
+     * on first use. Runs in the caller's transaction, so the row changes exactly when the movement commits.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_movement_daily_rollups " +
+            "(product_id, warehouse_id, day, quantity_in, quantity_out, total_cost, movement_count) " +
+            "VALUES (:productId, :warehouseId, :day, :quantityIn, :quantityOut, :totalCost, :movementCount) " +
+            "ON CONFLICT (product_id, warehouse_id, day) DO UPDATE SET " +
+            "quantity_in = stock_movement_daily_rollups.quantity_in + EXCLUDED.quantity_in, " +
+            "quantity_out = stock_movement_daily_rollups.quantity_out + EXCLUDED.quantity_out, " +
+            "total_cost = stock_movement_daily_rollups.total_cost + EXCLUDED.total_cost, " +
+            "movement_count = stock_movement_daily_rollups.movement_count + EXCLUDED.movement_count",
+            nativeQuery = true)
+    void add(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId, @Param("day") LocalDate day,
+             @Param("quantityIn") long quantityIn, @Param("quantityOut") long quantityOut,
+             @Param("totalCost") BigDecimal totalCost, @Param("movementCount") long movementCount);
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_movement_daily_rollups WHERE day = :day", nativeQuery = true)
+    int deleteDay(@Param("day") LocalDate day);
+
+    // Rebuilds the rollup rows of movements created in [start, end) straight from the ledger. A row a live upsert
+    // created after the day was deleted holds movements this statement's read did not see, so it is added to.
+    @Modifying
+    @Query(value = "INSERT INTO stock_movement_daily_rollups " +
+            "(product_id, warehouse_id, day, quantity_in, quantity_out, total_cost, movement_count) " +
+            "SELECT product_id, COALESCE(warehouse_id, 0), CAST(created_at AS date), " +
+            "SUM(CASE WHEN movement_type IN ('IN', 'TRANSFER_IN', 'RELEASED') THEN quantity ELSE 0 END), " +
+            "SUM(CASE WHEN movement_type IN ('IN', 'TRANSFER_IN', 'RELEASED') THEN 0 ELSE quantity END), " +
+            "COALESCE(SUM(total_cost), 0), COUNT(*) " +
+            "FROM stock_movements WHERE created_at >= :start AND created_at < :end " +
+            "GROUP BY product_id, COALESCE(warehouse_id, 0), CAST(created_at AS date) " +
+            "ON CONFLICT (product_id, warehouse_id, day) DO UPDATE SET " +
+            "quantity_in = stock_movement_daily_rollups.quantity_in + EXCLUDED.quantity_in, " +
+            "quantity_out = stock_movement_daily_rollups.quantity_out + EXCLUDED.quantity_out, " +
+            "total_cost = stock_movement_daily_rollups.total_cost + EXCLUDED.total_cost, " +
+            "movement_count = stock_movement_daily_rollups.movement_count + EXCLUDED.movement_count",
+            nativeQuery = true)
+    int insertFromLedger(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    // Per-day totals over [from, to], optionally for one product and/or warehouse
+    @Query("SELECT new org.rakhmonov.inventoryservice.dto.response.StockMovementDailyReportResponse(" +
+            "r.day, SUM(r.quantityIn), SUM(r.quantityOut), SUM(r.totalCost), SUM(r.movementCount)) " +
+            "FROM StockMovementDailyRollup r WHERE r.day >= :from AND r.day <= :to " +
+            "AND (:productId IS NULL OR r.productId = :productId) " +
+            "AND (:warehouseId IS NULL OR r.warehouseId = :warehouseId) " +
+            "GROUP BY r.day ORDER BY r.day")
+    List<StockMovementDailyReportResponse> findDailyTotals(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                           @Param("productId") Long productId,
+                                                           @Param("warehouseId") Long warehouseId);
+}
@@ -0,0 +1,71 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementFilterRequest;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock movement filters as criteria. Only the filters that are set become predicates, so each combination is its
+ * own statement the planner can match to the (product_id, created_at, id), (warehouse_id, created_at, id) or
+ * (reference_number) index, instead of one catch-all query with {@code :param IS NULL OR ...} guards.
+ */
+public final class StockMovementSpecifications {
+
+    private StockMovementSpecifications() {
+    }
+
+    /**
+     * Movements matching the filter that come after {@code after} in (createdAt DESC, id DESC) order,
+     * with their product fetched.
+     */
+    public static Specification<StockMovement> matching(StockMovementFilterRequest filter, CursorCodec.Cursor after) {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class) {
+                root.fetch("product");
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getProductId() != null) {
+                predicates.add(cb.equal(root.get("product").get("id"), filter.getProductId()));
+            }
+            if (filter.getWarehouseId() != null) {
+                predicates.add(cb.equal(root.get("warehouseId"), filter.getWarehouseId()));
+            }
+            if (filter.getMovementType() != null) {
+                predicates.add(cb.equal(root.get("movementType"), filter.getMovementType()));
+            }
+            if (hasText(filter.getReferenceNumber())) {
+                predicates.add(cb.equal(root.get("referenceNumber"), filter.getReferenceNumber()));
+            }
+            if (hasText(filter.getReferenceType())) {
+                predicates.add(cb.equal(root.get("referenceType"), filter.getReferenceType()));
+            }
+            if (hasText(filter.getCreatedBy())) {
+                predicates.add(cb.equal(root.get("createdBy"), filter.getCreatedBy()));
+            }
+            Path<LocalDateTime> createdAt = root.get("createdAt");
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(createdAt, filter.getFrom()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(createdAt, filter.getTo()));
+            }
+            if (after != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(createdAt, after.createdAt()),
+                        cb.and(cb.equal(createdAt, after.createdAt()), cb.lessThan(root.get("id"), after.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,39 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.rakhmonov.inventoryservice.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    /**
+     * Closes a reservation only if it is still active, so a release racing the sweeper (or a second release)
+     * changes nothing. Returns the number of rows changed.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :status, r.closedAt = :closedAt " +
+            "WHERE r.id = :id AND r.status = org.rakhmonov.inventoryservice.entity.StockReservation.ReservationStatus.ACTIVE")
+    int close(@Param("id") UUID id,
+              @Param("status") StockReservation.ReservationStatus status,
+              @Param("closedAt") LocalDateTime closedAt);
+
+    // One batch of expired reservations, read through the (status, expires_at) index; rows another sweeper
+    // instance holds are skipped instead of waited on
+    @Query(value = "SELECT * FROM stock_reservations WHERE status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockReservation> lockExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = org.rakhmonov.inventoryservice.entity.StockReservation.ReservationStatus.EXPIRED, " +
+            "r.closedAt = :closedAt WHERE r.id IN :ids")
+    int markExpired(@Param("ids") Collection<UUID> ids, @Param("closedAt") LocalDateTime closedAt);
+}
@@ -0,0 +1,47 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.rakhmonov.inventoryservice.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    // Most recent snapshot run at or before the instant; null before the first run
+    @Query("SELECT MAX(s.asOf) FROM StockSnapshot s WHERE s.asOf <= :at")
+    LocalDateTime findLatestAsOf(@Param("at") LocalDateTime at);
+
+    /**
+     * Snapshot stock of a product at a run's {@code asOf}: the latest snapshot of each of its keys at or before it,
+     * for one warehouse (or {@link StockSnapshot#NO_WAREHOUSE}) or, with a null warehouse, summed over all of them.
+     */
+    @Query("SELECT COALESCE(SUM(s.stock), 0) FROM StockSnapshot s " +
+            "WHERE s.productId = :productId AND (:warehouseId IS NULL OR s.warehouseId = :warehouseId) " +
+            "AND s.asOf = (SELECT MAX(s2.asOf) FROM StockSnapshot s2 WHERE s2.productId = s.productId " +
+            "AND s2.warehouseId = s.warehouseId AND s2.asOf <= :asOf)")
+    long sumStockAt(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId,
+                    @Param("asOf") LocalDateTime asOf);
+
+    // Latest snapshot of every key of the given products, the base the next run adds its deltas to
+    @Query("SELECT s FROM StockSnapshot s WHERE s.productId IN :productIds " +
+            "AND s.asOf = (SELECT MAX(s2.asOf) FROM StockSnapshot s2 WHERE s2.productId = s.productId " +
+            "AND s2.warehouseId = s.warehouseId)")
+    List<StockSnapshot> findLatestByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Applies a movement created (or removed) after the fact to every snapshot taken since its timestamp,
+     * keeping them equal to the ledger without a rebuild.
+     */
+    @Modifying
+    @Query("UPDATE StockSnapshot s SET s.stock = s.stock + :delta WHERE s.productId = :productId " +
+            "AND s.warehouseId = :warehouseId AND s.asOf >= :createdAt")
+    int shiftFrom(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId,
+                  @Param("createdAt") LocalDateTime createdAt, @Param("delta") long delta);
+}
@@ -0,0 +1,263 @@
+package org.rakhmonov.inventoryservice.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process inverted index over product name and description, one per replica.
+ * Kept up to date by {@link #reindex(Long)} once a product change committed, on this replica through
+ * {@link org.rakhmonov.inventoryservice.cache.ProductCacheInvalidationListener} and on the others through
+ * Kafka; {@link #rebuild()} reloads it from the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int EXACT_TERM_BOOST = 2;
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private volatile Index index = new Index();
+    // Serializes writes with the swap in rebuild(); while a rebuild runs, every write is also recorded here
+    private final Object writeLock = new Object();
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Failed to build product search index on startup: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Full reindex for recovery. Searches keep using the old index until the new one is complete. Products indexed
+     * or removed meanwhile may have been read before their change, so those writes are replayed onto the new index
+     * before it replaces the old one.
+     */
+    public synchronized int rebuild() {
+        synchronized (writeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            Index fresh = new Index();
+            long afterId = 0;
+            List<Product> batch;
+            do {
+                batch = productRepository.findIndexableAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (Product product : batch) {
+                    fresh.put(product.getId(), product.getName(), product.getDescription());
+                    afterId = product.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            synchronized (writeLock) {
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                index = fresh;
+            }
+            log.info("Product search index rebuilt with {} products", fresh.size());
+            return fresh.size();
+        } finally {
+            synchronized (writeLock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Reloads one product from the database, dropping it if it no longer exists or was deleted.
+     */
+    public void reindex(Long productId) {
+        try {
+            productRepository.findById(productId).ifPresentOrElse(this::index, () -> remove(productId));
+        } catch (Exception e) {
+            log.error("Failed to reindex product {}, search may be stale until the next rebuild: {}",
+                    productId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@link #reindex(Long)} for many products with one query, for bulk changes such as an import chunk.
+     */
+    public void reindex(Collection<Long> productIds) {
+        try {
+            Set<Long> missing = new HashSet<>(productIds);
+            for (Product product : productRepository.findAllById(productIds)) {
+                index(product);
+                missing.remove(product.getId());
+            }
+            missing.forEach(this::remove);
+        } catch (Exception e) {
+            log.error("Failed to reindex {} products, search may be stale until the next rebuild: {}",
+                    productIds.size(), e.getMessage(), e);
+        }
+    }
+
+    public void index(Product product) {
+        if (Boolean.TRUE.equals(product.getIsDeleted())) {
+            remove(product.getId());
+        } else {
+            Long productId = product.getId();
+            String name = product.getName();
+            String description = product.getDescription();
+            write(target -> target.put(productId, name, description));
+        }
+    }
+
+    public void remove(Long productId) {
+        write(target -> target.remove(productId));
+    }
+
+    private void write(Consumer<Index> change) {
+        synchronized (writeLock) {
+            change.accept(index);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+
+    /**
+     * @return ids of products matching every term of the query, best match first
+     */
+    public List<Long> search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return index.search(terms);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Index {
+        // term -> (productId -> weighted term frequency)
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void put(Long productId, String name, String description) {
+            Map<String, Integer> weights = new HashMap<>();
+            tokenize(name).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+            tokenize(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(productId);
+                weights.forEach((term, weight) ->
+                        postings.computeIfAbsent(term, key -> new HashMap<>()).put(productId, weight));
+                termsByProduct.put(productId, weights.keySet());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                removeUnlocked(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return termsByProduct.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        List<Long> search(List<String> queryTerms) {
+            lock.readLock().lock();
+            try {
+                int documentCount = Math.max(1, termsByProduct.size());
+                Map<Long, Double> scores = null;
+                for (String queryTerm : queryTerms) {
+                    Map<Long, Double> termScores = scoreTerm(queryTerm, documentCount);
+                    if (scores == null) {
+                        scores = termScores;
+                    } else {
+                        // every query term must match
+                        scores.keySet().retainAll(termScores.keySet());
+                        Map<Long, Double> current = scores;
+                        termScores.forEach((id, score) -> current.computeIfPresent(id, (key, total) -> total + score));
+                    }
+                    if (scores.isEmpty()) {
+                        return List.of();
+                    }
+                }
+                return scores.entrySet().stream()
+                        .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                                .thenComparing(Map.Entry.comparingByKey()))
+                        .map(Map.Entry::getKey)
+                        .toList();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Prefix match on the sorted term dictionary; falls back to infix match like the old LIKE '%term%'
+        private Map<Long, Double> scoreTerm(String queryTerm, int documentCount) {
+            Map<String, Map<Long, Integer>> matches = postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+            if (matches.isEmpty()) {
+                Map<String, Map<Long, Integer>> infix = new HashMap<>();
+                postings.forEach((term, posting) -> {
+                    if (term.contains(queryTerm)) {
+                        infix.put(term, posting);
+                    }
+                });
+                matches = infix;
+            }
+            Map<Long, Double> scores = new HashMap<>();
+            matches.forEach((term, posting) -> {
+                double idf = Math.log(1.0 + (double) documentCount / posting.size());
+                int boost = term.equals(queryTerm) ? EXACT_TERM_BOOST : 1;
+                posting.forEach((productId, weight) -> scores.merge(productId, weight * idf * boost, Double::sum));
+            });
+            return scores;
+        }
+
+        private void removeUnlocked(Long productId) {
+            Set<String> terms = termsByProduct.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.rakhmonov.inventoryservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.response.InventoryExportRow;
+import org.rakhmonov.inventoryservice.dto.response.ProductExportRow;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementExportRow;
+import org.rakhmonov.inventoryservice.exception.InvalidExportFormatException;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.util.CsvRecordWriter;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams products, inventory and stock movements as CSV or NDJSON. Rows come from repository streams
+ * (server-side cursor, DTO projections) and are written straight to the output, so memory use does not
+ * grow with the table size. Each export runs in one read-only transaction, which the cursor requires.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogExportService {
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return MediaType.parseMediaType(contentType + ";charset=UTF-8");
+        }
+
+        public String fileName(String base) {
+            return base + "." + extension;
+        }
+
+        public static ExportFormat from(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl" -> NDJSON;
+                default -> throw new InvalidExportFormatException("Unsupported export format: '" + value + "', expected csv or ndjson");
+            };
+        }
+    }
+
+    private record Column<T>(String header, Function<T, Object> value) {
+    }
+
+    private static final List<Column<ProductExportRow>> PRODUCT_COLUMNS = List.of(
+            new Column<>("id", ProductExportRow::getId),
+            new Column<>("sku", ProductExportRow::getSku),
+            new Column<>("name", ProductExportRow::getName),
+            new Column<>("description", ProductExportRow::getDescription),
+            new Column<>("price", ProductExportRow::getPrice),
+            new Column<>("barcode", ProductExportRow::getBarcode),
+            new Column<>("is_active", ProductExportRow::getIsActive),
+            new Column<>("category_id", ProductExportRow::getCategoryId),
+            new Column<>("category_name", ProductExportRow::getCategoryName),
+            new Column<>("third_party_seller_id", ProductExportRow::getThirdPartySellerId),
+            new Column<>("supplier_id", ProductExportRow::getSupplierId),
+            new Column<>("total_stock", ProductExportRow::getTotalStock),
+            new Column<>("created_at", ProductExportRow::getCreatedAt),
+            new Column<>("updated_at", ProductExportRow::getUpdatedAt));
+
+    private static final List<Column<InventoryExportRow>> INVENTORY_COLUMNS = List.of(
+            new Column<>("id", InventoryExportRow::getId),
+            new Column<>("product_id", InventoryExportRow::getProductId),
+            new Column<>("product_sku", InventoryExportRow::getProductSku),
+            new Column<>("product_name", InventoryExportRow::getProductName),
+            new Column<>("warehouse_id", InventoryExportRow::getWarehouseId),
+            new Column<>("current_stock", InventoryExportRow::getCurrentStock),
+            new Column<>("reorder_point", InventoryExportRow::getReorderPoint),
+            new Column<>("unit_cost", InventoryExportRow::getUnitCost),
+            new Column<>("created_at", InventoryExportRow::getCreatedAt),
+            new Column<>("updated_at", InventoryExportRow::getUpdatedAt));
+
+    private static final List<Column<StockMovementExportRow>> MOVEMENT_COLUMNS = List.of(
+            new Column<>("id", StockMovementExportRow::getId),
+            new Column<>("product_id", StockMovementExportRow::getProductId),
+            new Column<>("product_sku", StockMovementExportRow::getProductSku),
+            new Column<>("warehouse_id", StockMovementExportRow::getWarehouseId),
+            new Column<>("movement_type", StockMovementExportRow::getMovementType),
+            new Column<>("quantity", StockMovementExportRow::getQuantity),
+            new Column<>("unit_cost", StockMovementExportRow::getUnitCost),
+            new Column<>("total_cost", StockMovementExportRow::getTotalCost),
+            new Column<>("stock_before", StockMovementExportRow::getStockBefore),
+            new Column<>("stock_after", StockMovementExportRow::getStockAfter),
+            new Column<>("reference_number", StockMovementExportRow::getReferenceNumber),
+            new Column<>("reference_type", StockMovementExportRow::getReferenceType),
+            new Column<>("notes", StockMovementExportRow::getNotes),
+            new Column<>("created_by", StockMovementExportRow::getCreatedBy),
+            new Column<>("created_at", StockMovementExportRow::getCreatedAt));
+
+    private final ProductRepository productRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<ProductExportRow> rows = productRepository.streamExportRows()) {
+            return write(format, PRODUCT_COLUMNS, rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportInventory(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<InventoryExportRow> rows = inventoryRepository.streamExportRows()) {
+            return write(format, INVENTORY_COLUMNS, rows, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportStockMovements(ExportFormat format, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        try (Stream<StockMovementExportRow> rows = stockMovementRepository.streamExportRows(from, to)) {
+            return write(format, MOVEMENT_COLUMNS, rows, out);
+        }
+    }
+
+    private <T> long write(ExportFormat format, List<Column<T>> columns, Stream<T> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CsvRecordWriter csv = new CsvRecordWriter(writer);
+        if (format == ExportFormat.CSV) {
+            csv.writeRecord(columns.stream().map(Column::header).toList());
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                csv.writeRecord(columns.stream().map(column -> column.value().apply(row)).toList());
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+            // keep bytes moving to the client rather than filling the servlet buffer
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        log.debug("Exported {} rows as {}", count, format);
+        return count;
+    }
+}
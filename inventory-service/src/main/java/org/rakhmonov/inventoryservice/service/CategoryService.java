@@ -1,6 +1,7 @@
 package org.rakhmonov.inventoryservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.cache.CategoryTreeIndex;
 import org.rakhmonov.inventoryservice.dto.request.CategoryRequest;
 import org.rakhmonov.inventoryservice.dto.response.CategoryResponse;
 import org.rakhmonov.inventoryservice.entity.Category;
@@ -11,6 +12,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
 
     // Create
     public CategoryResponse createCategory(CategoryRequest request) {
@@ -21,6 +23,7 @@ public class CategoryService {
         }
 
         Category saved = categoryRepository.save(request.toEntity(parent));
+        categoryTreeIndex.invalidate();
         return CategoryResponse.fromEntity(saved);
     }
 
@@ -40,12 +43,14 @@ public class CategoryService {
         }
 
         Category saved = categoryRepository.save(category);
+        categoryTreeIndex.invalidate();
         return CategoryResponse.fromEntity(saved);
     }
 
     // Delete
     public void deleteCategory(Long id) {
         categoryRepository.deleteById(id);
+        categoryTreeIndex.invalidate();
     }
 
     // Get All (root + subCategories)
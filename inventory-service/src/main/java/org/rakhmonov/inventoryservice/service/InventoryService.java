@@ -1,16 +1,30 @@
 package org.rakhmonov.inventoryservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.allocation.AllocationLine;
+import org.rakhmonov.inventoryservice.allocation.AllocationStrategy;
+import org.rakhmonov.inventoryservice.allocation.StockAllocationEngine;
 import org.rakhmonov.inventoryservice.dto.request.InventoryRequest;
 import org.rakhmonov.inventoryservice.dto.response.InventoryResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockAllocationResponse;
+import org.rakhmonov.inventoryservice.dto.response.WarehouseAllocationResponse;
 import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.OrderStockAllocation;
+import org.rakhmonov.inventoryservice.entity.ProcessedOrder;
 import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.hotstock.HotStockService;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
 import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.OrderStockAllocationRepository;
+import org.rakhmonov.inventoryservice.repo.ProcessedOrderRepository;
 import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,23 +32,37 @@ import java.util.stream.Collectors;
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockAllocationEngine stockAllocationEngine;
+    private final HotStockService hotStockService;
+    private final ReorderEngine reorderEngine;
+    private final OrderStockAllocationRepository orderStockAllocationRepository;
+    private final ProcessedOrderRepository processedOrderRepository;
 
     public Inventory createInventory(InventoryRequest inventoryRequest) {
         Product product = productRepository.findById(inventoryRequest.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        return inventoryRepository.save(InventoryRequest.toEntity(inventoryRequest, product));
+        Inventory saved = inventoryRepository.save(InventoryRequest.toEntity(inventoryRequest, product));
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+        reorderEngine.stockChanged(product.getId());
+        return saved;
     }
 
     public Inventory updateInventory(Long id, InventoryRequest inventoryRequest) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inventory not found"));
-        Optional.ofNullable(inventoryRequest.getCurrentStock())
-                .ifPresent(inventory::setCurrentStock);
+        if (inventoryRequest.getCurrentStock() != null) {
+            hotStockService.requireNotHot(List.of(inventory.getProduct().getId()));
+            inventory.setCurrentStock(inventoryRequest.getCurrentStock());
+        }
         Optional.ofNullable(inventoryRequest.getReorderPoint())
                 .ifPresent(inventory::setReorderPoint);
         Optional.ofNullable(inventoryRequest.getUnitCost())
                 .ifPresent(inventory::setUnitCost);
-        return inventoryRepository.save(inventory);
+        Inventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductChangedEvent(inventory.getProduct().getId()));
+        reorderEngine.stockChanged(inventory.getProduct().getId());
+        return saved;
     }
 
     public Inventory getInventory(Long id) {
@@ -50,79 +78,358 @@ public class InventoryService {
     }
 
     public void deleteInventory(Long id) {
-        inventoryRepository.deleteById(id);
+        inventoryRepository.findById(id).ifPresent(inventory -> {
+            inventoryRepository.delete(inventory);
+            eventPublisher.publishEvent(new ProductChangedEvent(inventory.getProduct().getId()));
+        });
     }
 
     public List<InventoryResponse> filterInventory(String status, Long warehouseId, Long productId) {
-        List<InventoryResponse> inventoryResponses = inventoryRepository.filterInventory(warehouseId, productId);
-        return inventoryResponses.stream()
-                .filter(inventoryResponse -> inventoryResponse
-                        .getStockStatus().equals(status))
-                .collect(Collectors.toList());
-    }
-
-
-    public Inventory decreaseStock(Long productId, Integer quantity, Long warehouseId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        
-        Inventory inventory;
-        if (warehouseId != null) {
-            inventory = inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId)
-                    .orElseThrow(() -> new RuntimeException("Inventory not found for product ID: " + productId + " and warehouse ID: " + warehouseId));
-        } else {
-            // Get first available inventory for the product
-            List<Inventory> inventories = inventoryRepository.findByProduct(product);
-            if (inventories.isEmpty()) {
-                throw new RuntimeException("No inventory found for product ID: " + productId);
+        Inventory.StockState state = Arrays.stream(Inventory.StockState.values())
+                .filter(candidate -> candidate.name().equals(status))
+                .findFirst()
+                .orElse(null);
+        if (state == null) {
+            return List.of();
+        }
+        return inventoryRepository.filterInventory(warehouseId, productId, state)
+                .stream()
+                .map(InventoryResponse::toResponse)
+                .toList();
+    }
+
+
+    /**
+     * Takes stock for one product. With a warehouse this is one conditional UPDATE, so the check and the decrement
+     * cannot interleave with another order; without one the quantity is split across warehouses like an order line.
+     */
+    @Transactional
+    public StockAllocationResponse decreaseStock(Long productId, Integer quantity, Long warehouseId) {
+        requirePositive(quantity);
+        if (warehouseId == null) {
+            return decreaseStockForOrder(Map.of(productId, quantity)).get(0);
+        }
+        if (hotStockService.isHot(productId)) {
+            List<HotStockService.HotTake> takes = hotStockService.takeAll(Map.of(productId, quantity), warehouseId);
+            if (!takes.isEmpty()) {
+                return toResponse(takes.get(0));
             }
-            inventory = inventories.get(0);
         }
-        
-        // Check if enough stock is available
-        if (inventory.getCurrentStock() < quantity) {
-            throw new RuntimeException("Insufficient stock. Available: " + inventory.getCurrentStock() + ", Requested: " + quantity);
+        if (inventoryRepository.decrementStock(productId, warehouseId, quantity) == 0) {
+            // flagged, here while the UPDATE waited for the row or on another instance
+            hotStockService.requireNotHot(List.of(productId));
+            throw new RuntimeException("Insufficient stock. Available: " + availableStock(productId, warehouseId)
+                    + ", Requested: " + quantity);
         }
-        
-        // Decrease stock
-        inventory.setCurrentStock(inventory.getCurrentStock() - quantity);
-        return inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        reorderEngine.stockChanged(productId);
+        return StockAllocationResponse.builder()
+                .productId(productId)
+                .requestedQuantity(quantity)
+                .allocations(List.of(WarehouseAllocationResponse.builder()
+                        .warehouseId(warehouseId)
+                        .quantity(quantity)
+                        .build()))
+                .build();
     }
 
+    @Transactional
+    public List<StockAllocationResponse> decreaseStockForOrder(Map<Long, Integer> productQuantities) {
+        return decreaseStockForOrder(productQuantities, null, null);
+    }
 
-    public List<Inventory> decreaseStockForOrder(java.util.Map<Long, Integer> productQuantities) {
-        return productQuantities.entrySet().stream()
-                .map(entry -> decreaseStock(entry.getKey(), entry.getValue(), null))
-                .collect(Collectors.toList());
+    /**
+     * Takes stock for an order like {@link #decreaseStockForOrder(Map)} and records which warehouses it came from,
+     * so {@link #releaseStockForOrder} can return it to them. An order taken before is not taken again: its recorded
+     * allocations are returned, and an order recorded as failed fails again with the same message.
+     */
+    @Transactional
+    public List<StockAllocationResponse> decreaseStockForOrder(String orderNumber, Map<Long, Integer> productQuantities) {
+        Optional<ProcessedOrder> processed = processedOrderRepository.findByOrderNumber(orderNumber);
+        if (processed.isPresent()) {
+            if (!processed.get().getSuccess()) {
+                throw new RuntimeException(processed.get().getMessage());
+            }
+            return recordedAllocations(orderNumber);
+        }
+        List<StockAllocationResponse> responses = decreaseStockForOrder(productQuantities, null, null);
+        List<OrderStockAllocation> taken = new ArrayList<>();
+        responses.forEach(response -> response.getAllocations().forEach(allocation -> taken.add(
+                allocation(orderNumber, response.getProductId(), allocation.getWarehouseId(), allocation.getQuantity()))));
+        orderStockAllocationRepository.saveAll(taken);
+        processedOrderRepository.save(processed(orderNumber, new OrderStockResult(true, null)));
+        return responses;
     }
 
+    /**
+     * Takes stock for every line of an order or for none of them. All inventory rows of the order's products are
+     * locked in one sorted query, each line is split across warehouses by the allocation strategy before anything
+     * changes, and the decrements are flushed on commit as one JDBC update batch.
+     * Any line the warehouses together cannot cover fails the whole order and rolls it back.
+     * Lines for hot products are taken from their in-memory counters instead (see {@link HotStockService}),
+     * whole from one warehouse, and given back if the order rolls back.
+     *
+     * @param strategy             allocation strategy name, null for the configured default
+     * @param preferredWarehouseId warehouse to draw from first (PREFERRED_WAREHOUSE), may be null
+     */
+    @Transactional
+    public List<StockAllocationResponse> decreaseStockForOrder(Map<Long, Integer> productQuantities,
+                                                               String strategy, Long preferredWarehouseId) {
+        productQuantities.values().forEach(InventoryService::requirePositive);
+        AllocationStrategy allocationStrategy = stockAllocationEngine.strategy(strategy);
+        List<StockAllocationResponse> responses = new ArrayList<>();
+        Map<Long, Integer> databaseQuantities = new HashMap<>(productQuantities);
+        for (HotStockService.HotTake take : hotStockService.takeAll(productQuantities, null)) {
+            responses.add(toResponse(take));
+            databaseQuantities.remove(take.productId());
+        }
+        if (databaseQuantities.isEmpty()) {
+            return responses;
+        }
 
-    public Inventory increaseStock(Long productId, Integer quantity, Long warehouseId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-        
-        Inventory inventory;
-        if (warehouseId != null) {
-            inventory = inventoryRepository.findByProductIdAndWarehouseId(productId, warehouseId)
-                    .orElseThrow(() -> new RuntimeException("Inventory not found for product ID: " + productId + " and warehouse ID: " + warehouseId));
-        } else {
-            // Get first available inventory for the product
-            List<Inventory> inventories = inventoryRepository.findByProduct(product);
-            if (inventories.isEmpty()) {
-                throw new RuntimeException("No inventory found for product ID: " + productId);
+        Map<Long, List<Inventory>> rowsByProduct = groupByProduct(
+                inventoryRepository.lockByProductIdIn(new TreeSet<>(databaseQuantities.keySet())));
+        hotStockService.requireNotHot(databaseQuantities.keySet());
+        Map<Long, List<AllocationLine>> allocations = stockAllocationEngine.allocate(
+                databaseQuantities, rowsByProduct, allocationStrategy, preferredWarehouseId);
+
+        allocations.forEach((productId, lines) -> {
+            responses.add(StockAllocationResponse.toResponse(
+                    productId, productQuantities.get(productId), allocationStrategy.name(), lines));
+            lines.forEach(line -> line.inventory().setCurrentStock(line.inventory().getCurrentStock() - line.quantity()));
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        });
+        reorderEngine.stockChanged(allocations.keySet());
+        responses.sort(Comparator.comparing(StockAllocationResponse::getProductId));
+        return responses;
+    }
+
+    /**
+     * One order of {@link #decreaseStockForOrders}: product id to quantity.
+     */
+    public record OrderStockRequest(String orderNumber, Map<Long, Integer> productQuantities) {
+    }
+
+    /**
+     * Outcome of one order of {@link #decreaseStockForOrders}; {@code message} explains a failure.
+     */
+    public record OrderStockResult(boolean success, String message) {
+    }
+
+    /**
+     * Takes stock for a batch of orders (one Kafka poll) in one transaction. The rows of all their products are
+     * locked in one sorted query and each order is allocated in turn against what the earlier ones left, so a row
+     * touched by many orders is still written once on commit. Unlike {@link #decreaseStockForOrder(Map)} an order
+     * that cannot be covered fails alone, taking nothing, and the rest of the batch goes ahead. What each order
+     * took is recorded like in {@link #decreaseStockForOrder(String, Map)}, and so is each outcome, failures
+     * included: an order delivered again, in a later batch or twice in this one, gets its first result back.
+     *
+     * @return one result per order, in order
+     */
+    @Transactional
+    public List<OrderStockResult> decreaseStockForOrders(List<OrderStockRequest> orders) {
+        Map<String, OrderStockResult> earlierResults = new HashMap<>();
+        processedOrderRepository.findByOrderNumberIn(orders.stream().map(OrderStockRequest::orderNumber).toList())
+                .forEach(processed -> earlierResults.put(processed.getOrderNumber(),
+                        new OrderStockResult(processed.getSuccess(), processed.getMessage())));
+        Set<Long> databaseProductIds = new TreeSet<>();
+        orders.stream()
+                .filter(order -> !earlierResults.containsKey(order.orderNumber()))
+                .forEach(order -> order.productQuantities().keySet().stream()
+                        .filter(productId -> !hotStockService.isHot(productId))
+                        .forEach(databaseProductIds::add));
+        Map<Long, List<Inventory>> rowsByProduct = databaseProductIds.isEmpty() ? Map.of()
+                : groupByProduct(inventoryRepository.lockByProductIdIn(databaseProductIds));
+        hotStockService.requireNotHot(databaseProductIds);
+        AllocationStrategy allocationStrategy = stockAllocationEngine.strategy(null);
+
+        List<OrderStockResult> results = new ArrayList<>();
+        Set<Long> changedProductIds = new TreeSet<>();
+        List<OrderStockAllocation> taken = new ArrayList<>();
+        List<ProcessedOrder> processed = new ArrayList<>();
+        for (OrderStockRequest request : orders) {
+            OrderStockResult earlier = earlierResults.get(request.orderNumber());
+            if (earlier != null) {
+                results.add(earlier);
+                continue;
+            }
+            Map<Long, Integer> order = request.productQuantities();
+            Map<Long, Integer> hotQuantities = new HashMap<>();
+            Map<Long, Integer> databaseQuantities = new HashMap<>();
+            order.forEach((productId, quantity) -> (databaseProductIds.contains(productId)
+                    ? databaseQuantities : hotQuantities).put(productId, quantity));
+            Map<Long, List<AllocationLine>> allocations;
+            List<HotStockService.HotTake> takes;
+            try {
+                order.values().forEach(InventoryService::requirePositive);
+                // Allocating changes nothing, so a short hot line after it leaves nothing to undo
+                allocations = stockAllocationEngine.allocate(databaseQuantities, rowsByProduct, allocationStrategy, null);
+                takes = hotStockService.takeAll(hotQuantities, null);
+            } catch (RuntimeException e) {
+                OrderStockResult failure = new OrderStockResult(false, e.getMessage());
+                results.add(failure);
+                earlierResults.put(request.orderNumber(), failure);
+                processed.add(processed(request.orderNumber(), failure));
+                continue;
+            }
+            if (takes.size() != hotQuantities.size()) {
+                // A product left hot stock mode mid-batch; the rollback gives the takes back
+                throw new IllegalStateException("Hot stock mode changed while taking stock for a batch of orders");
             }
-            inventory = inventories.get(0);
+            allocations.forEach((productId, lines) -> lines.forEach(line -> {
+                line.inventory().setCurrentStock(line.inventory().getCurrentStock() - line.quantity());
+                taken.add(allocation(request.orderNumber(), productId, line.inventory().getWarehouseId(), line.quantity()));
+            }));
+            takes.forEach(take -> taken.add(
+                    allocation(request.orderNumber(), take.productId(), take.warehouseId(), take.quantity())));
+            changedProductIds.addAll(allocations.keySet());
+            OrderStockResult success = new OrderStockResult(true, null);
+            results.add(success);
+            earlierResults.put(request.orderNumber(), success);
+            processed.add(processed(request.orderNumber(), success));
         }
-        
-        // Increase stock
-        inventory.setCurrentStock(inventory.getCurrentStock() + quantity);
-        return inventoryRepository.save(inventory);
+        orderStockAllocationRepository.saveAll(taken);
+        processedOrderRepository.saveAll(processed);
+        changedProductIds.forEach(productId -> eventPublisher.publishEvent(new ProductChangedEvent(productId)));
+        reorderEngine.stockChanged(changedProductIds);
+        return results;
     }
 
-    public List<Inventory> increaseStockForOrder(java.util.Map<Long, Integer> productQuantities) {
-        return productQuantities.entrySet().stream()
-                .map(entry -> increaseStock(entry.getKey(), entry.getValue(), null))
-                .collect(Collectors.toList());
+    /**
+     * Computes how an order line would be split across warehouses right now, without taking any stock.
+     */
+    public StockAllocationResponse previewAllocation(Long productId, Integer quantity, String strategy, Long preferredWarehouseId) {
+        requirePositive(quantity);
+        AllocationStrategy allocationStrategy = stockAllocationEngine.strategy(strategy);
+        Map<Long, List<AllocationLine>> allocations = stockAllocationEngine.allocate(Map.of(productId, quantity),
+                groupByProduct(inventoryRepository.findByProductIdIn(List.of(productId))), allocationStrategy, preferredWarehouseId);
+        return StockAllocationResponse.toResponse(productId, quantity, allocationStrategy.name(), allocations.get(productId));
+    }
+
+    /**
+     * Returns stock to one warehouse: the given one, or the emptiest warehouse of the product.
+     */
+    @Transactional
+    public void increaseStock(Long productId, Integer quantity, Long warehouseId) {
+        requirePositive(quantity);
+        returnStock(productId, warehouseId, quantity);
+    }
+
+    /**
+     * Gives a cancelled order's stock back to the warehouses it was taken from (see
+     * {@link #decreaseStockForOrder(String, Map)}). The lines are locked and marked released, so a cancellation
+     * delivered twice returns the stock once.
+     *
+     * @return false when nothing taken for the order is left to return
+     */
+    @Transactional
+    public boolean releaseStockForOrder(String orderNumber) {
+        // sorted by product, then warehouse, so the increments lock rows in the same order as decreaseStockForOrder
+        List<OrderStockAllocation> lines = orderStockAllocationRepository.lockUnreleased(orderNumber);
+        if (lines.isEmpty()) {
+            return false;
+        }
+        lines.forEach(line -> returnStock(line.getProductId(), line.getWarehouseId(), line.getQuantity()));
+        orderStockAllocationRepository.markReleased(lines.stream().map(OrderStockAllocation::getId).toList(),
+                LocalDateTime.now());
+        return true;
+    }
+
+    // One conditional increment; a hot product takes it in its counter (the emptiest row when no warehouse is given)
+    private void returnStock(Long productId, Long warehouseId, int quantity) {
+        if (hotStockService.add(productId, warehouseId, quantity)) {
+            return;
+        }
+        Long targetWarehouseId = warehouseId;
+        if (targetWarehouseId == null) {
+            Inventory target = stockAllocationEngine.restockTarget(inventoryRepository.findByProductIdIn(List.of(productId)));
+            if (target == null) {
+                throw missingInventory(productId, null);
+            }
+            targetWarehouseId = target.getWarehouseId();
+        }
+        if (inventoryRepository.incrementStock(productId, targetWarehouseId, quantity) == 0) {
+            hotStockService.requireNotHot(List.of(productId));
+            throw missingInventory(productId, targetWarehouseId);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        reorderEngine.stockChanged(productId);
+    }
+
+    // What an earlier delivery of the order took, one response per product
+    private List<StockAllocationResponse> recordedAllocations(String orderNumber) {
+        Map<Long, List<OrderStockAllocation>> linesByProduct = orderStockAllocationRepository
+                .findByOrderNumberOrderByProductIdAscWarehouseIdAsc(orderNumber).stream()
+                .collect(Collectors.groupingBy(OrderStockAllocation::getProductId, TreeMap::new, Collectors.toList()));
+        List<StockAllocationResponse> responses = new ArrayList<>();
+        linesByProduct.forEach((productId, lines) -> responses.add(StockAllocationResponse.builder()
+                .productId(productId)
+                .requestedQuantity(lines.stream().mapToInt(OrderStockAllocation::getQuantity).sum())
+                .allocations(lines.stream()
+                        .map(line -> WarehouseAllocationResponse.builder()
+                                .warehouseId(line.getWarehouseId())
+                                .quantity(line.getQuantity())
+                                .build())
+                        .toList())
+                .build()));
+        return responses;
+    }
+
+    private static ProcessedOrder processed(String orderNumber, OrderStockResult result) {
+        String message = result.message();
+        return ProcessedOrder.builder()
+                .orderNumber(orderNumber)
+                .success(result.success())
+                .message(message != null && message.length() > 500 ? message.substring(0, 500) : message)
+                .build();
+    }
+
+    private static StockAllocationResponse toResponse(HotStockService.HotTake take) {
+        return StockAllocationResponse.builder()
+                .productId(take.productId())
+                .requestedQuantity(take.quantity())
+                .strategy(HotStockService.REFERENCE_TYPE)
+                .allocations(List.of(WarehouseAllocationResponse.builder()
+                        .inventoryId(take.inventoryId())
+                        .warehouseId(take.warehouseId())
+                        .quantity(take.quantity())
+                        .remainingStock((int) take.remainingStock())
+                        .build()))
+                .build();
+    }
+
+    private static OrderStockAllocation allocation(String orderNumber, Long productId, Long warehouseId, int quantity) {
+        return OrderStockAllocation.builder()
+                .orderNumber(orderNumber)
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .quantity(quantity)
+                .build();
+    }
+
+    private static Map<Long, List<Inventory>> groupByProduct(List<Inventory> rows) {
+        return rows.stream().collect(Collectors.groupingBy(inventory -> inventory.getProduct().getId()));
+    }
+
+    // Only read after a conditional update found nothing to change, to tell the caller why
+    private int availableStock(Long productId, Long warehouseId) {
+        return inventoryRepository.findCurrentStock(productId, warehouseId)
+                .orElseThrow(() -> missingInventory(productId, warehouseId));
+    }
+
+    private RuntimeException missingInventory(Long productId, Long warehouseId) {
+        if (!productRepository.existsById(productId)) {
+            return new RuntimeException("Product not found with id: " + productId);
+        }
+        return warehouseId != null
+                ? new RuntimeException("Inventory not found for product ID: " + productId + " and warehouse ID: " + warehouseId)
+                : new RuntimeException("No inventory found for product ID: " + productId);
+    }
+
+    private static void requirePositive(Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
     }
 
 }
@@ -0,0 +1,221 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.cache.CategoryTreeIndex;
+import org.rakhmonov.inventoryservice.dto.request.ProductSearchRequest;
+import org.rakhmonov.inventoryservice.dto.response.FacetCountResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductListResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.exception.CategoryNotFoundException;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Catalog filtering for {@link ProductSearchRequest}. Every filter, stock filters included, runs in the database:
+ * one aggregate query returns the facet counts and summary statistics per category, and one LIMIT/OFFSET query
+ * the ids of the requested page, so only that page of products is ever loaded.
+ * A search query narrows the filter to the {@value #SEARCH_RESULT_LIMIT} best index matches.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductFilterService {
+    // Upper bounds of the price facet buckets; the last bucket is open-ended (see ProductRepository#countFacets)
+    private static final List<BigDecimal> PRICE_BUCKET_BOUNDS = List.of(
+            new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("500"), new BigDecimal("1000"));
+    private static final List<Long> NO_IDS = List.of(-1L);
+    static final int SEARCH_RESULT_LIMIT = 1_000;
+
+    private final ProductRepository productRepository;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductPageAssembler productPageAssembler;
+
+    public ProductListResponse filterProducts(ProductSearchRequest request) {
+        List<Long> rankedIds = null;
+        if (request.getSearchQuery() != null && !request.getSearchQuery().isBlank()) {
+            rankedIds = productSearchIndex.search(request.getSearchQuery());
+            if (rankedIds.isEmpty()) {
+                return buildResponse(request, List.of(), List.of());
+            }
+            rankedIds = rankedIds.subList(0, Math.min(rankedIds.size(), SEARCH_RESULT_LIMIT));
+        }
+
+        List<Long> categoryIds = null;
+        if (request.getCategoryId() != null) {
+            if (!categoryTreeIndex.contains(request.getCategoryId())) {
+                throw new CategoryNotFoundException("Category not found with id: " + request.getCategoryId());
+            }
+            categoryIds = categoryTreeIndex.getSelfAndDescendantIds(request.getCategoryId());
+        }
+
+        Filter filter = new Filter(request, rankedIds, categoryIds);
+        List<Object[]> facetRows = filter.countFacets(productRepository);
+        long total = facetRows.stream().mapToLong(row -> count(row, 2)).sum();
+        // in long, so a huge page number cannot overflow; a page past the last one is empty without a query
+        long offset = (long) request.getPage() * request.getSize();
+        List<Long> pageIds;
+        if (offset >= total) {
+            pageIds = List.of();
+        } else if (rankedIds != null && sortProperty(request) == null) {
+            pageIds = relevancePage(filter.ids(productRepository, Pageable.unpaged()), rankedIds, (int) offset, request.getSize());
+        } else {
+            pageIds = filter.ids(productRepository, PageRequest.of(request.getPage(), request.getSize(), sort(request)));
+        }
+        return buildResponse(request, facetRows, loadPage(pageIds));
+    }
+
+    // Matching ids (at most SEARCH_RESULT_LIMIT) in search index order, then the page of them
+    private static List<Long> relevancePage(List<Long> matchingIds, List<Long> rankedIds, int offset, int size) {
+        Set<Long> matching = new HashSet<>(matchingIds);
+        List<Long> ranked = rankedIds.stream().filter(matching::contains).toList();
+        return ranked.subList(Math.min(offset, ranked.size()), Math.min(offset + size, ranked.size()));
+    }
+
+    private List<ProductResponse> loadPage(List<Long> pageIds) {
+        if (pageIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> productsById = productRepository.findByIdInAndIsDeletedFalse(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return productPageAssembler.toResponseList(products);
+    }
+
+    private ProductListResponse buildResponse(ProductSearchRequest request, List<Object[]> facetRows,
+                                              List<ProductResponse> page) {
+        List<FacetCountResponse> categoryFacets = new ArrayList<>();
+        long[] priceCounts = new long[PRICE_BUCKET_BOUNDS.size() + 1];
+        long total = 0, active = 0, inStock = 0, lowStock = 0, marketplace = 0;
+
+        for (Object[] row : facetRows) {
+            if (row[0] != null) {
+                categoryFacets.add(FacetCountResponse.builder()
+                        .key(String.valueOf(row[0]))
+                        .label((String) row[1])
+                        .count(count(row, 2))
+                        .build());
+            }
+            total += count(row, 2);
+            active += count(row, 3);
+            inStock += count(row, 4);
+            lowStock += count(row, 5);
+            marketplace += count(row, 6);
+            for (int i = 0; i < priceCounts.length; i++) {
+                priceCounts[i] += count(row, 7 + i);
+            }
+        }
+        long outOfStock = total - inStock;
+
+        int totalPages = request.getSize() == 0 ? 0 : (int) ((total + request.getSize() - 1) / request.getSize());
+        return ProductListResponse.builder()
+                .products(page)
+                .currentPage(request.getPage())
+                .pageSize(request.getSize())
+                .totalElements(total)
+                .totalPages(totalPages)
+                .hasNext((long) request.getPage() + 1 < totalPages)
+                .hasPrevious(request.getPage() > 0)
+                .isFirst(request.getPage() == 0)
+                .isLast((long) request.getPage() + 1 >= totalPages)
+                .searchQuery(request.getSearchQuery())
+                .categoryId(request.getCategoryId())
+                .sortBy(request.getSortBy())
+                .sortDirection(request.getSortDirection())
+                .totalProducts(total)
+                .activeProducts(active)
+                .inactiveProducts(total - active)
+                .outOfStockProducts(outOfStock)
+                .lowStockProducts(lowStock)
+                .marketplaceProducts(marketplace)
+                .warehouseProducts(total - marketplace)
+                .categoryFacets(categoryFacets.stream()
+                        .sorted(Comparator.comparingLong(FacetCountResponse::getCount).reversed()
+                                .thenComparing(FacetCountResponse::getKey))
+                        .toList())
+                .priceRangeFacets(priceFacets(priceCounts))
+                .stockFacets(List.of(
+                        FacetCountResponse.builder().key("true").label("In stock").count(inStock).build(),
+                        FacetCountResponse.builder().key("false").label("Out of stock").count(outOfStock).build()))
+                .build();
+    }
+
+    private List<FacetCountResponse> priceFacets(long[] counts) {
+        List<FacetCountResponse> facets = new ArrayList<>();
+        BigDecimal lower = BigDecimal.ZERO;
+        for (int i = 0; i < counts.length; i++) {
+            String key = i < PRICE_BUCKET_BOUNDS.size()
+                    ? lower.toPlainString() + "-" + PRICE_BUCKET_BOUNDS.get(i).toPlainString()
+                    : lower.toPlainString() + "+";
+            facets.add(FacetCountResponse.builder().key(key).label(key).count(counts[i]).build());
+            if (i < PRICE_BUCKET_BOUNDS.size()) {
+                lower = PRICE_BUCKET_BOUNDS.get(i);
+            }
+        }
+        return facets;
+    }
+
+    // Sort column of an explicit sortBy; null means the default order (relevance when searching)
+    private static String sortProperty(ProductSearchRequest request) {
+        String sortBy = request.getSortBy() != null ? request.getSortBy() : "";
+        return switch (sortBy) {
+            case "name", "price", "createdAt", "updatedAt" -> sortBy;
+            default -> null;
+        };
+    }
+
+    private static Sort sort(ProductSearchRequest request) {
+        Sort.Direction direction = "DESC".equalsIgnoreCase(request.getSortDirection())
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        String property = sortProperty(request);
+        Sort.Order order = new Sort.Order(direction, property != null ? property : "createdAt");
+        if ("name".equals(property)) {
+            order = order.ignoreCase();
+        }
+        // id breaks ties, so pages never overlap or skip rows
+        return Sort.by(order, new Sort.Order(direction, "id"));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static long count(Object[] row, int column) {
+        return row[column] == null ? 0 : ((Number) row[column]).longValue();
+    }
+
+    // The request's filters, bound once for both repository queries
+    private record Filter(ProductSearchRequest request, List<Long> productIds, List<Long> categoryIds) {
+        List<Long> ids(ProductRepository repository, Pageable pageable) {
+            return repository.findFilteredIds(
+                    productIds != null, productIds != null ? productIds : NO_IDS,
+                    categoryIds != null, categoryIds != null ? categoryIds : NO_IDS,
+                    request.getThirdPartySellerId(), request.getMinPrice(), request.getMaxPrice(),
+                    blankToNull(request.getSku()), blankToNull(request.getBarcode()),
+                    request.getInStock(), request.getNeedsReorder(), pageable);
+        }
+
+        List<Object[]> countFacets(ProductRepository repository) {
+            return repository.countFacets(
+                    productIds != null, productIds != null ? productIds : NO_IDS,
+                    categoryIds != null, categoryIds != null ? categoryIds : NO_IDS,
+                    request.getThirdPartySellerId(), request.getMinPrice(), request.getMaxPrice(),
+                    blankToNull(request.getSku()), blankToNull(request.getBarcode()),
+                    request.getInStock(), request.getNeedsReorder(),
+                    PRICE_BUCKET_BOUNDS.get(0), PRICE_BUCKET_BOUNDS.get(1), PRICE_BUCKET_BOUNDS.get(2),
+                    PRICE_BUCKET_BOUNDS.get(3));
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package org.rakhmonov.inventoryservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.ProductVariantRequest;
+import org.rakhmonov.inventoryservice.dto.request.ProductImportRow;
+import org.rakhmonov.inventoryservice.dto.response.ProductImportErrorResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductImportResponse;
+import org.rakhmonov.inventoryservice.entity.Category;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.entity.ProductVariant;
+import org.rakhmonov.inventoryservice.event.ProductsImportedEvent;
+import org.rakhmonov.inventoryservice.exception.InvalidImportFileException;
+import org.rakhmonov.inventoryservice.repo.CategoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.rakhmonov.inventoryservice.util.CsvRecordReader;
+import org.rakhmonov.inventoryservice.util.JwtUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Bulk product import from CSV or NDJSON. The upload is read record by record; valid rows are collected
+ * into chunks and each chunk is inserted in its own transaction, so Hibernate sends products, inventory
+ * and variants as JDBC batches. Invalid rows are skipped and reported back with their row number.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    public enum ImportFormat {
+        CSV, NDJSON;
+
+        static ImportFormat resolve(String format, String filename) {
+            String value = format != null && !format.isBlank() ? format : extension(filename);
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl", "json" -> NDJSON;
+                default -> throw new InvalidImportFileException("Unsupported import format: '" + value + "', expected csv or ndjson");
+            };
+        }
+
+        private static String extension(String filename) {
+            if (filename == null || filename.lastIndexOf('.') < 0) {
+                return "";
+            }
+            return filename.substring(filename.lastIndexOf('.') + 1);
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    public ProductImportResponse importProducts(MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new InvalidImportFileException("Import file is required");
+        }
+        ImportFormat importFormat = ImportFormat.resolve(format, file.getOriginalFilename());
+        long startedAt = System.currentTimeMillis();
+        ImportContext context = new ImportContext(loadCategories(), JwtUtils.getCurrentUserRole(), JwtUtils.getCurrentUserId());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            if (importFormat == ImportFormat.CSV) {
+                readCsv(reader, context);
+            } else {
+                readNdjson(reader, context);
+            }
+        } catch (IOException e) {
+            // Rows before the unreadable one are kept; report where reading stopped
+            context.fail(context.rowNumber + 1, null, "Could not read file: " + e.getMessage());
+        }
+        flushChunk(context);
+
+        long durationMs = System.currentTimeMillis() - startedAt;
+        log.info("Imported {} of {} products ({} failed) in {} ms",
+                context.imported, context.rowNumber, context.failed, durationMs);
+        return ProductImportResponse.builder()
+                .format(importFormat.name())
+                .totalRows(context.rowNumber)
+                .importedRows(context.imported)
+                .failedRows(context.failed)
+                .durationMs(durationMs)
+                .errors(context.errors)
+                .errorsTruncated(context.failed > context.errors.size())
+                .build();
+    }
+
+    private void readCsv(BufferedReader reader, ImportContext context) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        List<String> columns = header.stream().map(ProductImportService::normalizeColumn).toList();
+        if (!columns.contains("name") || !columns.contains("price")) {
+            throw new InvalidImportFileException("CSV header must contain at least 'name' and 'price' columns");
+        }
+
+        List<String> values;
+        while ((values = csv.readRecord()) != null) {
+            long rowNumber = ++context.rowNumber;
+            ProductImportRow row;
+            try {
+                row = toRow(columns, values);
+            } catch (IllegalArgumentException e) {
+                context.fail(rowNumber, null, e.getMessage());
+                continue;
+            }
+            accept(rowNumber, row, context);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportContext context) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(ProductImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long rowNumber = ++context.rowNumber;
+            ProductImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                context.fail(rowNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (row.getVariants() == null) {
+                row.setVariants(new ArrayList<>());
+            }
+            accept(rowNumber, row, context);
+        }
+    }
+
+    private void accept(long rowNumber, ProductImportRow row, ImportContext context) {
+        String error = validate(row, context);
+        if (error != null) {
+            context.fail(rowNumber, row.getSku(), error);
+            return;
+        }
+        context.pending.add(new PendingRow(rowNumber, row, resolveCategory(row, context)));
+        if (context.pending.size() >= chunkSize) {
+            flushChunk(context);
+        }
+    }
+
+    /**
+     * @return a message describing every problem with the row, or null when it can be imported
+     */
+    private String validate(ProductImportRow row, ImportContext context) {
+        List<String> problems = new ArrayList<>();
+        if (row.getName() == null || row.getName().isBlank()) {
+            problems.add("Product name is required");
+        }
+        if (row.getPrice() == null) {
+            problems.add("Price is required");
+        } else if (row.getPrice().signum() < 0) {
+            problems.add("Price must be positive");
+        }
+        if (isNegative(row.getCurrentStock()) || isNegative(row.getReorderPoint())
+                || (row.getUnitCost() != null && row.getUnitCost().signum() < 0)) {
+            problems.add("Stock, reorder point and unit cost must be positive or zero");
+        }
+        for (ProductVariantRequest variant : row.getVariants()) {
+            if (variant.getVariantName() == null || variant.getVariantName().isBlank()
+                    || variant.getVariantValue() == null || variant.getVariantValue().isBlank()) {
+                problems.add("Variant name and value are required");
+            } else if (isNegative(variant.getStockQuantity())
+                    || (variant.getPrice() != null && variant.getPrice().signum() < 0)) {
+                problems.add("Variant price and stock must be positive or zero");
+            }
+        }
+        if (row.getCategoryId() == null && (row.getCategory() == null || row.getCategory().isBlank())) {
+            problems.add("Category is required");
+        } else if (resolveCategory(row, context) == null) {
+            problems.add("Category not found: " + (row.getCategoryId() != null ? row.getCategoryId() : row.getCategory()));
+        }
+        if (row.getWarehouseId() == null && (row.getCurrentStock() != null || row.getReorderPoint() != null)) {
+            problems.add("Warehouse ID is required when stock is given");
+        }
+
+        Set<String> rowSkus = new HashSet<>();
+        List<String> skus = new ArrayList<>();
+        if (row.getSku() != null) {
+            skus.add(row.getSku());
+        }
+        row.getVariants().stream().map(ProductVariantRequest::getSku).filter(Objects::nonNull).forEach(skus::add);
+        for (String sku : skus) {
+            if (!rowSkus.add(sku) || context.seenSkus.contains(sku)) {
+                problems.add("Duplicate SKU in file: " + sku);
+            }
+        }
+        if (!problems.isEmpty()) {
+            return String.join("; ", problems);
+        }
+        context.seenSkus.addAll(rowSkus);
+        return null;
+    }
+
+    private static boolean isNegative(Integer value) {
+        return value != null && value < 0;
+    }
+
+    private Category resolveCategory(ProductImportRow row, ImportContext context) {
+        if (row.getCategoryId() != null) {
+            return context.categories.byId.get(row.getCategoryId());
+        }
+        return row.getCategory() != null
+                ? context.categories.byName.get(row.getCategory().trim().toLowerCase(Locale.ROOT))
+                : null;
+    }
+
+    private void flushChunk(ImportContext context) {
+        if (context.pending.isEmpty()) {
+            return;
+        }
+        List<PendingRow> chunk = withoutExistingSkus(context);
+        context.pending.clear();
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<Product> saved = transactionTemplate.execute(status -> persist(chunk, context));
+            context.imported += chunk.size();
+            // committed: index the new products here and on every other replica, once for the whole chunk
+            eventPublisher.publishEvent(new ProductsImportedEvent(saved.stream().map(Product::getId).toList()));
+        } catch (DataAccessException | TransactionException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Import chunk of {} rows failed: {}", chunk.size(), cause);
+            chunk.forEach(row -> context.fail(row.rowNumber(), row.row().getSku(), "Batch insert failed: " + cause));
+        }
+    }
+
+    // One query per chunk for product SKUs and one for variant SKUs already in the database
+    private List<PendingRow> withoutExistingSkus(ImportContext context) {
+        Set<String> productSkus = new HashSet<>();
+        Set<String> variantSkus = new HashSet<>();
+        for (PendingRow pending : context.pending) {
+            if (pending.row().getSku() != null) {
+                productSkus.add(pending.row().getSku());
+            }
+            pending.row().getVariants().stream().map(ProductVariantRequest::getSku).filter(Objects::nonNull).forEach(variantSkus::add);
+        }
+        Set<String> existingProductSkus = productSkus.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingSkus(productSkus));
+        Set<String> existingVariantSkus = variantSkus.isEmpty() ? Set.of() : new HashSet<>(productVariantRepository.findExistingSkus(variantSkus));
+        if (existingProductSkus.isEmpty() && existingVariantSkus.isEmpty()) {
+            return new ArrayList<>(context.pending);
+        }
+
+        List<PendingRow> accepted = new ArrayList<>(context.pending.size());
+        for (PendingRow pending : context.pending) {
+            String sku = pending.row().getSku();
+            Optional<String> takenVariantSku = pending.row().getVariants().stream()
+                    .map(ProductVariantRequest::getSku)
+                    .filter(existingVariantSkus::contains)
+                    .findFirst();
+            if (sku != null && existingProductSkus.contains(sku)) {
+                context.fail(pending.rowNumber(), sku, "SKU already exists: " + sku);
+            } else if (takenVariantSku.isPresent()) {
+                context.fail(pending.rowNumber(), sku, "Variant SKU already exists: " + takenVariantSku.get());
+            } else {
+                accepted.add(pending);
+            }
+        }
+        return accepted;
+    }
+
+    private List<Product> persist(List<PendingRow> chunk, ImportContext context) {
+        List<Product> products = new ArrayList<>(chunk.size());
+        List<ProductVariant> variants = new ArrayList<>();
+        for (PendingRow pending : chunk) {
+            ProductImportRow row = pending.row();
+            Product product = Product.builder()
+                    .name(row.getName())
+                    .description(row.getDescription())
+                    .price(row.getPrice())
+                    .sku(row.getSku())
+                    .barcode(row.getBarcode())
+                    .category(pending.category())
+                    .thirdPartySellerId(context.sellerIdFor(row))
+                    .supplierId(context.supplierIdFor(row))
+                    .isActive(true)
+                    .build();
+
+            if (row.getWarehouseId() != null) {
+                // Saved through Product.inventory's cascade
+                product.setInventory(Inventory.builder()
+                        .product(product)
+                        .warehouseId(row.getWarehouseId())
+                        .currentStock(row.getCurrentStock() != null ? row.getCurrentStock() : 0)
+                        .reorderPoint(row.getReorderPoint() != null ? row.getReorderPoint() : 10)
+                        .unitCost(row.getUnitCost())
+                        .isDeleted(false)
+                        .build());
+            }
+
+            for (ProductVariantRequest variant : row.getVariants()) {
+                variants.add(ProductVariant.builder()
+                        .product(product)
+                        .variantName(variant.getVariantName())
+                        .variantValue(variant.getVariantValue())
+                        .sku(variant.getSku())
+                        .barcode(variant.getBarcode())
+                        .price(variant.getPrice())
+                        .cost(variant.getCost())
+                        .weight(variant.getWeight())
+                        .dimensions(variant.getDimensions())
+                        .imageUrl(variant.getImageUrl())
+                        .stockQuantity(variant.getStockQuantity() != null ? variant.getStockQuantity() : 0)
+                        .isDefault(variant.getIsDefault() != null ? variant.getIsDefault() : false)
+                        .sortOrder(variant.getSortOrder())
+                        .status(ProductVariant.VariantStatus.ACTIVE)
+                        .build());
+            }
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+        productVariantRepository.saveAll(variants);
+        // With open-in-view the request's persistence context outlives the chunk transaction; detach the chunk
+        // so a large import does not keep every row it inserted managed until the request ends
+        entityManager.flush();
+        entityManager.clear();
+        return products;
+    }
+
+    private CategoryLookup loadCategories() {
+        Map<Long, Category> byId = new HashMap<>();
+        Map<String, Category> byName = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            if (Boolean.TRUE.equals(category.getIsDeleted())) {
+                continue;
+            }
+            byId.put(category.getId(), category);
+            byName.putIfAbsent(category.getName().trim().toLowerCase(Locale.ROOT), category);
+        }
+        return new CategoryLookup(byId, byName);
+    }
+
+    private static String normalizeColumn(String column) {
+        return column.replace("\uFEFF", "").replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static ProductImportRow toRow(List<String> columns, List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < columns.size() && i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                fields.put(columns.get(i), values.get(i));
+            }
+        }
+
+        ProductImportRow row = ProductImportRow.builder()
+                .name(fields.get("name"))
+                .description(fields.get("description"))
+                .price(decimal(fields, "price"))
+                .sku(fields.get("sku"))
+                .barcode(fields.get("barcode"))
+                .categoryId(number(fields, "categoryid"))
+                .category(fields.getOrDefault("category", fields.get("categoryname")))
+                .thirdPartySellerId(number(fields, "thirdpartysellerid"))
+                .supplierId(number(fields, "supplierid"))
+                .warehouseId(number(fields, "warehouseid"))
+                .currentStock(integer(fields, "currentstock"))
+                .reorderPoint(integer(fields, "reorderpoint"))
+                .unitCost(decimal(fields, "unitcost"))
+                .build();
+
+        // CSV carries at most one variant per product
+        if (fields.containsKey("variantname") || fields.containsKey("variantvalue")) {
+            row.getVariants().add(ProductVariantRequest.builder()
+                    .variantName(fields.get("variantname"))
+                    .variantValue(fields.get("variantvalue"))
+                    .sku(fields.get("variantsku"))
+                    .barcode(fields.get("variantbarcode"))
+                    .price(decimal(fields, "variantprice"))
+                    .stockQuantity(integer(fields, "variantstock"))
+                    .build());
+        }
+        return row;
+    }
+
+    private static Long number(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in column " + column + ": " + value);
+        }
+    }
+
+    private static Integer integer(Map<String, String> fields, String column) {
+        Long value = number(fields, column);
+        if (value != null && (value > Integer.MAX_VALUE || value < Integer.MIN_VALUE)) {
+            throw new IllegalArgumentException("Number out of range in column " + column + ": " + value);
+        }
+        return value != null ? value.intValue() : null;
+    }
+
+    private static BigDecimal decimal(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid decimal in column " + column + ": " + value);
+        }
+    }
+
+    private record CategoryLookup(Map<Long, Category> byId, Map<String, Category> byName) {
+    }
+
+    private record PendingRow(long rowNumber, ProductImportRow row, Category category) {
+    }
+
+    private static class ImportContext {
+        private final CategoryLookup categories;
+        private final String userRole;
+        private final Long currentUserId;
+        private final Set<String> seenSkus = new HashSet<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<ProductImportErrorResponse> errors = new ArrayList<>();
+        private long rowNumber;
+        private long imported;
+        private long failed;
+
+        ImportContext(CategoryLookup categories, String userRole, Long currentUserId) {
+            this.categories = categories;
+            this.userRole = userRole;
+            this.currentUserId = currentUserId;
+        }
+
+        void fail(long rowNumber, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(ProductImportErrorResponse.builder().rowNumber(rowNumber).sku(sku).message(message).build());
+            }
+        }
+
+        // Same ownership rules as ProductService.createProduct
+        Long sellerIdFor(ProductImportRow row) {
+            if (userRole == null) {
+                return row.getThirdPartySellerId();
+            }
+            return isSeller() ? currentUserId : null;
+        }
+
+        Long supplierIdFor(ProductImportRow row) {
+            if (userRole == null) {
+                return row.getSupplierId();
+            }
+            return userRole.equals("ROLE_ADMIN") || userRole.equals("ADMIN") ? row.getSupplierId() : null;
+        }
+
+        private boolean isSeller() {
+            return userRole.equals("ROLE_SELLER") || userRole.equals("SELLER");
+        }
+    }
+}
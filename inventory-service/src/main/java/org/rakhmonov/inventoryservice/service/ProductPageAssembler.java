@@ -0,0 +1,97 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.image.ImageSize;
+import org.rakhmonov.inventoryservice.image.ImageStorageService;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link ProductResponse} pages from a page of products.
+ * Inventories for the whole page are loaded with one IN query instead of one query per row,
+ * categories come with the page itself (see the entity graphs on ProductRepository).
+ * The inverse Product.inventory association is never loaded here; it is only lazy thanks to Hibernate's
+ * bytecode enhancement (see pom.xml), without which every product in the page would load it with its own query.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductPageAssembler {
+    private final InventoryRepository inventoryRepository;
+
+    @Value("${app.base.url:http://localhost:8082}")
+    private String baseUrl;
+
+    public Page<ProductResponse> toResponsePage(Page<Product> products) {
+        Map<Long, Inventory> inventories = loadInventories(products.getContent());
+        return products.map(product -> toResponse(product, inventories.get(product.getId())));
+    }
+
+    public List<ProductResponse> toResponseList(List<Product> products) {
+        Map<Long, Inventory> inventories = loadInventories(products);
+        return products.stream()
+                .map(product -> toResponse(product, inventories.get(product.getId())))
+                .toList();
+    }
+
+    public ProductResponse toResponse(Product product, Inventory inventory) {
+        return applyImageUrls(ProductResponse.fromEntity(product, inventory));
+    }
+
+    /**
+     * Turns the stored image path into an absolute URL and, for uploaded images, adds one URL per {@link ImageSize}.
+     */
+    public ProductResponse applyImageUrls(ProductResponse response) {
+        String storedUrl = response.getImageUrl();
+        if (storedUrl == null || storedUrl.isEmpty()) {
+            return response;
+        }
+        response.setImageUrl(buildImageUrl(storedUrl));
+        String fileName = ImageStorageService.localFileName(storedUrl);
+        if (fileName != null) {
+            Map<String, String> variants = new LinkedHashMap<>();
+            for (ImageSize size : ImageSize.values()) {
+                variants.put(size.key(), baseUrl + "/api/images/" + fileName + "?size=" + size.key());
+            }
+            response.setImageVariants(variants);
+        }
+        return response;
+    }
+
+    public String buildImageUrl(String imagePath) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return null;
+        }
+        if (imagePath.startsWith("http://") || imagePath.startsWith("https://")) {
+            return imagePath;
+        }
+        if (imagePath.startsWith("/")) {
+            return baseUrl + imagePath;
+        }
+        return baseUrl + "/uploads/" + imagePath;
+    }
+
+    // productId -> first (lowest id) inventory, same row the old per-product lookup returned
+    private Map<Long, Inventory> loadInventories(List<Product> products) {
+        Map<Long, Inventory> byProductId = new HashMap<>();
+        if (products.isEmpty()) {
+            return byProductId;
+        }
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .toList();
+        for (Inventory inventory : inventoryRepository.findByProductIdIn(productIds)) {
+            byProductId.putIfAbsent(inventory.getProduct().getId(), inventory);
+        }
+        return byProductId;
+    }
+}
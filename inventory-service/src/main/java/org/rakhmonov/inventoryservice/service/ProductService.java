@@ -1,29 +1,35 @@
 package org.rakhmonov.inventoryservice.service;
 
 import lombok.RequiredArgsConstructor;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.inventoryservice.cache.CategoryTreeIndex;
+import org.rakhmonov.inventoryservice.cache.ProductCache;
 import org.rakhmonov.inventoryservice.dto.request.ProductRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
 import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
 import org.rakhmonov.inventoryservice.entity.*;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
 import org.rakhmonov.inventoryservice.exception.CategoryNotFoundException;
 import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
+import org.rakhmonov.inventoryservice.image.ImageStorageService;
 import org.rakhmonov.inventoryservice.repo.CategoryRepository;
 import org.rakhmonov.inventoryservice.repo.InventoryRepository;
 import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
 import org.rakhmonov.inventoryservice.util.JwtUtils;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,11 +37,12 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final InventoryRepository inventoryRepository;
-    @Value("${app.upload.dir:/home/baxti/uploads}")
-    private String uploadDir;
-
-    @Value("${app.base.url:http://localhost:8082}")
-    private String baseUrl;
+    private final ProductPageAssembler productPageAssembler;
+    private final ProductCache productCache;
+    private final CategoryTreeIndex categoryTreeIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageStorageService imageStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductResponse createProduct(ProductRequest productRequest) {
@@ -44,8 +51,7 @@ public class ProductService {
 
         String imageUrl = null;
         if (productRequest.getImageUrl() != null && !productRequest.getImageUrl().isEmpty()) {
-            String uniqueFileName = generateUniqueFileName(productRequest.getImageUrl());
-            imageUrl = "/uploads/" + uniqueFileName;
+            imageUrl = imageStorageService.store(productRequest.getImageUrl());
         }
         Long thirdPartySellerId = null;
         Long supplierId = null;
@@ -97,56 +103,12 @@ public class ProductService {
         // Reload product with inventory relationship
         Product productWithInventory = productRepository.findById(savedProduct.getId())
                 .orElse(savedProduct);
+        eventPublisher.publishEvent(new ProductChangedEvent(productWithInventory.getId(), true));
         
         ProductResponse response = ProductResponse.fromEntity(productWithInventory);
-        if (response.getImageUrl() != null) {
-            response.setImageUrl(buildImageUrl(response.getImageUrl()));
-        }
+        productPageAssembler.applyImageUrls(response);
         return response;
     }
-    public String generateUniqueFileName(MultipartFile image) {
-        if (image == null || image.isEmpty()) {
-            throw new RuntimeException("Image file is required");
-        }
-        
-        String originalFilename = image.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isEmpty()) {
-            throw new RuntimeException("Image filename is required");
-        }
-        
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + originalFilename;
-        String filePath = uploadDir + "/" + uniqueFileName;
-        
-        try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            image.transferTo(new File(filePath));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to upload image", e);
-        }
-
-        return uniqueFileName;
-    }
-    
-    private void deleteOldImage(String imageUrl) {
-        if (imageUrl == null || imageUrl.isEmpty()) {
-            return;
-        }
-        try {
-            String filename = imageUrl.substring(imageUrl.lastIndexOf("/"));
-            Path filePath = Paths.get(uploadDir, filename);
-            
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-            }
-        } catch (Exception e) {
-            System.err.println("Failed to delete old image: " + imageUrl + " - " + e.getMessage());
-        }
-    }
-
     @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest productRequest) {
         Product product = productRepository.findById(id)
@@ -174,11 +136,10 @@ public class ProductService {
         }
         
         if (productRequest.getImageUrl() != null && !productRequest.getImageUrl().isEmpty()) {
-            if (product.getImageUrl() != null && !product.getImageUrl().isEmpty()) {
-                deleteOldImage(product.getImageUrl());
-            }
-            String uniqueFileName = generateUniqueFileName(productRequest.getImageUrl());
-            product.setImageUrl("/uploads/" + uniqueFileName);
+            String oldImageUrl = product.getImageUrl();
+            product.setImageUrl(imageStorageService.store(productRequest.getImageUrl()));
+            // other products may share the same content-addressed file
+            imageStorageService.release(oldImageUrl);
         }
         String userRole = JwtUtils.getCurrentUserRole();
         Long currentUserId = JwtUtils.getCurrentUserId();
@@ -197,27 +158,17 @@ public class ProductService {
             throw new RuntimeException("Unauthorized to update product");
         }
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, true));
         ProductResponse response = ProductResponse.fromEntity(updatedProduct);
-        if (response.getImageUrl() != null) {
-            response.setImageUrl(buildImageUrl(response.getImageUrl()));
-        }
+        productPageAssembler.applyImageUrls(response);
         return response;
     }
 
-    private String buildImageUrl(String imagePath) {
-        if (imagePath == null || imagePath.isEmpty()) {
-            return null;
-        }
-        if (imagePath.startsWith("http://") || imagePath.startsWith("https://")) {
-            return imagePath;
-        }
-        if (imagePath.startsWith("/")) {
-            return baseUrl + imagePath;
-        }
-        return baseUrl + "/uploads/" + imagePath;
+    public ProductResponse getProductById(Long id) {
+        return productCache.get(id, this::loadProductById);
     }
 
-    public ProductResponse getProductById(Long id) {
+    private ProductResponse loadProductById(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
         
@@ -230,99 +181,74 @@ public class ProductService {
         }
         
         ProductResponse response = ProductResponse.fromEntity(product);
-        if (response.getImageUrl() != null) {
-            response.setImageUrl(buildImageUrl(response.getImageUrl()));
-        }
+        productPageAssembler.applyImageUrls(response);
         return response;
     }
 
     public Page<ProductResponse> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(product -> {
-                    // Load inventory if exists
-                    if (product.getInventory() == null) {
-                        List<Inventory> inventories = inventoryRepository.findByProduct(product);
-                        if (!inventories.isEmpty()) {
-                            product.setInventory(inventories.get(0));
-                        }
-                    }
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    if (response.getImageUrl() != null) {
-                        response.setImageUrl(buildImageUrl(response.getImageUrl()));
-                    }
-                    return response;
-                });
+        return productPageAssembler.toResponsePage(productRepository.findAll(pageable));
+    }
+
+    /**
+     * Keyset-paginated listing (newest first) with an opaque cursor and no count query.
+     */
+    public CursorPageResponse<ProductResponse> getProductsByCursor(String cursor, Integer size) {
+        int pageSize = CursorCodec.clampSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Product> products = after == null
+                ? productRepository.findFirstSlice(limit)
+                : productRepository.findSliceAfter(after.createdAt(), after.id(), limit);
+
+        boolean hasNext = products.size() > pageSize;
+        if (hasNext) {
+            products = products.subList(0, pageSize);
+        }
+        Product last = products.isEmpty() ? null : products.get(products.size() - 1);
+        return CursorPageResponse.<ProductResponse>builder()
+                .content(productPageAssembler.toResponseList(products))
+                .size(products.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
     }
 
     public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
-        categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundException("Category not found with id: " + categoryId));
-        List<Long> categoryIds = getAllCategoryIdsRecursive(categoryId);
-        categoryIds.add(categoryId);
+        if (!categoryTreeIndex.contains(categoryId)) {
+            throw new CategoryNotFoundException("Category not found with id: " + categoryId);
+        }
+        List<Long> categoryIds = categoryTreeIndex.getSelfAndDescendantIds(categoryId);
 
-        return productRepository.findByCategoryId(categoryIds, pageable)
-                .map(product -> {
-                    // Load inventory if exists
-                    if (product.getInventory() == null) {
-                        List<Inventory> inventories = inventoryRepository.findByProduct(product);
-                        if (!inventories.isEmpty()) {
-                            product.setInventory(inventories.get(0));
-                        }
-                    }
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    if (response.getImageUrl() != null) {
-                        response.setImageUrl(buildImageUrl(response.getImageUrl()));
-                    }
-                    return response;
-                });
+        return productPageAssembler.toResponsePage(productRepository.findByCategoryId(categoryIds, pageable));
     }
 
     public Page<ProductResponse> getProductsBySellerId(Long sellerId, Pageable pageable) {
-        return productRepository.findByThirdPartySellerId(sellerId, pageable)
-                .map(product -> {
-                    if (product.getInventory() == null) {
-                        List<Inventory> inventories = inventoryRepository.findByProduct(product);
-                        if (!inventories.isEmpty()) {
-                            product.setInventory(inventories.get(0));
-                        }
-                    }
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    if (response.getImageUrl() != null) {
-                        response.setImageUrl(buildImageUrl(response.getImageUrl()));
-                    }
-                    return response;
-                });
+        return productPageAssembler.toResponsePage(productRepository.findByThirdPartySellerId(sellerId, pageable));
     }
-    private List<Long> getAllCategoryIdsRecursive(Long categoryId) {
-        List<Long> allIds = new ArrayList<>();
-        List<Long> directChildren = categoryRepository.findCategoryChildrenIds(categoryId);
-        
-        if (directChildren != null && !directChildren.isEmpty()) {
-            allIds.addAll(directChildren);
-            for (Long childId : directChildren) {
-                allIds.addAll(getAllCategoryIdsRecursive(childId));
-            }
+
+    /**
+     * Relevance-ranked search backed by {@link ProductSearchIndex}; only the requested page is loaded from the database.
+     */
+    public Page<ProductResponse> searchProducts(String searchTerm, Pageable pageable) {
+        List<Long> rankedIds = productSearchIndex.search(searchTerm);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, rankedIds.size());
         }
-        
-        return allIds;
-    }
 
+        Map<Long, Product> productsById = productRepository.findByIdInAndIsDeletedFalse(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(productPageAssembler.toResponseList(products), pageable, rankedIds.size());
+    }
 
-    public Page<ProductResponse> searchProducts(String searchTerm, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCase(searchTerm, pageable)
-                .map(product -> {
-                    if (product.getInventory() == null) {
-                        List<Inventory> inventories = inventoryRepository.findByProduct(product);
-                        if (!inventories.isEmpty()) {
-                            product.setInventory(inventories.get(0));
-                        }
-                    }
-                    ProductResponse response = ProductResponse.fromEntity(product);
-                    if (response.getImageUrl() != null) {
-                        response.setImageUrl(buildImageUrl(response.getImageUrl()));
-                    }
-                    return response;
-                });
+    public int reindexProducts() {
+        return productSearchIndex.rebuild();
     }
 
     @Transactional
@@ -342,6 +268,7 @@ public class ProductService {
         }
         product.setIsDeleted(true);
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id, true));
     }
 
     @Transactional
@@ -350,10 +277,9 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
         product.setIsActive(true);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         ProductResponse response = ProductResponse.fromEntity(updatedProduct);
-        if (response.getImageUrl() != null) {
-            response.setImageUrl(buildImageUrl(response.getImageUrl()));
-        }
+        productPageAssembler.applyImageUrls(response);
         return response;
     }
 
@@ -363,10 +289,9 @@ public class ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
         product.setIsActive(false);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         ProductResponse response = ProductResponse.fromEntity(updatedProduct);
-        if (response.getImageUrl() != null) {
-            response.setImageUrl(buildImageUrl(response.getImageUrl()));
-        }
+        productPageAssembler.applyImageUrls(response);
         return response;
     }
 }
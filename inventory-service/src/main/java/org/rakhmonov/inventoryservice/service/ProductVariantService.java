@@ -6,21 +6,18 @@ import org.rakhmonov.inventoryservice.dto.request.ProductVariantRequest;
 import org.rakhmonov.inventoryservice.dto.response.ProductVariantResponse;
 import org.rakhmonov.inventoryservice.entity.Product;
 import org.rakhmonov.inventoryservice.entity.ProductVariant;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
 import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
 import org.rakhmonov.inventoryservice.exception.ProductVariantNotFoundException;
+import org.rakhmonov.inventoryservice.image.ImageStorageService;
 import org.rakhmonov.inventoryservice.repo.ProductRepository;
 import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -29,9 +26,8 @@ public class ProductVariantService {
 
     private final ProductVariantRepository productVariantRepository;
     private final ProductRepository productRepository;
-
-    @Value("${app.upload.dir:/home/baxti/uploads}")
-    private String uploadDir;
+    private final ImageStorageService imageStorageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.base.url:http://localhost:8082}")
     private String baseUrl;
@@ -43,8 +39,7 @@ public class ProductVariantService {
 
         String imageUrl = null;
         if (request.getImageUrl() != null && !request.getImageUrl().isEmpty()) {
-            String uniqueFileName = generateUniqueFileName(request.getImageUrl());
-            imageUrl = "/uploads/" + uniqueFileName;
+            imageUrl = imageStorageService.store(request.getImageUrl());
         }
 
         ProductVariant variant = ProductVariant.builder()
@@ -65,6 +60,7 @@ public class ProductVariantService {
                 .build();
 
         ProductVariant savedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
         ProductVariantResponse response = toResponse(savedVariant);
         if (response.getImageUrl() != null) {
             response.setImageUrl(buildImageUrl(response.getImageUrl()));
@@ -87,11 +83,9 @@ public class ProductVariantService {
         variant.setDimensions(request.getDimensions());
         
         if (request.getImageUrl() != null && !request.getImageUrl().isEmpty()) {
-            if (variant.getImageUrl() != null && !variant.getImageUrl().isEmpty()) {
-                deleteOldImage(variant.getImageUrl());
-            }
-            String uniqueFileName = generateUniqueFileName(request.getImageUrl());
-            variant.setImageUrl("/uploads/" + uniqueFileName);
+            String oldImageUrl = variant.getImageUrl();
+            variant.setImageUrl(imageStorageService.store(request.getImageUrl()));
+            imageStorageService.release(oldImageUrl);
         }
         
         variant.setStockQuantity(request.getStockQuantity() != null ? request.getStockQuantity() : variant.getStockQuantity());
@@ -99,6 +93,7 @@ public class ProductVariantService {
         variant.setSortOrder(request.getSortOrder());
 
         ProductVariant updatedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
         ProductVariantResponse response = toResponse(updatedVariant);
         if (response.getImageUrl() != null) {
             response.setImageUrl(buildImageUrl(response.getImageUrl()));
@@ -134,6 +129,8 @@ public class ProductVariantService {
         ProductVariant variant = productVariantRepository.findByIdAndProductId(variantId, productId)
                 .orElseThrow(() -> new ProductVariantNotFoundException(variantId, productId));
         productVariantRepository.delete(variant);
+        imageStorageService.release(variant.getImageUrl());
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
     }
 
     @Transactional
@@ -143,26 +140,7 @@ public class ProductVariantService {
         
         variant.setStockQuantity(quantity);
         ProductVariant updatedVariant = productVariantRepository.save(variant);
-        return toResponse(updatedVariant);
-    }
-
-    @Transactional
-    public ProductVariantResponse reserveStock(Long productId, Long variantId, Integer quantity) {
-        ProductVariant variant = productVariantRepository.findByIdAndProductId(variantId, productId)
-                .orElseThrow(() -> new ProductVariantNotFoundException(variantId, productId));
-        
-        variant.reserveStock(quantity);
-        ProductVariant updatedVariant = productVariantRepository.save(variant);
-        return toResponse(updatedVariant);
-    }
-
-    @Transactional
-    public ProductVariantResponse releaseReservedStock(Long productId, Long variantId, Integer quantity) {
-        ProductVariant variant = productVariantRepository.findByIdAndProductId(variantId, productId)
-                .orElseThrow(() -> new ProductVariantNotFoundException(variantId, productId));
-        
-        variant.releaseReservedStock(quantity);
-        ProductVariant updatedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
         return toResponse(updatedVariant);
     }
 
@@ -173,6 +151,7 @@ public class ProductVariantService {
         
         variant.setStatus(ProductVariant.VariantStatus.ACTIVE);
         ProductVariant updatedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
         return toResponse(updatedVariant);
     }
 
@@ -183,6 +162,7 @@ public class ProductVariantService {
         
         variant.setStatus(ProductVariant.VariantStatus.INACTIVE);
         ProductVariant updatedVariant = productVariantRepository.save(variant);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
         return toResponse(updatedVariant);
     }
 
@@ -199,6 +179,8 @@ public class ProductVariantService {
                 .dimensions(variant.getDimensions())
                 .imageUrl(variant.getImageUrl())
                 .stockQuantity(variant.getStockQuantity())
+                .reservedQuantity(variant.getReservedQuantity())
+                .availableQuantity(variant.getAvailableQuantity())
                 .isDefault(variant.getIsDefault())
                 .status(variant.getStatus())
                 .sortOrder(variant.getSortOrder())
@@ -210,49 +192,6 @@ public class ProductVariantService {
                 .build();
     }
 
-    private String generateUniqueFileName(MultipartFile image) {
-        if (image == null || image.isEmpty()) {
-            throw new RuntimeException("Image file is required");
-        }
-        
-        String originalFilename = image.getOriginalFilename();
-        if (originalFilename == null || originalFilename.isEmpty()) {
-            throw new RuntimeException("Image filename is required");
-        }
-        
-        String uniqueFileName = UUID.randomUUID().toString() + "_" + originalFilename;
-        String filePath = uploadDir + "/" + uniqueFileName;
-        
-        try {
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            image.transferTo(new File(filePath));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to upload image", e);
-        }
-
-        return uniqueFileName;
-    }
-
-    private void deleteOldImage(String imageUrl) {
-        if (imageUrl == null || imageUrl.isEmpty()) {
-            return;
-        }
-        try {
-            String filename = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-            Path filePath = Paths.get(uploadDir, filename);
-            
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
-            }
-        } catch (Exception e) {
-            log.error("Failed to delete old image: {}", imageUrl, e);
-        }
-    }
-
     private String buildImageUrl(String imagePath) {
         if (imagePath == null || imagePath.isEmpty()) {
             return null;
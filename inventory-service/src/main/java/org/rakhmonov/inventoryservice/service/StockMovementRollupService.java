@@ -0,0 +1,146 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementDailyReportResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementRollupBackfillResponse;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.entity.StockMovementDailyRollup;
+import org.rakhmonov.inventoryservice.exception.InvalidDateRangeException;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily stock movement rollups per product and warehouse. Every movement written or deleted is added to (or taken
+ * from) its day's row in the same transaction, so reports read a few rollup rows instead of the ledger.
+ * {@link #backfill} rebuilds days from the ledger, for history written before rollups existed or after a repair.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockMovementRollupService {
+
+    private final StockMovementRollupRepository stockMovementRollupRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.rollup.max-report-days:366}")
+    private int maxReportDays;
+
+    private record Key(Long productId, Long warehouseId, LocalDate day) {
+    }
+
+    private static final class Totals {
+        long quantityIn;
+        long quantityOut;
+        BigDecimal totalCost = BigDecimal.ZERO;
+        long movementCount;
+    }
+
+    /**
+     * Adds a movement ({@code sign} 1) or removes it ({@code sign} -1) from its day's rollup.
+     */
+    @Transactional
+    public void record(StockMovement movement, int sign) {
+        Map<Key, Totals> totals = new HashMap<>();
+        accumulate(totals, movement, sign);
+        write(totals);
+    }
+
+    /**
+     * Adds a batch of new movements with one upsert per product/warehouse/day they touch.
+     */
+    @Transactional
+    public void recordAll(Collection<StockMovement> movements) {
+        Map<Key, Totals> totals = new HashMap<>();
+        movements.forEach(movement -> accumulate(totals, movement, 1));
+        write(totals);
+    }
+
+    private static void accumulate(Map<Key, Totals> totals, StockMovement movement, int sign) {
+        Key key = new Key(movement.getProduct().getId(),
+                movement.getWarehouseId() == null ? StockMovementDailyRollup.NO_WAREHOUSE : movement.getWarehouseId(),
+                movement.getCreatedAt().toLocalDate());
+        Totals total = totals.computeIfAbsent(key, k -> new Totals());
+        long quantity = (long) sign * movement.getQuantity();
+        if (movement.isInbound()) {
+            total.quantityIn += quantity;
+        } else {
+            total.quantityOut += quantity;
+        }
+        if (movement.getTotalCost() != null) {
+            total.totalCost = total.totalCost.add(sign < 0 ? movement.getTotalCost().negate() : movement.getTotalCost());
+        }
+        total.movementCount += sign;
+    }
+
+    private void write(Map<Key, Totals> totals) {
+        totals.forEach((key, total) -> stockMovementRollupRepository.add(key.productId(), key.warehouseId(), key.day(),
+                total.quantityIn, total.quantityOut, total.totalCost, total.movementCount));
+    }
+
+    public List<StockMovementDailyReportResponse> getDailyReport(LocalDate from, LocalDate to, Long productId,
+                                                                 Long warehouseId) {
+        checkRange(from, to);
+        if (ChronoUnit.DAYS.between(from, to) >= maxReportDays) {
+            throw new InvalidDateRangeException("Report range cannot exceed " + maxReportDays + " days");
+        }
+        return stockMovementRollupRepository.findDailyTotals(from, to, productId, warehouseId);
+    }
+
+    /**
+     * Rebuilds the rollups of every day in [from, to] from the ledger, one transaction per day. Movements written
+     * while a day is rebuilt are counted once: their upsert either lands before the day's rows are deleted and is
+     * re-read from the ledger, or waits on the rebuilt rows (or makes the rebuild wait on a row it created for the
+     * day) and is added on top.
+     * Without bounds, runs from the first movement to today.
+     */
+    public StockMovementRollupBackfillResponse backfill(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from;
+        if (start == null) {
+            LocalDateTime earliest = stockMovementRepository.findEarliestCreatedAt();
+            start = earliest != null ? earliest.toLocalDate() : end;
+        }
+        checkRange(start, end);
+
+        int days = 0;
+        int rows = 0;
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            LocalDate current = day;
+            Integer inserted = transactionTemplate.execute(status -> {
+                stockMovementRollupRepository.deleteDay(current);
+                return stockMovementRollupRepository.insertFromLedger(current.atStartOfDay(),
+                        current.plusDays(1).atStartOfDay());
+            });
+            rows += inserted != null ? inserted : 0;
+            days++;
+        }
+        log.info("Stock movement rollups rebuilt for {} days ({} - {}): {} rows", days, start, end, rows);
+        return StockMovementRollupBackfillResponse.builder()
+                .from(start)
+                .to(end)
+                .days(days)
+                .rollupRows(rows)
+                .build();
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new InvalidDateRangeException("Invalid date range: " + from + " - " + to);
+        }
+    }
+}
@@ -2,29 +2,54 @@ package org.rakhmonov.inventoryservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementBatchRequest;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementFilterRequest;
 import org.rakhmonov.inventoryservice.dto.request.StockMovementRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockLevelResponse;
 import org.rakhmonov.inventoryservice.dto.response.StockMovementResponse;
 import org.rakhmonov.inventoryservice.entity.*;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.exception.InvalidStockMovementBatchException;
+import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
+import org.rakhmonov.inventoryservice.hotstock.HotStockService;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
 import org.rakhmonov.inventoryservice.repo.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StockMovementService {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
     private final StockMovementRepository stockMovementRepository;
     private final ProductRepository productRepository;
     private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockSnapshotService stockSnapshotService;
+    private final StockMovementRollupService stockMovementRollupService;
+    private final ReorderEngine reorderEngine;
+    private final HotStockService hotStockService;
+
+    @Value("${app.stock-movement.batch-max-size:1000}")
+    private int batchMaxSize;
 
     @Transactional
     public StockMovementResponse createStockMovement(StockMovementRequest request) {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new RuntimeException("Product not found with id: " + request.getProductId()));
+        lockStock(product.getId());
 
         // Warehouse ID is validated but not fetched since it's in a different service
         Long warehouseId = request.getWarehouseId();
@@ -38,10 +63,13 @@ public class StockMovementService {
         stockMovement.setStockAfter(newStockLevel);
 
         StockMovement savedMovement = stockMovementRepository.save(stockMovement);
+        stockMovementRollupService.record(savedMovement, 1);
 
         // Update inventory if warehouse is specified
         if (warehouseId != null) {
             updateInventoryStock(product, warehouseId, newStockLevel);
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+            reorderEngine.stockChanged(product.getId());
         }
 
         log.info("Stock movement created: {} {} units for product {} ({} -> {})", 
@@ -50,81 +78,163 @@ public class StockMovementService {
         return StockMovementResponse.toResponse(savedMovement);
     }
 
-    public StockMovementResponse getStockMovement(Long id) {
-        StockMovement movement = stockMovementRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Stock movement not found with id: " + id));
-        return StockMovementResponse.toResponse(movement);
-    }
+    /**
+     * Records a batch of movements in submission order, all or nothing. Products and inventory rows are loaded in
+     * two queries (the rows locked in a fixed order, as for order stock decrements), stock before/after is computed in
+     * memory line by line, and movements, inventory changes and rollups are written as JDBC batches at commit.
+     */
+    @Transactional
+    public List<StockMovementResponse> createStockMovements(StockMovementBatchRequest request) {
+        List<StockMovementRequest> lines = validateBatch(request);
 
-    public List<StockMovementResponse> getAllStockMovements() {
-        return stockMovementRepository.findAll()
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
-    }
+        Set<Long> productIds = lines.stream().map(StockMovementRequest::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (int i = 0; i < lines.size(); i++) {
+            if (!products.containsKey(lines.get(i).getProductId())) {
+                throw new ProductNotFoundException("Product not found with id: " + lines.get(i).getProductId()
+                        + " (movement " + (i + 1) + ")");
+            }
+        }
+        // productId -> warehouseId -> row
+        Map<Long, Map<Long, Inventory>> inventories = new HashMap<>();
+        for (Inventory inventory : inventoryRepository.lockByProductIdIn(productIds)) {
+            inventories.computeIfAbsent(inventory.getProduct().getId(), id -> new HashMap<>())
+                    .putIfAbsent(inventory.getWarehouseId(), inventory);
+        }
+        hotStockService.requireNotHot(productIds);
 
-    public List<StockMovementResponse> getStockMovementsByProduct(Long productId) {
-        return stockMovementRepository.findByProductIdOrderByCreatedAtDesc(productId)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
-    }
+        List<StockMovement> movements = new ArrayList<>(lines.size());
+        List<Inventory> createdInventories = new ArrayList<>();
+        Set<Long> changedProductIds = new TreeSet<>();
+        for (StockMovementRequest line : lines) {
+            Product product = products.get(line.getProductId());
+            Map<Long, Inventory> rows = inventories.computeIfAbsent(product.getId(), id -> new HashMap<>());
+            Long warehouseId = line.getWarehouseId();
+            Inventory row = warehouseId != null ? rows.get(warehouseId) : null;
 
-    public List<StockMovementResponse> getStockMovementsByWarehouse(Long warehouseId) {
-        return stockMovementRepository.findByWarehouseId(warehouseId)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
-    }
+            int currentStock = warehouseId == null
+                    ? rows.values().stream().mapToInt(Inventory::getCurrentStock).sum()
+                    : row != null ? row.getCurrentStock() : 0;
+            int newStockLevel = calculateNewStockLevel(currentStock, line.getQuantity(), line.getMovementType());
 
-    public List<StockMovementResponse> getStockMovementsByType(StockMovement.MovementType movementType) {
-        return stockMovementRepository.findByMovementType(movementType)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
-    }
+            StockMovement movement = StockMovementRequest.toEntity(line, product);
+            movement.setStockBefore(currentStock);
+            movement.setStockAfter(newStockLevel);
+            movements.add(movement);
+
+            if (warehouseId != null) {
+                if (row == null) {
+                    row = Inventory.builder()
+                            .product(product)
+                            .warehouseId(warehouseId)
+                            .currentStock(newStockLevel)
+                            .reorderPoint(10) // Default reorder point
+                            .build();
+                    rows.put(warehouseId, row);
+                    createdInventories.add(row);
+                } else {
+                    row.setCurrentStock(newStockLevel);
+                }
+                changedProductIds.add(product.getId());
+            }
+        }
+
+        stockMovementRepository.saveAll(movements);
+        inventoryRepository.saveAll(createdInventories);
+        stockMovementRollupService.recordAll(movements);
+        changedProductIds.forEach(productId -> eventPublisher.publishEvent(new ProductChangedEvent(productId)));
+        reorderEngine.stockChanged(changedProductIds);
 
-    public List<StockMovementResponse> getStockMovementsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return stockMovementRepository.findByCreatedAtBetween(startDate, endDate)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
+        log.info("Stock movement batch recorded: {} movements for {} products", movements.size(), productIds.size());
+        return movements.stream().map(StockMovementResponse::toResponse).toList();
     }
 
-    public List<StockMovementResponse> getStockMovementsByReference(String referenceNumber) {
-        return stockMovementRepository.findByReferenceNumber(referenceNumber)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
+    public StockMovementResponse getStockMovement(Long id) {
+        StockMovement movement = stockMovementRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Stock movement not found with id: " + id));
+        return StockMovementResponse.toResponse(movement);
     }
 
-    public List<StockMovementResponse> getStockMovementsByReferenceType(String referenceType) {
-        return stockMovementRepository.findByReferenceType(referenceType)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
+    /**
+     * Keyset-paginated listing (newest first) of the movements matching every filter that is set,
+     * with an opaque cursor and no count query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<StockMovementResponse> filterStockMovements(StockMovementFilterRequest filter) {
+        int pageSize = CursorCodec.clampSize(filter.getSize());
+        CursorCodec.Cursor after = CursorCodec.decode(filter.getCursor());
+        List<StockMovement> movements = stockMovementRepository.findBy(
+                StockMovementSpecifications.matching(filter, after),
+                query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+
+        boolean hasNext = movements.size() > pageSize;
+        if (hasNext) {
+            movements = movements.subList(0, pageSize);
+        }
+        StockMovement last = movements.isEmpty() ? null : movements.get(movements.size() - 1);
+        return CursorPageResponse.<StockMovementResponse>builder()
+                .content(movements.stream().map(StockMovementResponse::toResponse).toList())
+                .size(movements.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
     }
 
-    public List<StockMovementResponse> getStockMovementsByCreatedBy(String createdBy) {
-        return stockMovementRepository.findByCreatedBy(createdBy)
-                .stream()
-                .map(StockMovementResponse::toResponse)
-                .toList();
+    public StockLevelResponse getStockAsOf(Long productId, Long warehouseId, LocalDateTime at) {
+        return stockSnapshotService.getStockAsOf(productId, warehouseId, at);
     }
 
     @Transactional
     public void deleteStockMovement(Long id) {
         StockMovement movement = stockMovementRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Stock movement not found with id: " + id));
+        lockStock(movement.getProduct().getId());
         
         // Reverse the stock movement
         reverseStockMovement(movement);
         
         stockMovementRepository.delete(movement);
+        stockMovementRollupService.record(movement, -1);
+        // the movement leaves the ledger history too
+        stockSnapshotService.shiftSnapshots(movement.getProduct().getId(), movement.getWarehouseId(),
+                movement.getCreatedAt(), -movement.getEffectiveQuantity());
+        eventPublisher.publishEvent(new ProductChangedEvent(movement.getProduct().getId()));
         log.info("Stock movement deleted and reversed: {}", id);
     }
 
     // Helper methods
+    private List<StockMovementRequest> validateBatch(StockMovementBatchRequest request) {
+        List<StockMovementRequest> lines = request == null ? null : request.getMovements();
+        if (lines == null || lines.isEmpty()) {
+            throw new InvalidStockMovementBatchException("Batch must contain at least one movement");
+        }
+        if (lines.size() > batchMaxSize) {
+            throw new InvalidStockMovementBatchException("Batch cannot exceed " + batchMaxSize + " movements");
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            StockMovementRequest line = lines.get(i);
+            String problem = line == null ? "missing"
+                    : line.getProductId() == null ? "product ID is required"
+                    : line.getMovementType() == null ? "movement type is required"
+                    : line.getQuantity() == null || line.getQuantity() < 1 ? "quantity must be positive"
+                    : line.getUnitCost() != null && line.getUnitCost().signum() < 0 ? "unit cost cannot be negative"
+                    : null;
+            if (problem != null) {
+                throw new InvalidStockMovementBatchException("Movement " + (i + 1) + ": " + problem);
+            }
+        }
+        return lines;
+    }
+
+    // Holds the product's inventory rows until commit, so the stock read next is the stock written back, and
+    // refuses products whose stock is counted in memory (hot stock mode)
+    private void lockStock(Long productId) {
+        inventoryRepository.lockByProductIdIn(List.of(productId));
+        hotStockService.requireNotHot(List.of(productId));
+    }
+
     private Integer getCurrentStockLevel(Product product, Long warehouseId) {
         if (warehouseId != null) {
             // Get stock from specific warehouse
@@ -178,6 +288,7 @@ public class StockMovementService {
             Integer reversedStock = calculateNewStockLevel(currentStock, movement.getQuantity(), 
                     getReversedMovementType(movement.getMovementType()));
             updateInventoryStock(product, warehouseId, reversedStock);
+            reorderEngine.stockChanged(product.getId());
         }
     }
 
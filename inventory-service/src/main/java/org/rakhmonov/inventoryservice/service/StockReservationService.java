@@ -0,0 +1,136 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.response.StockReservationResponse;
+import org.rakhmonov.inventoryservice.entity.ProductVariant;
+import org.rakhmonov.inventoryservice.entity.StockReservation;
+import org.rakhmonov.inventoryservice.entity.StockReservation.ReservationStatus;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.exception.ProductVariantNotFoundException;
+import org.rakhmonov.inventoryservice.exception.StockReservationNotFoundException;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.rakhmonov.inventoryservice.repo.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Variant stock reservations. Every reservation is a ledger row with an expiry; the variant keeps the sum of
+ * active ones in {@code reserved_quantity}, so {@code available = stock_quantity - reserved_quantity} is read from
+ * one row and reserve/release are single conditional UPDATEs. Abandoned reservations are given back by
+ * {@link StockReservationSweeper}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.reservation.default-ttl:15m}")
+    private Duration defaultTtl;
+
+    @Value("${app.reservation.max-ttl:24h}")
+    private Duration maxTtl;
+
+    /**
+     * @param ttlSeconds how long the hold lasts, null for the default; capped at the configured maximum
+     */
+    @Transactional
+    public StockReservationResponse reserve(Long productId, Long variantId, Integer quantity, Long ttlSeconds) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        ProductVariant variant = productVariantRepository.findByIdAndProductId(variantId, productId)
+                .orElseThrow(() -> new ProductVariantNotFoundException(variantId, productId));
+        if (productVariantRepository.reserve(variantId, quantity) == 0) {
+            throw new RuntimeException("Insufficient stock to reserve. Available: " + variant.getAvailableQuantity()
+                    + ", Requested: " + quantity);
+        }
+
+        Duration ttl = ttlSeconds != null && ttlSeconds > 0 ? Duration.ofSeconds(ttlSeconds) : defaultTtl;
+        StockReservation reservation = stockReservationRepository.save(StockReservation.builder()
+                .variantId(variantId)
+                .productId(productId)
+                .quantity(quantity)
+                .expiresAt(LocalDateTime.now().plus(ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl))
+                .build());
+        eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        return StockReservationResponse.toResponse(reservation);
+    }
+
+    /**
+     * Gives the reserved units back. Releasing a reservation that is no longer active changes nothing.
+     */
+    @Transactional
+    public StockReservationResponse release(Long productId, Long variantId, UUID reservationId) {
+        StockReservation reservation = findReservation(productId, variantId, reservationId);
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.close(reservationId, ReservationStatus.RELEASED, now) == 1) {
+            productVariantRepository.unreserve(variantId, reservation.getQuantity());
+            reservation.setStatus(ReservationStatus.RELEASED);
+            reservation.setClosedAt(now);
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        }
+        return StockReservationResponse.toResponse(reservation);
+    }
+
+    /**
+     * Turns the reservation into a sale: the reserved units leave on-hand stock.
+     */
+    @Transactional
+    public StockReservationResponse confirm(Long productId, Long variantId, UUID reservationId) {
+        StockReservation reservation = findReservation(productId, variantId, reservationId);
+        LocalDateTime now = LocalDateTime.now();
+        if (stockReservationRepository.close(reservationId, ReservationStatus.CONFIRMED, now) == 1) {
+            productVariantRepository.commitReserved(variantId, reservation.getQuantity());
+            reservation.setStatus(ReservationStatus.CONFIRMED);
+            reservation.setClosedAt(now);
+            eventPublisher.publishEvent(new ProductChangedEvent(productId));
+        } else if (reservation.getStatus() != ReservationStatus.CONFIRMED) {
+            throw new RuntimeException("Reservation " + reservationId + " is no longer active and cannot be confirmed");
+        }
+        return StockReservationResponse.toResponse(reservation);
+    }
+
+    /**
+     * Expires up to {@code limit} reservations whose time ran out, oldest first, in one transaction:
+     * one locking read, one counter update per affected variant and one status update for the batch.
+     *
+     * @return the number of reservations expired; less than {@code limit} when nothing is left
+     */
+    @Transactional
+    public int expireBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> expired = stockReservationRepository.lockExpired(now, limit);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Integer> quantityByVariant = expired.stream()
+                .collect(Collectors.groupingBy(StockReservation::getVariantId,
+                        Collectors.summingInt(StockReservation::getQuantity)));
+        quantityByVariant.forEach(productVariantRepository::unreserve);
+        stockReservationRepository.markExpired(expired.stream().map(StockReservation::getId).toList(), now);
+        expired.stream().map(StockReservation::getProductId).distinct()
+                .forEach(productId -> eventPublisher.publishEvent(new ProductChangedEvent(productId)));
+        return expired.size();
+    }
+
+    private StockReservation findReservation(Long productId, Long variantId, UUID reservationId) {
+        return stockReservationRepository.findById(reservationId)
+                .filter(reservation -> reservation.getVariantId().equals(variantId)
+                        && reservation.getProductId().equals(productId))
+                .orElseThrow(() -> new StockReservationNotFoundException(reservationId, variantId));
+    }
+}
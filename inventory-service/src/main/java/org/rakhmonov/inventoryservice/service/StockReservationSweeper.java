@@ -0,0 +1,35 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically gives back reservations that were neither confirmed nor released before they expired.
+ * Works in bounded batches (each its own transaction) until no expired reservation is left.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationSweeper {
+
+    private final StockReservationService stockReservationService;
+
+    @Value("${app.reservation.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.reservation.sweep-interval-ms:30000}")
+    public void sweep() {
+        int total = 0;
+        int expired;
+        do {
+            expired = stockReservationService.expireBatch(batchSize);
+            total += expired;
+        } while (expired == batchSize);
+        if (total > 0) {
+            log.info("Expired {} stock reservations", total);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checks for a due stock snapshot run. Runs are aligned to interval boundaries, so when several instances race
+ * for the same one the unique (product, warehouse, as_of) key lets only the first commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockSnapshotScheduler {
+
+    private final StockSnapshotService stockSnapshotService;
+
+    @Scheduled(fixedDelayString = "${app.stock-snapshot.check-interval-ms:300000}")
+    public void snapshot() {
+        try {
+            stockSnapshotService.takeSnapshot(LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Stock snapshot run already taken by another instance: {}", e.getMessage());
+        }
+    }
+}
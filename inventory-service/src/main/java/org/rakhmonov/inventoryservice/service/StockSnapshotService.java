@@ -0,0 +1,124 @@
+package org.rakhmonov.inventoryservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.inventoryservice.dto.response.StockLevelResponse;
+import org.rakhmonov.inventoryservice.entity.StockSnapshot;
+import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.repo.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Point-in-time stock from the stock movement ledger. Snapshot runs at fixed interval boundaries store, for every
+ * product/warehouse that moved since the previous run, its ledger stock at the boundary; a historical level is then
+ * the snapshot stock at the latest run before the instant plus the movements between the two.
+ * A run's boundary trails the clock by a settle lag so movements still being committed are not missed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockSnapshotService {
+    private static final int PRODUCT_CHUNK = 500;
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${app.stock-snapshot.interval:1h}")
+    private Duration interval;
+
+    @Value("${app.stock-snapshot.settle-lag:5m}")
+    private Duration settleLag;
+
+    private record Key(Long productId, Long warehouseId) {
+    }
+
+    @Transactional(readOnly = true)
+    public StockLevelResponse getStockAsOf(Long productId, Long warehouseId, LocalDateTime at) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(productId);
+        }
+        LocalDateTime snapshotAt = stockSnapshotRepository.findLatestAsOf(at);
+        long base = snapshotAt == null ? 0 : stockSnapshotRepository.sumStockAt(productId, warehouseId, snapshotAt);
+        long change = stockMovementRepository.sumEffectiveQuantity(productId, warehouseId, snapshotAt, at);
+        return StockLevelResponse.builder()
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .asOf(at)
+                .stock(base + change)
+                .snapshotAt(snapshotAt)
+                .changeSinceSnapshot(change)
+                .build();
+    }
+
+    /**
+     * Takes the snapshot run due at {@code now}, if it has not been taken yet.
+     * Returns the number of snapshot rows written.
+     */
+    @Transactional
+    public int takeSnapshot(LocalDateTime now) {
+        LocalDateTime cutoff = dueCutoff(now);
+        LocalDateTime previous = stockSnapshotRepository.findLatestAsOf(cutoff);
+        if (cutoff.equals(previous)) {
+            return 0;
+        }
+
+        Map<Key, Long> changes = new HashMap<>();
+        for (Object[] row : stockMovementRepository.sumEffectiveQuantityByKey(previous, cutoff)) {
+            changes.put(new Key((Long) row[0], warehouseKey((Long) row[1])), ((Number) row[2]).longValue());
+        }
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Map<Key, Long> base = new HashMap<>();
+        List<Long> productIds = changes.keySet().stream().map(Key::productId).distinct().toList();
+        for (int from = 0; from < productIds.size(); from += PRODUCT_CHUNK) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + PRODUCT_CHUNK, productIds.size()));
+            for (StockSnapshot snapshot : stockSnapshotRepository.findLatestByProductIdIn(chunk)) {
+                base.put(new Key(snapshot.getProductId(), snapshot.getWarehouseId()), snapshot.getStock());
+            }
+        }
+
+        List<StockSnapshot> snapshots = new ArrayList<>(changes.size());
+        changes.forEach((key, change) -> snapshots.add(StockSnapshot.builder()
+                .productId(key.productId())
+                .warehouseId(key.warehouseId())
+                .asOf(cutoff)
+                .stock(base.getOrDefault(key, 0L) + change)
+                .build()));
+        stockSnapshotRepository.saveAll(snapshots);
+        log.info("Stock snapshot at {}: {} product/warehouse levels", cutoff, snapshots.size());
+        return snapshots.size();
+    }
+
+    /**
+     * Keeps snapshots equal to the ledger when a movement is added or removed with a timestamp a run already covered.
+     */
+    @Transactional
+    public void shiftSnapshots(Long productId, Long warehouseId, LocalDateTime createdAt, long delta) {
+        if (delta != 0) {
+            stockSnapshotRepository.shiftFrom(productId, warehouseKey(warehouseId), createdAt, delta);
+        }
+    }
+
+    private static Long warehouseKey(Long warehouseId) {
+        return warehouseId == null ? StockSnapshot.NO_WAREHOUSE : warehouseId;
+    }
+
+    // Latest interval boundary at least the settle lag in the past; every instance computes the same one
+    LocalDateTime dueCutoff(LocalDateTime now) {
+        long step = interval.toSeconds();
+        long seconds = now.minus(settleLag).toEpochSecond(ZoneOffset.UTC);
+        return LocalDateTime.ofEpochSecond(seconds - Math.floorMod(seconds, step), 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,72 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation time for one large cart over {@value #WAREHOUSES} warehouses, per cart size and strategy. Allocating
+ * only reads the rows, so the same cart is allocated on every invocation. Not part of the regular build; run with
+ * {@code mvn test -Dtest=StockAllocationBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class StockAllocationBenchmark {
+    private static final int WAREHOUSES = 12;
+    private static final long PREFERRED_WAREHOUSE_ID = 3L;
+
+    @Param({"100", "1000", "10000"})
+    public int cartSize;
+
+    @Param({MostStockFirstStrategy.NAME, FewestSplitsStrategy.NAME, PreferredWarehouseStrategy.NAME})
+    public String strategy;
+
+    private StockAllocationEngine engine;
+    private AllocationStrategy allocationStrategy;
+    private Map<Long, Integer> cart;
+    private Map<Long, List<Inventory>> rowsByProduct;
+
+    @Setup
+    public void setUp() {
+        engine = new StockAllocationEngine(List.of(new MostStockFirstStrategy(),
+                new FewestSplitsStrategy(), new PreferredWarehouseStrategy()), MostStockFirstStrategy.NAME);
+        allocationStrategy = engine.strategy(strategy);
+        Random random = new Random(cartSize);
+        cart = new HashMap<>();
+        rowsByProduct = new HashMap<>();
+        long id = 0;
+        for (long productId = 1; productId <= cartSize; productId++) {
+            List<Inventory> rows = new ArrayList<>();
+            int total = 0;
+            for (long warehouseId = 1; warehouseId <= WAREHOUSES; warehouseId++) {
+                int stock = random.nextInt(50);
+                total += stock;
+                rows.add(Inventory.builder().id(++id).warehouseId(warehouseId).currentStock(stock).build());
+            }
+            rowsByProduct.put(productId, rows);
+            cart.put(productId, 1 + random.nextInt(Math.max(1, total)));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, List<AllocationLine>> allocate() {
+        return engine.allocate(cart, rowsByProduct, allocationStrategy, PREFERRED_WAREHOUSE_ID);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(StockAllocationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
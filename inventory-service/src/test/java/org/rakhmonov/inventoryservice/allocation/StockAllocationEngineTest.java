@@ -0,0 +1,60 @@
+package org.rakhmonov.inventoryservice.allocation;
+
+import org.junit.jupiter.api.Test;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.exception.InvalidAllocationStrategyException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockAllocationEngineTest {
+
+    private final StockAllocationEngine engine = new StockAllocationEngine(List.of(new MostStockFirstStrategy(),
+            new FewestSplitsStrategy(), new PreferredWarehouseStrategy()), MostStockFirstStrategy.NAME);
+
+    // warehouse 1: 3, warehouse 2: 10, warehouse 3: 6, warehouse 4: 0
+    private final List<Inventory> rows = List.of(row(1L, 3), row(2L, 10), row(3L, 6), row(4L, 0));
+
+    @Test
+    void mostStockFirst_DrainsTheFullestWarehouses() {
+        assertEquals(Map.of(2L, 10, 3L, 2), split(MostStockFirstStrategy.NAME, 12, null));
+    }
+
+    @Test
+    void fewestSplits_UsesTheTightestSingleWarehouseThatCoversTheLine() {
+        assertEquals(Map.of(3L, 5), split(FewestSplitsStrategy.NAME, 5, null));
+        assertEquals(Map.of(1L, 3), split(FewestSplitsStrategy.NAME, 3, null));
+        // 10 from the fullest, then the 2 left from the smallest warehouse holding 2
+        assertEquals(Map.of(2L, 10, 1L, 2), split(FewestSplitsStrategy.NAME, 12, null));
+    }
+
+    @Test
+    void preferredWarehouse_DrawsFromItFirst() {
+        assertEquals(Map.of(1L, 3, 2L, 2), split(PreferredWarehouseStrategy.NAME, 5, 1L));
+        assertEquals(Map.of(2L, 5), split("preferred_warehouse", 5, null));
+    }
+
+    @Test
+    void allocate_ReportsShortLinesAndUnknownStrategies() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> engine.allocate(
+                Map.of(1L, 20, 2L, 1), Map.of(1L, rows), engine.strategy(null), null));
+        assertEquals("Insufficient stock for product 1 (available 19, requested 20), product 2 (available 0, requested 1)",
+                e.getMessage());
+        assertThrows(InvalidAllocationStrategyException.class, () -> engine.strategy("CHEAPEST"));
+    }
+
+    private Map<Long, Integer> split(String strategy, int quantity, Long preferredWarehouseId) {
+        List<AllocationLine> lines = engine.allocate(Map.of(1L, quantity), Map.of(1L, rows),
+                engine.strategy(strategy), preferredWarehouseId).get(1L);
+        assertEquals(quantity, lines.stream().mapToInt(AllocationLine::quantity).sum());
+        rows.forEach(row -> assertTrue(row.getCurrentStock() >= 0));
+        return lines.stream().collect(java.util.stream.Collectors.toMap(
+                line -> line.inventory().getWarehouseId(), AllocationLine::quantity));
+    }
+
+    private static Inventory row(Long warehouseId, int stock) {
+        return Inventory.builder().id(warehouseId * 10).warehouseId(warehouseId).currentStock(stock).build();
+    }
+}
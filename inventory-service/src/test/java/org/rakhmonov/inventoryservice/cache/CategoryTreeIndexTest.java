@@ -0,0 +1,62 @@
+package org.rakhmonov.inventoryservice.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.repo.CategoryRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryTreeIndexTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private CategoryTreeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CategoryTreeIndex(categoryRepository);
+        ReflectionTestUtils.setField(index, "refreshIntervalMs", 60_000L);
+        // 1 -> 2 -> 3 -> 4, 1 -> 5, 6 (separate root)
+        when(categoryRepository.findAllIdAndParentId()).thenReturn(List.of(
+                new Object[]{1L, null},
+                new Object[]{2L, 1L},
+                new Object[]{3L, 2L},
+                new Object[]{4L, 3L},
+                new Object[]{5L, 1L},
+                new Object[]{6L, null}
+        ));
+    }
+
+    @Test
+    void getSelfAndDescendantIds_ReturnsWholeSubtreeFromOneQuery() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), index.getSelfAndDescendantIds(1L).stream().sorted().toList());
+        assertEquals(List.of(3L, 4L), index.getSelfAndDescendantIds(3L).stream().sorted().toList());
+        assertEquals(List.of(6L), index.getSelfAndDescendantIds(6L));
+
+        verify(categoryRepository, times(1)).findAllIdAndParentId();
+    }
+
+    @Test
+    void invalidate_RebuildsOnNextLookup() {
+        assertTrue(index.contains(4L));
+        index.invalidate();
+        assertTrue(index.contains(4L));
+
+        verify(categoryRepository, times(2)).findAllIdAndParentId();
+    }
+
+    @Test
+    void contains_UnknownCategory_ReturnsFalse() {
+        assertFalse(index.contains(99L));
+        assertTrue(index.getSelfAndDescendantIds(99L).isEmpty());
+    }
+}
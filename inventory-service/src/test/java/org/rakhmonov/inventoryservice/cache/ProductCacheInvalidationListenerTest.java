@@ -0,0 +1,60 @@
+package org.rakhmonov.inventoryservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.event.ProductCacheInvalidatedEvent;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.event.ProductsImportedEvent;
+import org.rakhmonov.inventoryservice.kafka.InventoryKafkaProducer;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheInvalidationListenerTest {
+
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private InventoryKafkaProducer inventoryKafkaProducer;
+
+    @InjectMocks
+    private ProductCacheInvalidationListener listener;
+
+    @Test
+    void handleProductChanged_EvictsLocallyAndBroadcastsToOtherReplicas() {
+        listener.handleProductChanged(new ProductChangedEvent(5L));
+
+        verify(productCache).evict(5L);
+        verify(inventoryKafkaProducer).publishProductCacheInvalidated(
+                new ProductCacheInvalidatedEvent(5L, ProductCacheInvalidationListener.INSTANCE_ID, false));
+        verifyNoInteractions(productSearchIndex);
+    }
+
+    @Test
+    void handleProductChanged_Reindex_RefreshesTheSearchIndexToo() {
+        listener.handleProductChanged(new ProductChangedEvent(5L, true));
+
+        verify(productCache).evict(5L);
+        verify(productSearchIndex).reindex(5L);
+        verify(inventoryKafkaProducer).publishProductCacheInvalidated(
+                new ProductCacheInvalidatedEvent(5L, ProductCacheInvalidationListener.INSTANCE_ID, true));
+    }
+
+    @Test
+    void handleProductsImported_IndexesTheChunkAndBroadcastsItOnce() {
+        listener.handleProductsImported(new ProductsImportedEvent(List.of(5L, 6L)));
+
+        verify(productSearchIndex).reindex(List.of(5L, 6L));
+        verify(inventoryKafkaProducer).publishProductCacheInvalidated(new ProductCacheInvalidatedEvent(
+                null, ProductCacheInvalidationListener.INSTANCE_ID, true, List.of(5L, 6L)));
+        verifyNoMoreInteractions(inventoryKafkaProducer);
+    }
+}
@@ -0,0 +1,66 @@
+package org.rakhmonov.inventoryservice.cache;
+
+import org.junit.jupiter.api.Test;
+import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private final ProductCache productCache = new ProductCache(100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_LoadsOnceThenServesTheCachedResponse() {
+        ProductResponse first = productCache.get(1L, this::load);
+        ProductResponse second = productCache.get(1L, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1L, productCache.getStats().get("hitCount"));
+    }
+
+    @Test
+    void evict_NextReadLoadsTheProductAgain() {
+        ProductResponse stale = productCache.get(1L, this::load);
+        productCache.get(2L, this::load);
+
+        productCache.evict(1L);
+
+        assertNotSame(stale, productCache.get(1L, this::load));
+        productCache.get(2L, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evict_NullIdIsIgnored() {
+        productCache.get(1L, this::load);
+
+        productCache.evict(null);
+
+        productCache.get(1L, this::load);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictAll_DropsEveryProduct() {
+        productCache.get(1L, this::load);
+        productCache.get(2L, this::load);
+
+        productCache.evictAll();
+
+        productCache.get(1L, this::load);
+        productCache.get(2L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    private ProductResponse load(Long productId) {
+        loads.incrementAndGet();
+        ProductResponse response = new ProductResponse();
+        response.setId(productId);
+        return response;
+    }
+}
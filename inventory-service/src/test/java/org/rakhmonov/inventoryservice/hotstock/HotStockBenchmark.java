@@ -0,0 +1,100 @@
+package org.rakhmonov.inventoryservice.hotstock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes of one unit of a flash-sale SKU from 8 threads: the striped in-memory counter against the conditional
+ * UPDATE ({@link InventoryRepository#decrementStock}) the database path runs, on an in-memory H2 database, so
+ * the gap is the row lock and statement, not the network. Not part of the regular build; run with
+ * {@code mvn test -Dtest=HotStockBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class HotStockBenchmark {
+    private static final long WAREHOUSE_ID = 1L;
+
+    private ConfigurableApplicationContext context;
+    private InventoryRepository inventoryRepository;
+    private Long productId;
+    private StripedStockCounter counter;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(DatabaseConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:hotstock;DB_CLOSE_DELAY=-1;NON_KEYWORDS=DAY",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.rakhmonov.inventoryservice=WARN");
+        inventoryRepository = context.getBean(InventoryRepository.class);
+        Product product = context.getBean(ProductRepository.class).save(Product.builder()
+                .name("Flash sale item")
+                .sku("FLASH-1")
+                .price(BigDecimal.TEN)
+                .build());
+        productId = product.getId();
+        inventoryRepository.save(Inventory.builder()
+                .product(product)
+                .warehouseId(WAREHOUSE_ID)
+                .currentStock(Integer.MAX_VALUE)
+                .build());
+        counter = new StripedStockCounter(16, Integer.MAX_VALUE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean stripedCounter() {
+        return counter.tryTake(1);
+    }
+
+    @Benchmark
+    public int conditionalUpdate() {
+        // decrementStock is @Transactional: one transaction and row lock per take, like a single-line order
+        return inventoryRepository.decrementStock(productId, WAREHOUSE_ID, 1);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(HotStockBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // JPA only: the entities, the repositories and an embedded data source, none of the service's beans
+    @Configuration
+    @AutoConfigureDataJpa
+    @EntityScan(basePackageClasses = Inventory.class)
+    @EnableJpaRepositories(basePackageClasses = InventoryRepository.class)
+    static class DatabaseConfig {
+    }
+}
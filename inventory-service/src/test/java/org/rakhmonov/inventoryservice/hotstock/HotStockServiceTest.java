@@ -0,0 +1,172 @@
+package org.rakhmonov.inventoryservice.hotstock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.service.StockMovementRollupService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotStockServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StockMovementRollupService stockMovementRollupService;
+    @Mock
+    private ReorderEngine reorderEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private HotStockService hotStockService;
+
+    @BeforeEach
+    void setUp() {
+        hotStockService = new HotStockService(inventoryRepository, stockMovementRepository, productRepository,
+                stockMovementRollupService, reorderEngine, new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher);
+        ReflectionTestUtils.setField(hotStockService, "enabled", true);
+        ReflectionTestUtils.setField(hotStockService, "configuredProductIds", Set.of());
+        ReflectionTestUtils.setField(hotStockService, "stripes", 4);
+        ReflectionTestUtils.setField(hotStockService, "checkpointEvery", 2);
+        ReflectionTestUtils.setField(hotStockService, "instanceId", "node-1");
+        when(inventoryRepository.lockByProductIdIn(anyCollection())).thenReturn(List.of(
+                Inventory.builder().id(10L).product(Product.builder().id(1L).build()).warehouseId(1L).currentStock(20).build(),
+                Inventory.builder().id(11L).product(Product.builder().id(1L).build()).warehouseId(2L).currentStock(5).build()));
+        hotStockService.flag(1L);
+    }
+
+    @Test
+    void flag_MarksTheRowsWithTheInstance() {
+        verify(inventoryRepository).setHotStockOwner(List.of(10L, 11L), "node-1");
+        assertTrue(hotStockService.isHot(1L));
+    }
+
+    @Test
+    void flag_ProductHotOnAnotherInstance_IsRefused() {
+        when(inventoryRepository.lockByProductIdIn(List.of(2L))).thenReturn(List.of(
+                Inventory.builder().id(20L).product(Product.builder().id(2L).build()).warehouseId(1L).currentStock(8)
+                        .hotStockOwner("node-2").build()));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> hotStockService.flag(2L));
+
+        assertEquals("Product 2 is in hot stock mode on node-2", e.getMessage());
+        assertFalse(hotStockService.isHot(2L));
+        verify(inventoryRepository, never()).setHotStockOwner(List.of(20L), "node-1");
+    }
+
+    @Test
+    void requireNotHot_ProductHotOnAnotherInstance_Throws() {
+        when(inventoryRepository.findHotProductIds(List.of(2L, 3L))).thenReturn(List.of(3L));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> hotStockService.requireNotHot(List.of(2L, 3L)));
+
+        assertEquals("Product 3 is in hot stock mode on another instance", e.getMessage());
+    }
+
+    @Test
+    void takeAll_ShortLine_TakesNothing() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> hotStockService.takeAll(Map.of(1L, 6), 2L));
+
+        assertEquals("Insufficient stock for product 1 (available 5, requested 6)", e.getMessage());
+        assertEquals(25, hotStockService.getHotStock().stream().mapToLong(row -> row.getCurrentStock()).sum());
+        assertTrue(hotStockService.takeAll(Map.of(99L, 1), null).isEmpty()); // not hot: left to the database
+    }
+
+    @Test
+    void flush_WritesLedgerEveryTimeAndInventoryOnCheckpoints() {
+        when(stockMovementRepository.save(any(StockMovement.class))).thenAnswer(invocation -> {
+            StockMovement movement = invocation.getArgument(0);
+            movement.setId(movement.getQuantity() == 7 ? 100L : 101L);
+            return movement;
+        });
+
+        List<HotStockService.HotTake> takes = hotStockService.takeAll(Map.of(1L, 7), null);
+        assertEquals(10L, takes.get(0).inventoryId()); // fullest warehouse
+        hotStockService.flush();
+
+        ArgumentCaptor<StockMovement> movement = ArgumentCaptor.forClass(StockMovement.class);
+        verify(stockMovementRepository).save(movement.capture());
+        assertEquals(StockMovement.MovementType.OUT, movement.getValue().getMovementType());
+        assertEquals(20, movement.getValue().getStockBefore());
+        assertEquals(13, movement.getValue().getStockAfter());
+        assertEquals(HotStockService.REFERENCE_TYPE, movement.getValue().getReferenceType());
+        verify(stockMovementRollupService).record(movement.getValue(), 1);
+        verify(inventoryRepository, never()).applyHotStockCheckpoint(any(), anyInt(), any());
+
+        assertTrue(hotStockService.add(1L, null, 2)); // emptiest warehouse: 2
+        hotStockService.flush();
+
+        // checkpoint: the whole ledger tail folded in, watermark = last movement written for the row
+        verify(inventoryRepository).applyHotStockCheckpoint(10L, -7, 100L);
+        verify(inventoryRepository).applyHotStockCheckpoint(11L, 2, 101L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+        assertEquals(0, hotStockService.getHotStock().stream().mapToLong(row -> row.getUnflushedDelta()).sum());
+    }
+
+    @Test
+    void unflag_WritesBackAndReturnsTheProductToTheDatabase() {
+        when(stockMovementRepository.save(any(StockMovement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        hotStockService.takeAll(Map.of(1L, 3), 1L);
+
+        hotStockService.unflag(1L);
+
+        verify(inventoryRepository).applyHotStockCheckpoint(eq(10L), eq(-3), any());
+        verify(inventoryRepository).setHotStockOwner(List.of(10L, 11L), null);
+        assertFalse(hotStockService.isHot(1L));
+        assertFalse(hotStockService.add(1L, null, 1));
+    }
+
+    @Test
+    void unflag_FailedWriteBack_KeepsTheProductHotWithItsStock() {
+        when(stockMovementRepository.save(any(StockMovement.class))).thenThrow(new RuntimeException("database down"));
+        hotStockService.takeAll(Map.of(1L, 3), 1L);
+
+        assertThrows(RuntimeException.class, () -> hotStockService.unflag(1L));
+
+        assertTrue(hotStockService.isHot(1L));
+        assertThrows(RuntimeException.class, () -> hotStockService.requireNotHot(List.of(2L, 1L)));
+        assertEquals(22, hotStockService.getHotStock().stream().mapToLong(row -> row.getCurrentStock()).sum());
+        assertEquals(1, hotStockService.takeAll(Map.of(1L, 17), 1L).size());
+    }
+
+    @Test
+    void giveBack_AfterUnflag_ReturnsTheStockToTheRow() {
+        when(stockMovementRepository.save(any(StockMovement.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        HotStockService.HotTake take = hotStockService.takeAll(Map.of(1L, 3), 1L).get(0);
+        hotStockService.unflag(1L);
+
+        hotStockService.giveBack(take); // e.g. the order's transaction rolled back after the final write-back
+
+        verify(inventoryRepository).returnHotStock(10L, 3);
+        assertDoesNotThrow(() -> hotStockService.requireNotHot(List.of(1L)));
+    }
+
+}
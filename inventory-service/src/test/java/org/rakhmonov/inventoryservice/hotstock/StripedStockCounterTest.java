@@ -0,0 +1,109 @@
+package org.rakhmonov.inventoryservice.hotstock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedStockCounterTest {
+
+    @Test
+    void tryTake_ConcurrentTakers_NeverGoBelowZero() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8, 10_000);
+        AtomicLong sold = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            int quantity = t % 4 + 1;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 2_000; i++) {
+                    if (counter.tryTake(quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                    if (i % 100 == 0) {
+                        counter.add(1); // returns trickle in while the sale runs
+                        sold.addAndGet(-1);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertTrue(counter.sum() >= 0);
+        assertEquals(10_000, sold.get() + counter.sum());
+        // whatever is left cannot cover the largest order size from any combination of stripes
+        assertTrue(counter.sum() < 4, "left over: " + counter.sum());
+    }
+
+    @Test
+    void tryTake_StockSpreadOverStripes_GathersOrTakesNothing() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10); // 3, 3, 2, 2
+
+        assertTrue(counter.tryTake(9));
+        assertEquals(1, counter.sum());
+        assertFalse(counter.tryTake(2));
+        assertEquals(1, counter.sum());
+        assertThrows(IllegalArgumentException.class, () -> new StripedStockCounter(3, 1));
+    }
+
+    @Test
+    void close_StopsTakesAndAddsUntilReopened() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+        assertTrue(counter.tryTake(4));
+
+        assertEquals(6, counter.close());
+        assertTrue(counter.isClosed());
+        assertFalse(counter.tryTake(1));
+        assertFalse(counter.add(1));
+        assertEquals(0, counter.sum());
+        assertThrows(IllegalStateException.class, counter::close);
+
+        counter.reopen(6);
+        assertTrue(counter.add(1));
+        assertTrue(counter.tryTake(7));
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    void close_ConcurrentTakesAndAdds_EachCountedOnceOrRefused() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8, 100_000);
+        AtomicLong net = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    if (counter.tryTake(3)) {
+                        net.addAndGet(-3);
+                    }
+                    if (counter.add(1)) {
+                        net.addAndGet(1);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        Thread.sleep(5);
+        long closed = counter.close();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(100_000 + net.get(), closed);
+    }
+}
@@ -0,0 +1,122 @@
+package org.rakhmonov.inventoryservice.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageResponseWriterTest {
+
+    private static final String ETAG = "\"" + "a".repeat(64) + "\"";
+
+    @TempDir
+    Path dir;
+
+    private final ImageResponseWriter writer = new ImageResponseWriter();
+    private byte[] content;
+    private ResolvedImage image;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        image = new ResolvedImage(Files.write(dir.resolve("a".repeat(64) + ".png"), content), ETAG, true, false);
+    }
+
+    @Test
+    void write_FullResponse_SendsBodyWithImmutableCaching() throws Exception {
+        MockHttpServletResponse response = write(request());
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(ImageResponseWriter.IMMUTABLE, response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void write_MatchingIfNoneMatch_Returns304WithoutBody() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG);
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void write_SingleRange_Returns206WithThatSlice() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void write_SuffixRangeAndStaleIfRange() throws Exception {
+        MockHttpServletRequest suffix = request();
+        suffix.addHeader(HttpHeaders.RANGE, "bytes=-10");
+        assertEquals("bytes 990-999/1000", write(suffix).getHeader(HttpHeaders.CONTENT_RANGE));
+
+        MockHttpServletRequest stale = request();
+        stale.addHeader(HttpHeaders.RANGE, "bytes=0-9");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"old\"");
+        MockHttpServletResponse response = write(stale);
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void write_RangePastTheEnd_Returns416() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=5000-");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void write_SendfileSupported_HandsLargeFilesToTheConnector() throws Exception {
+        Path large = Files.write(dir.resolve("large.png"), new byte[64 * 1024]);
+        MockHttpServletRequest request = request();
+        request.setAttribute(ImageResponseWriter.SENDFILE_SUPPORTED, Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        writer.write(new ResolvedImage(large, "\"1\"", false, true), request, response);
+
+        assertEquals(large.toAbsolutePath().toString(), request.getAttribute(ImageResponseWriter.SENDFILE_FILENAME));
+        assertEquals(64L * 1024, request.getAttribute(ImageResponseWriter.SENDFILE_END));
+        assertEquals(0, response.getContentAsByteArray().length);
+        // fallback originals must not be cached as if they were the variant
+        assertEquals(ImageResponseWriter.SHORT_LIVED, response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(image, request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/images/a.png");
+    }
+}
@@ -0,0 +1,169 @@
+package org.rakhmonov.inventoryservice.image;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A 256KB image served by an embedded Tomcat over loopback: the previous /uploads resource handler, which copies
+ * the file through the response stream, against {@link ImageResponseWriter}, which hands it to sendfile (the NIO
+ * connector supports it). Full GETs, revalidations and 64KB ranges; each benchmark returns the status it got.
+ * Not part of the regular build; run with {@code mvn test -Dtest=ImageServingBenchmark -Dbenchmark=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ImageServingBenchmark {
+    private static final String RANGE = "bytes=65536-131071";
+
+    private Path baseDir;
+    private Tomcat tomcat;
+    private HttpClient client;
+    private URI resourceHandlerUri;
+    private URI imageWriterUri;
+    private String etag;
+    private String lastModified;
+
+    @Setup
+    public void setUp() throws Exception {
+        baseDir = Files.createTempDirectory("image-serving-benchmark");
+        Path uploadDir = Files.createDirectory(baseDir.resolve("uploads"));
+        byte[] content = new byte[256 * 1024];
+        new Random(42).nextBytes(content);
+        String fileName = "b".repeat(64) + ".jpg";
+        Path file = Files.write(uploadDir.resolve(fileName), content);
+        etag = "\"" + "b".repeat(64) + "\"";
+        ResolvedImage image = new ResolvedImage(file, etag, true, false);
+
+        // configured the way WebConfig registers /uploads/**
+        ResourceHttpRequestHandler resourceHandler = new ResourceHttpRequestHandler();
+        resourceHandler.setLocations(List.of(new FileSystemResource(uploadDir.toAbsolutePath() + "/")));
+        resourceHandler.setServletContext(new MockServletContext());
+        resourceHandler.afterPropertiesSet();
+        ImageResponseWriter writer = new ImageResponseWriter();
+
+        tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+        tomcat.getConnector();
+        Context context = tomcat.addContext("", null);
+        Tomcat.addServlet(context, "uploads", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                try {
+                    request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+                            request.getPathInfo().substring(1));
+                    resourceHandler.handleRequest(request, response);
+                } catch (ServletException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        context.addServletMappingDecoded("/uploads/*", "uploads");
+        Tomcat.addServlet(context, "images", new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                writer.write(image, request, response);
+            }
+        });
+        context.addServletMappingDecoded("/api/images/*", "images");
+        tomcat.start();
+
+        String base = "http://localhost:" + tomcat.getConnector().getLocalPort();
+        resourceHandlerUri = URI.create(base + "/uploads/" + fileName);
+        imageWriterUri = URI.create(base + "/api/images/" + fileName);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        lastModified = client.send(HttpRequest.newBuilder(resourceHandlerUri).build(), HttpResponse.BodyHandlers.discarding())
+                .headers().firstValue(HttpHeaders.LAST_MODIFIED).orElseThrow();
+        // both sides must answer every scenario the same way, or the numbers compare different work
+        expect(200, resourceHandlerFullGet(), imageWriterFullGet());
+        expect(304, resourceHandlerRevalidation(), imageWriterRevalidation());
+        expect(206, resourceHandlerRange(), imageWriterRange());
+    }
+
+    @TearDown
+    public void tearDown() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+        FileSystemUtils.deleteRecursively(baseDir.toFile());
+    }
+
+    @Benchmark
+    public int resourceHandlerFullGet() throws Exception {
+        return send(HttpRequest.newBuilder(resourceHandlerUri));
+    }
+
+    @Benchmark
+    public int imageWriterFullGet() throws Exception {
+        return send(HttpRequest.newBuilder(imageWriterUri));
+    }
+
+    @Benchmark
+    public int resourceHandlerRevalidation() throws Exception {
+        return send(HttpRequest.newBuilder(resourceHandlerUri).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified));
+    }
+
+    @Benchmark
+    public int imageWriterRevalidation() throws Exception {
+        return send(HttpRequest.newBuilder(imageWriterUri).header(HttpHeaders.IF_NONE_MATCH, etag));
+    }
+
+    @Benchmark
+    public int resourceHandlerRange() throws Exception {
+        return send(HttpRequest.newBuilder(resourceHandlerUri).header(HttpHeaders.RANGE, RANGE));
+    }
+
+    @Benchmark
+    public int imageWriterRange() throws Exception {
+        return send(HttpRequest.newBuilder(imageWriterUri).header(HttpHeaders.RANGE, RANGE));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder().include(ImageServingBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    // the body is read off the socket and dropped, so the client does the same work for both handlers
+    private int send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void expect(int status, int resourceHandlerStatus, int imageWriterStatus) {
+        if (resourceHandlerStatus != status || imageWriterStatus != status) {
+            throw new IllegalStateException("Expected " + status + " from both handlers, got "
+                    + resourceHandlerStatus + " and " + imageWriterStatus);
+        }
+    }
+}
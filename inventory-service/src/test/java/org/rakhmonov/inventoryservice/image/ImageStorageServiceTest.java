@@ -0,0 +1,150 @@
+package org.rakhmonov.inventoryservice.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageStorageServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+
+    @TempDir
+    Path uploadDir;
+
+    private ExecutorService executor;
+    private ImageStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        storage = new ImageStorageService(productRepository, productVariantRepository, uploadDir, executor);
+    }
+
+    @Test
+    void store_SameContentTwice_SharesOneFileAndGeneratesVariants() throws Exception {
+        byte[] png = png(800, 600);
+
+        String first = storage.store(new MockMultipartFile("image", "front.PNG", "image/png", png));
+        String second = storage.store(new MockMultipartFile("image", "copy.png", "image/png", png));
+        awaitBackgroundWork();
+
+        assertEquals(first, second);
+        assertTrue(first.matches("/uploads/[0-9a-f]{64}\\.png"));
+        String fileName = ImageStorageService.localFileName(first);
+        try (var files = Files.list(uploadDir)) {
+            assertEquals(4, files.count()); // original + thumbnail, list and detail
+        }
+
+        BufferedImage thumbnail = ImageIO.read(storage.resolve(fileName, ImageSize.THUMBNAIL).path().toFile());
+        assertEquals(150, thumbnail.getWidth());
+        assertEquals(113, thumbnail.getHeight());
+        // never upscaled past the original
+        BufferedImage detail = ImageIO.read(storage.resolve(fileName, ImageSize.DETAIL).path().toFile());
+        assertEquals(800, detail.getWidth());
+        ResolvedImage original = storage.resolve(fileName, ImageSize.ORIGINAL);
+        assertEquals(uploadDir.resolve(fileName), original.path());
+        assertEquals("\"" + fileName.substring(0, 64) + "\"", original.etag());
+        assertTrue(original.immutable());
+    }
+
+    @Test
+    void resolve_MissingVariant_FallsBackToOriginalWithoutImmutableCaching() throws Exception {
+        Path legacy = Files.write(uploadDir.resolve("legacy.png"), png(10, 10));
+
+        ResolvedImage image = storage.resolve("legacy.png", ImageSize.LIST);
+        awaitBackgroundWork();
+
+        assertEquals(legacy, image.path());
+        assertTrue(image.fallback());
+        assertFalse(image.immutable());
+        assertTrue(Files.exists(uploadDir.resolve("legacy-list.png")));
+    }
+
+    @Test
+    void resolve_RejectsUnknownAndUnsafeNames() throws Exception {
+        assertNull(storage.resolve("missing.png", ImageSize.LIST));
+        assertNull(storage.resolve("../secret.png", ImageSize.ORIGINAL));
+        assertNull(ImageStorageService.localFileName("https://cdn.example.com/a.png"));
+    }
+
+    @Test
+    void release_DeletesOnlyUnreferencedImages() throws Exception {
+        String kept = storage.store(new MockMultipartFile("image", "a.png", "image/png", png(20, 20)));
+        String dropped = storage.store(new MockMultipartFile("image", "b.png", "image/png", png(30, 30)));
+        when(productRepository.countByImageUrl(kept)).thenReturn(1L);
+        when(productRepository.countByImageUrl(dropped)).thenReturn(0L);
+        when(productVariantRepository.countByImageUrl(dropped)).thenReturn(0L);
+
+        storage.release(kept);
+        storage.release(dropped);
+        awaitBackgroundWork();
+
+        assertTrue(Files.exists(uploadDir.resolve(ImageStorageService.localFileName(kept))));
+        try (var files = Files.list(uploadDir)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString()
+                    .startsWith(ImageStorageService.localFileName(dropped).replace(".png", ""))));
+        }
+    }
+
+    @Test
+    void deleteIfUnreferenced_ReuseNotYetCommitted_KeepsTheFile() throws Exception {
+        byte[] png = png(20, 20);
+        String url = storage.store(new MockMultipartFile("image", "a.png", "image/png", png));
+        String fileName = ImageStorageService.localFileName(url);
+        when(productRepository.countByImageUrl(url)).thenReturn(0L);
+        when(productVariantRepository.countByImageUrl(url)).thenReturn(0L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // another product reuses the file; its row is not committed while the last old reference goes away
+            assertEquals(url, storage.store(new MockMultipartFile("image", "copy.png", "image/png", png)));
+            storage.deleteIfUnreferenced(fileName);
+            assertTrue(Files.exists(uploadDir.resolve(fileName)));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        storage.deleteIfUnreferenced(fileName);
+
+        assertFalse(Files.exists(uploadDir.resolve(fileName)));
+    }
+
+    private void awaitBackgroundWork() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width == 20 ? 0xFF0000FF : 0xFF00FF00);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package org.rakhmonov.inventoryservice.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.rakhmonov.events.InventoryDecreasedEvent;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.rakhmonov.events.OrderItem;
+import org.rakhmonov.inventoryservice.service.InventoryService;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class InventoryKafkaConsumerTest {
+
+    private final InventoryService inventoryService = mock(InventoryService.class);
+    private final InventoryKafkaProducer inventoryKafkaProducer = mock(InventoryKafkaProducer.class);
+    private final KeyedOrderedExecutor executor = new KeyedOrderedExecutor(4);
+    private final InventoryKafkaConsumer consumer =
+            new InventoryKafkaConsumer(inventoryService, inventoryKafkaProducer, executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void orderGroups_OrdersSharingLanesStayTogetherInArrivalOrder() {
+        // four lanes, product id modulo 4: 0 and 2 share lane 1 (products 1 and 5), 2 and 3 share lane 2 (6 and 10)
+        List<Map<Long, Integer>> orders = List.of(
+                Map.of(1L, 1),
+                Map.of(3L, 1),
+                Map.of(5L, 2, 6L, 1),
+                Map.of(10L, 3),
+                Map.of(7L, 1));
+
+        List<InventoryKafkaConsumer.OrderGroup> groups = InventoryKafkaConsumer.orderGroups(orders, executor);
+
+        assertEquals(List.of(
+                new InventoryKafkaConsumer.OrderGroup(new TreeSet<>(Set.of(1, 2)), List.of(0, 2, 3)),
+                new InventoryKafkaConsumer.OrderGroup(new TreeSet<>(Set.of(3)), List.of(1, 4))), groups);
+    }
+
+    @Test
+    void handleOrderCreatedBatch_EachLaneTakesItsOrdersInOneCall_AndResultsKeepTheBatchOrder() {
+        when(inventoryService.decreaseStockForOrders(anyList())).thenAnswer(invocation -> {
+            List<InventoryService.OrderStockRequest> orders = invocation.getArgument(0);
+            return orders.stream()
+                    .map(order -> order.productQuantities().containsKey(2L)
+                            ? new InventoryService.OrderStockResult(false, "Insufficient stock")
+                            : new InventoryService.OrderStockResult(true, null))
+                    .toList();
+        });
+
+        consumer.handleOrderCreatedBatch(List.of(
+                order("ORD-1", 1L), order("ORD-2", 2L), order("ORD-3", 1L), order("ORD-4", 3L)));
+
+        verify(inventoryService).decreaseStockForOrders(List.of(request("ORD-1", 1L), request("ORD-3", 1L)));
+        verify(inventoryService).decreaseStockForOrders(List.of(request("ORD-2", 2L)));
+        verify(inventoryService).decreaseStockForOrders(List.of(request("ORD-4", 3L)));
+        ArgumentCaptor<InventoryDecreasedEvent> results = ArgumentCaptor.forClass(InventoryDecreasedEvent.class);
+        verify(inventoryKafkaProducer, times(4)).publishInventoryDecreasedAsync(results.capture());
+        assertEquals(List.of("ORD-1", "ORD-2", "ORD-3", "ORD-4"),
+                results.getAllValues().stream().map(InventoryDecreasedEvent::getOrderNumber).toList());
+        assertEquals(Arrays.asList(true, false, true, true),
+                results.getAllValues().stream().map(InventoryDecreasedEvent::getSuccess).toList());
+    }
+
+    @Test
+    void handleOrderCreated_RedeliveredOrder_PublishesItsRecordedResultAgain() {
+        when(inventoryService.decreaseStockForOrders(List.of(request("ORD-1", 1L))))
+                .thenReturn(List.of(new InventoryService.OrderStockResult(false, "Insufficient stock")));
+
+        consumer.handleOrderCreated(order("ORD-1", 1L));
+        consumer.handleOrderCreated(order("ORD-1", 1L));
+
+        verify(inventoryService, never()).decreaseStockForOrder(anyString(), anyMap());
+        ArgumentCaptor<InventoryDecreasedEvent> results = ArgumentCaptor.forClass(InventoryDecreasedEvent.class);
+        verify(inventoryKafkaProducer, times(2)).publishInventoryDecreased(results.capture());
+        results.getAllValues().forEach(result -> {
+            assertFalse(result.getSuccess());
+            assertEquals("Failed to decrease inventory: Insufficient stock", result.getMessage());
+        });
+    }
+
+    private static InventoryService.OrderStockRequest request(String orderNumber, long productId) {
+        return new InventoryService.OrderStockRequest(orderNumber, Map.of(productId, 1));
+    }
+
+    private static OrderCreatedEvent order(String orderNumber, long productId) {
+        return new OrderCreatedEvent(orderNumber, List.of(new OrderItem(productId, 1)));
+    }
+}
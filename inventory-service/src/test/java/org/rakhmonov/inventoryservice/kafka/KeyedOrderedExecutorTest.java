@@ -0,0 +1,176 @@
+package org.rakhmonov.inventoryservice.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedOrderedExecutorTest {
+
+    private final KeyedOrderedExecutor executor = new KeyedOrderedExecutor(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_SameKey_RunsInSubmissionOrder() {
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int task = i;
+            futures.add(executor.submit(42L, () -> seen.add(task)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(i, seen.get(i));
+        }
+    }
+
+    @Test
+    void submit_KeysOnOtherLanes_DoNotWaitForABlockedLane() throws Exception {
+        assertNotEquals(executor.lane(1L), executor.lane(2L));
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocked = executor.submit(1L, () -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals("done", executor.submit(2L, () -> "done").get(5, TimeUnit.SECONDS));
+        assertFalse(blocked.isDone());
+        release.countDown();
+        assertTrue(blocked.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void submitToLanes_WaitsForEveryLane_AndHoldsThemWhileRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocked = executor.submitToLane(2, () -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        List<String> seen = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> both = executor.submitToLanes(new TreeSet<>(Set.of(1, 2)), () -> seen.add("both"));
+        CompletableFuture<Boolean> after = executor.submitToLane(1, () -> seen.add("after"));
+
+        assertEquals("other", executor.submitToLane(3, () -> "other").get(5, TimeUnit.SECONDS));
+        // lane 1 is held for the two-lane task, which waits for lane 2
+        assertFalse(after.isDone());
+        release.countDown();
+        CompletableFuture.allOf(blocked, both, after).get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("both", "after"), seen);
+    }
+
+    @Test
+    void submit_ManyKeysFromManyThreads_NeverRunsAKeyTwiceAtOnce() throws Exception {
+        KeyedOrderedExecutor lanes = new KeyedOrderedExecutor(8);
+        AtomicBoolean[] busy = new AtomicBoolean[32];
+        for (int key = 0; key < busy.length; key++) {
+            busy[key] = new AtomicBoolean();
+        }
+        AtomicBoolean overlapped = new AtomicBoolean();
+        ExecutorService submitters = Executors.newFixedThreadPool(6);
+        List<Future<CompletableFuture<Boolean>>> submitted = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Random random = new Random(i);
+            Set<Long> keys = new TreeSet<>();
+            for (int k = 0, count = 1 + random.nextInt(4); k < count; k++) {
+                keys.add((long) random.nextInt(busy.length));
+            }
+            submitted.add(submitters.submit(() -> lanes.submit(keys, () -> {
+                keys.forEach(key -> overlapped.compareAndSet(false, !busy[key.intValue()].compareAndSet(false, true)));
+                keys.forEach(key -> busy[key.intValue()].set(false));
+                return true;
+            })));
+        }
+        for (Future<CompletableFuture<Boolean>> future : submitted) {
+            assertTrue(future.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS));
+        }
+        submitters.shutdown();
+        lanes.shutdown();
+
+        assertFalse(overlapped.get());
+    }
+
+    @Test
+    void submitToLanes_AfterShutdown_FailsWithoutBlockingTheLanes() {
+        executor.shutdown();
+
+        assertThrows(Exception.class, () -> executor.submitToLanes(new TreeSet<>(Set.of(0, 1)), () -> "late").join());
+    }
+
+    @Test
+    void shutdown_WaitsForQueuedTasks() {
+        KeyedOrderedExecutor lanes = new KeyedOrderedExecutor(2);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            int task = i;
+            lanes.submit(task, () -> {
+                sleep(10);
+                return seen.add(task);
+            });
+        }
+
+        lanes.shutdown();
+
+        assertEquals(20, seen.size());
+    }
+
+    @Test
+    void shutdown_InterruptsLanesStillBusyAfterTheTimeout() throws Exception {
+        KeyedOrderedExecutor lanes = new KeyedOrderedExecutor(1, Duration.ofMillis(100));
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch started = new CountDownLatch(1);
+        lanes.submit(1L, () -> {
+            started.countDown();
+            try {
+                return new CountDownLatch(1).await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        lanes.shutdown();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10));
+        assertThrows(Exception.class, () -> lanes.submit(2L, () -> "late").join());
+        for (int i = 0; i < 50 && !interrupted.get(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(interrupted.get());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
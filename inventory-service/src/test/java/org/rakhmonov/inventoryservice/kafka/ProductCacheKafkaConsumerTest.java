@@ -0,0 +1,89 @@
+package org.rakhmonov.inventoryservice.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.cache.ProductCache;
+import org.rakhmonov.inventoryservice.cache.ProductCacheInvalidationListener;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheKafkaConsumerTest {
+
+    @Mock
+    private ProductCache productCache;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @InjectMocks
+    private ProductCacheKafkaConsumer consumer;
+
+    @Test
+    void handleProductCacheInvalidated_FromAnotherReplica_EvictsTheProduct() {
+        // JSON numbers arrive as Integer or Long depending on their size
+        consumer.handleProductCacheInvalidated(event(7, "other-replica", null));
+
+        verify(productCache).evict(7L);
+        verifyNoInteractions(productSearchIndex);
+    }
+
+    @Test
+    void handleProductCacheInvalidated_Reindex_RefreshesTheSearchIndex() {
+        consumer.handleProductCacheInvalidated(event(7L, "other-replica", true));
+
+        verify(productCache).evict(7L);
+        verify(productSearchIndex).reindex(7L);
+    }
+
+    @Test
+    void handleProductCacheInvalidated_ImportChunk_IndexesAllItsProductsAtOnce() {
+        Map<String, Object> event = event(null, "other-replica", true);
+        event.put("productIds", List.of(7, 8L));
+
+        consumer.handleProductCacheInvalidated(event);
+
+        verify(productSearchIndex).reindex(List.of(7L, 8L));
+        verify(productCache).evict(8L);
+    }
+
+    @Test
+    void handleProductCacheInvalidated_OwnEvent_IsSkipped() {
+        consumer.handleProductCacheInvalidated(event(7L, ProductCacheInvalidationListener.INSTANCE_ID, true));
+
+        verifyNoInteractions(productCache, productSearchIndex);
+    }
+
+    @Test
+    void handleProductCacheInvalidated_WithoutProductId_IsIgnored() {
+        consumer.handleProductCacheInvalidated(event(null, "other-replica", true));
+
+        verifyNoInteractions(productCache, productSearchIndex);
+    }
+
+    @Test
+    void handleProductCacheInvalidated_EvictionFails_DoesNotFailTheListener() {
+        doThrow(new IllegalStateException("boom")).when(productCache).evict(any());
+
+        assertDoesNotThrow(() -> consumer.handleProductCacheInvalidated(event(7L, "other-replica", false)));
+    }
+
+    private static Map<String, Object> event(Number productId, String sourceInstanceId, Boolean reindex) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("productId", productId);
+        event.put("sourceInstanceId", sourceInstanceId);
+        if (reindex != null) {
+            event.put("reindex", reindex);
+        }
+        return event;
+    }
+}
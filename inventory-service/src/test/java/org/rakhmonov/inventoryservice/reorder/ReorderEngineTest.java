@@ -0,0 +1,150 @@
+package org.rakhmonov.inventoryservice.reorder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.events.paging.InvalidCursorException;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.InventoryResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Inventory.StockState;
+import org.rakhmonov.inventoryservice.event.ReorderNeededEvent;
+import org.rakhmonov.inventoryservice.kafka.InventoryKafkaProducer;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReorderEngineTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private InventoryKafkaProducer inventoryKafkaProducer;
+
+    private ReorderEngine reorderEngine;
+
+    @BeforeEach
+    void setUp() {
+        reorderEngine = new ReorderEngine(inventoryRepository, inventoryKafkaProducer,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evaluate_AlertsOncePerState_EscalatesAndReArms() {
+        when(inventoryRepository.findReorderRows(anyCollection())).thenReturn(List.of(
+                row(10L, 1L, 4, 5, null),                    // newly low
+                row(11L, 2L, 3, 5, StockState.LOW_STOCK),    // still low, already alerted
+                row(12L, 3L, 0, 5, StockState.LOW_STOCK),    // ran out after a low alert
+                row(13L, 4L, 9, 5, StockState.OUT_OF_STOCK), // restocked
+                row(14L, 5L, 0, 5, null)));                  // claimed by another transaction first
+        when(inventoryRepository.claimReorderAlert(eq(10L), eq(StockState.LOW_STOCK), anyCollection())).thenReturn(1);
+        when(inventoryRepository.claimReorderAlert(eq(12L), eq(StockState.OUT_OF_STOCK), anyCollection())).thenReturn(1);
+        when(inventoryRepository.claimReorderAlert(eq(14L), eq(StockState.OUT_OF_STOCK), anyCollection())).thenReturn(0);
+
+        List<ReorderNeededEvent> alerts = reorderEngine.evaluate(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(List.of(10L, 12L), alerts.stream().map(ReorderNeededEvent::getInventoryId).toList());
+        assertEquals(List.of("LOW_STOCK", "OUT_OF_STOCK"), alerts.stream().map(ReorderNeededEvent::getStockStatus).toList());
+        verify(inventoryRepository, never()).claimReorderAlert(eq(11L), any(), anyCollection());
+        verify(inventoryRepository).claimReorderAlert(12L, StockState.OUT_OF_STOCK, List.of(StockState.IN_STOCK, StockState.LOW_STOCK));
+        verify(inventoryRepository).clearReorderAlerts(List.of(13L));
+    }
+
+    @Test
+    void getReorderSet_PagesWithAnOpaqueIdCursor() {
+        when(inventoryRepository.findByStockStateIn(eq(List.of(StockState.LOW_STOCK)), eq(7L), eq(0L), any()))
+                .thenReturn(List.of(inventory(10L), inventory(12L), inventory(15L)));
+        when(inventoryRepository.findByStockStateIn(eq(List.of(StockState.LOW_STOCK)), eq(7L), eq(12L), any()))
+                .thenReturn(List.of(inventory(15L)));
+
+        CursorPageResponse<InventoryResponse> first = reorderEngine.getReorderSet(StockState.LOW_STOCK, 7L, null, 2);
+        CursorPageResponse<InventoryResponse> second =
+                reorderEngine.getReorderSet(StockState.LOW_STOCK, 7L, first.getNextCursor(), 2);
+
+        assertEquals(List.of(10L, 12L), first.getContent().stream().map(InventoryResponse::getId).toList());
+        assertTrue(first.isHasNext());
+        assertEquals(CursorCodec.encodeId(12L), first.getNextCursor());
+        assertEquals(List.of(15L), second.getContent().stream().map(InventoryResponse::getId).toList());
+        assertFalse(second.isHasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getReorderSet_RawOrTamperedCursor_IsRejected() {
+        String cursor = CursorCodec.encodeId(12L);
+        String tampered = (cursor.charAt(0) == 'A' ? "B" : "A") + cursor.substring(1);
+
+        assertThrows(InvalidCursorException.class, () -> reorderEngine.getReorderSet(null, null, "12", 20));
+        assertThrows(InvalidCursorException.class, () -> reorderEngine.getReorderSet(null, null, tampered, 20));
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    void stockChanged_InTransaction_EvaluatesOnceBeforeCommitAndPublishesAfter() {
+        TransactionSynchronizationManager.initSynchronization();
+        when(inventoryRepository.findReorderRows(anyCollection())).thenReturn(List.<Object[]>of(row(10L, 1L, 2, 5, null)));
+        when(inventoryRepository.claimReorderAlert(eq(10L), eq(StockState.LOW_STOCK), anyCollection())).thenReturn(1);
+
+        reorderEngine.stockChanged(2L);
+        reorderEngine.stockChanged(List.of(1L, 2L));
+        verifyNoInteractions(inventoryRepository);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        verify(inventoryKafkaProducer, never()).publishReorderNeeded(any());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> productIds = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryRepository).findReorderRows(productIds.capture());
+        assertEquals(Set.of(1L, 2L), Set.copyOf(productIds.getValue()));
+        verify(inventoryKafkaProducer).publishReorderNeeded(argThat(event -> event.getInventoryId() == 10L));
+        assertFalse(TransactionSynchronizationManager.hasResource(reorderEngine));
+    }
+
+    @Test
+    void stockChanged_RolledBack_PublishesNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        reorderEngine.stockChanged(1L);
+        new ArrayList<>(TransactionSynchronizationManager.getSynchronizations())
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(inventoryRepository, inventoryKafkaProducer);
+        assertFalse(TransactionSynchronizationManager.hasResource(reorderEngine));
+    }
+
+    private static Object[] row(Long id, Long productId, int currentStock, int reorderPoint, StockState alerted) {
+        return new Object[]{id, productId, 1L, currentStock, reorderPoint, alerted};
+    }
+
+    private static Inventory inventory(Long id) {
+        return Inventory.builder().id(id).warehouseId(7L).currentStock(1).reorderPoint(5).build();
+    }
+}
@@ -0,0 +1,133 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not in a test transaction: every decrementStock call commits on its own, like concurrent orders do
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryRepositoryTest {
+    private static final long WAREHOUSE_ID = 7L;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        productId = productRepository.save(Product.builder().name("Flash sale item").price(BigDecimal.TEN).build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inventoryRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void decrementStock_ConcurrentOrdersForOneSku_NeverOversell() throws Exception {
+        int initialStock = 500;
+        inventoryRepository.save(Inventory.builder()
+                .product(productRepository.getReferenceById(productId))
+                .warehouseId(WAREHOUSE_ID)
+                .currentStock(initialStock)
+                .build());
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int quantity = t % 3 + 1;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 60; i++) {
+                    if (inventoryRepository.decrementStock(productId, WAREHOUSE_ID, quantity) == 1) {
+                        sold.addAndGet(quantity);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        int left = inventoryRepository.findCurrentStock(productId, WAREHOUSE_ID).orElseThrow();
+        assertEquals(initialStock, sold.get() + left);
+        assertTrue(left >= 0);
+        assertTrue(left < 3, "stock left over while orders were rejected: " + left);
+        assertTrue(rejected.get() > 0);
+    }
+
+    @Test
+    void decrementStock_NotEnoughStock_ChangesNothing() {
+        inventoryRepository.save(Inventory.builder()
+                .product(productRepository.getReferenceById(productId))
+                .warehouseId(WAREHOUSE_ID)
+                .currentStock(4)
+                .reorderPoint(10)
+                .build());
+
+        assertEquals(0, inventoryRepository.decrementStock(productId, WAREHOUSE_ID, 5));
+        assertEquals(0, inventoryRepository.decrementStock(productId, 99L, 1));
+        assertEquals(1, inventoryRepository.decrementStock(productId, WAREHOUSE_ID, 4));
+
+        Inventory inventory = inventoryRepository.findByProductIdAndWarehouseId(productId, WAREHOUSE_ID).orElseThrow();
+        assertEquals(0, inventory.getCurrentStock());
+        assertEquals(Inventory.StockState.OUT_OF_STOCK, inventory.getStockState());
+    }
+
+    @Test
+    void conditionalUpdates_HotRow_LeftAloneUntilReleased() {
+        Inventory saved = inventoryRepository.save(Inventory.builder()
+                .product(productRepository.getReferenceById(productId))
+                .warehouseId(WAREHOUSE_ID)
+                .currentStock(10)
+                .build());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> inventoryRepository.setHotStockOwner(List.of(saved.getId()), "node-2"));
+
+        assertEquals(0, inventoryRepository.decrementStock(productId, WAREHOUSE_ID, 1));
+        assertEquals(0, inventoryRepository.incrementStock(productId, WAREHOUSE_ID, 1));
+        assertEquals(List.of(productId), inventoryRepository.findHotProductIds(List.of(productId)));
+        // an entity saved from a stale copy keeps the owner
+        inventoryRepository.save(saved);
+        assertEquals("node-2", inventoryRepository.findById(saved.getId()).orElseThrow().getHotStockOwner());
+
+        transaction.executeWithoutResult(status -> assertEquals(1, inventoryRepository.releaseHotStock("node-2")));
+        assertEquals(1, inventoryRepository.decrementStock(productId, WAREHOUSE_ID, 1));
+        assertTrue(inventoryRepository.findHotProductIds(List.of(productId)).isEmpty());
+    }
+}
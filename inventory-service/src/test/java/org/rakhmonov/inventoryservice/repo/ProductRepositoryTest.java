@@ -0,0 +1,115 @@
+package org.rakhmonov.inventoryservice.repo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.rakhmonov.inventoryservice.entity.Category;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ProductRepositoryTest {
+    private static final List<Long> NO_IDS = List.of(-1L);
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Category phones;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        phones = entityManager.persist(Category.builder().name("Phones").build());
+        // in stock, needs reorder, marketplace
+        products.add(product("Phone A", "40", phones, 7L, 5, 10));
+        // in stock
+        products.add(product("Phone B", "700", phones, null, 50, 10));
+        // out of stock: empty row
+        products.add(product("Cable", "20", null, null, 0, 10));
+        // out of stock: no inventory at all
+        products.add(product("Case", "80", null, null, null, null));
+        entityManager.flush();
+    }
+
+    @Test
+    void countFacets_CountsPerCategoryInTheDatabase() {
+        List<Object[]> rows = countFacets(null);
+
+        assertEquals(2, rows.size());
+        Object[] phoneRow = rows.stream().filter(row -> phones.getId().equals(row[0])).findFirst().orElseThrow();
+        assertEquals("Phones", phoneRow[1]);
+        // products, active, in stock, low stock, marketplace, then price buckets <50, 50-100, 100-500, 500-1000, 1000+
+        assertEquals(List.of(2L, 2L, 2L, 1L, 1L, 1L, 0L, 0L, 1L, 0L), counts(phoneRow));
+        Object[] uncategorised = rows.stream().filter(row -> row[0] == null).findFirst().orElseThrow();
+        assertEquals(List.of(2L, 2L, 0L, 0L, 0L, 1L, 1L, 0L, 0L, 0L), counts(uncategorised));
+
+        assertEquals(List.of(2L, 2L, 0L, 0L, 0L, 1L, 1L, 0L, 0L, 0L), counts(countFacets(false).get(0)));
+    }
+
+    @Test
+    void findFilteredIds_FiltersStockAndPagesInTheDatabase() {
+        Pageable byPrice = PageRequest.of(0, 2, Sort.by("price", "id"));
+
+        assertEquals(List.of(id(2), id(3)), findFilteredIds(false, null, byPrice));
+        assertEquals(List.of(id(3), id(1)), findFilteredIds(null, null, PageRequest.of(1, 2, Sort.by("price", "id"))));
+        assertEquals(List.of(id(0)), findFilteredIds(true, true, Pageable.unpaged()));
+        assertEquals(List.of(), findFilteredIds(null, null, PageRequest.of(2, 2, Sort.by("id"))));
+    }
+
+    private List<Object[]> countFacets(Boolean inStock) {
+        return productRepository.countFacets(false, NO_IDS, false, NO_IDS, null, null, null, null, null,
+                inStock, null, new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("500"), new BigDecimal("1000"));
+    }
+
+    private List<Long> findFilteredIds(Boolean inStock, Boolean needsReorder, Pageable pageable) {
+        return productRepository.findFilteredIds(false, NO_IDS, false, NO_IDS, null, null, null, null, null,
+                inStock, needsReorder, pageable);
+    }
+
+    private Long id(int index) {
+        return products.get(index).getId();
+    }
+
+    private static List<Long> counts(Object[] row) {
+        List<Long> counts = new ArrayList<>();
+        for (int i = 2; i < row.length; i++) {
+            counts.add(((Number) row[i]).longValue());
+        }
+        return counts;
+    }
+
+    private Product product(String name, String price, Category category, Long sellerId, Integer stock, Integer reorderPoint) {
+        Product product = entityManager.persist(Product.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .category(category)
+                .thirdPartySellerId(sellerId)
+                .build());
+        if (stock != null) {
+            entityManager.persist(Inventory.builder()
+                    .product(product)
+                    .warehouseId(1L)
+                    .currentStock(stock)
+                    .reorderPoint(reorderPoint)
+                    .build());
+        }
+        return product;
+    }
+}
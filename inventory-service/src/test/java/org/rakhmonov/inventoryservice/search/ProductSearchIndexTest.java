@@ -0,0 +1,129 @@
+package org.rakhmonov.inventoryservice.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository);
+        index.index(product(1L, "Samsung Galaxy Phone", "Android smartphone"));
+        index.index(product(2L, "Phone case", "Leather case for any phone"));
+        index.index(product(3L, "Laptop", "Thin and light notebook"));
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveDescriptionMatches() {
+        index.index(product(4L, "Android tablet", null));
+
+        assertEquals(List.of(4L, 1L), index.search("android"));
+        assertEquals(List.of(2L, 1L), index.search("phone"));
+    }
+
+    @Test
+    void search_RequiresAllTermsAndSupportsPrefixAndInfix() {
+        assertEquals(List.of(2L), index.search("phone leather"));
+        assertEquals(List.of(3L), index.search("note"));
+        assertEquals(List.of(1L), index.search("droid"));
+        assertTrue(index.search("tablet").isEmpty());
+    }
+
+    @Test
+    void index_UpdatesAndRemovesIncrementally() {
+        index.index(product(3L, "Gaming laptop", "RGB keyboard"));
+        assertTrue(index.search("notebook").isEmpty());
+        assertEquals(List.of(3L), index.search("gaming"));
+
+        Product deleted = product(2L, "Phone case", "Leather case for any phone");
+        deleted.setIsDeleted(true);
+        index.index(deleted);
+        assertEquals(List.of(1L), index.search("phone"));
+    }
+
+    @Test
+    void reindex_ReloadsTheCommittedProduct() {
+        when(productRepository.findById(3L)).thenReturn(Optional.of(product(3L, "Gaming laptop", null)));
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        index.reindex(3L);
+        index.reindex(2L);
+
+        assertEquals(List.of(3L), index.search("gaming"));
+        assertTrue(index.search("notebook").isEmpty());
+        assertTrue(index.search("leather").isEmpty());
+    }
+
+    @Test
+    void reindex_ManyProducts_LoadsThemInOneQueryAndDropsTheMissingOnes() {
+        when(productRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(product(3L, "Gaming laptop", null)));
+
+        index.reindex(List.of(3L, 2L));
+
+        assertEquals(List.of(3L), index.search("gaming"));
+        assertTrue(index.search("leather").isEmpty());
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void reindex_RepositoryFails_KeepsTheIndexedCopy() {
+        when(productRepository.findById(3L)).thenThrow(new IllegalStateException("database down"));
+
+        index.reindex(3L);
+
+        assertEquals(List.of(3L), index.search("laptop"));
+    }
+
+    @Test
+    void rebuild_ChangesWhileLoading_SurviveTheSwap() {
+        // the rebuild read product 3 and 2 before they changed; the changes land while it is still loading
+        when(productRepository.findIndexableAfterId(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            index.index(product(3L, "Gaming notebook", null));
+            index.remove(2L);
+            index.index(product(8L, "Standing desk", null));
+            return List.of(product(2L, "Phone case", null), product(3L, "Gaming laptop", null));
+        });
+
+        index.rebuild();
+
+        assertEquals(List.of(3L), index.search("notebook"));
+        assertTrue(index.search("laptop").isEmpty());
+        assertTrue(index.search("case").isEmpty());
+        assertEquals(List.of(8L), index.search("desk"));
+    }
+
+    @Test
+    void rebuild_ReplacesIndexFromRepositoryBatches() {
+        when(productRepository.findIndexableAfterId(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(product(7L, "Desk lamp", null)));
+
+        assertEquals(1, index.rebuild());
+        assertEquals(List.of(7L), index.search("lamp"));
+        assertTrue(index.search("phone").isEmpty());
+    }
+
+    private Product product(Long id, String name, String description) {
+        return Product.builder().id(id).name(name).description(description).price(BigDecimal.ONE).build();
+    }
+}
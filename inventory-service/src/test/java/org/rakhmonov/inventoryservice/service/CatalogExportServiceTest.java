@@ -0,0 +1,90 @@
+package org.rakhmonov.inventoryservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.InventoryExportRow;
+import org.rakhmonov.inventoryservice.dto.response.ProductExportRow;
+import org.rakhmonov.inventoryservice.exception.InvalidExportFormatException;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    private CatalogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new CatalogExportService(productRepository, inventoryRepository, stockMovementRepository, objectMapper);
+    }
+
+    @Test
+    void exportProducts_Csv_WritesHeaderAndEscapedRowsAndClosesTheStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 2, 3, 4, 5);
+        when(productRepository.streamExportRows()).thenReturn(Stream.of(
+                        new ProductExportRow(1L, "SKU-1", "Phone, \"Pro\"", "line one\nline two", new BigDecimal("99.90"),
+                                null, true, 3L, "Phones", null, 7L, 12L, createdAt, null))
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportProducts(CatalogExportService.ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, count);
+        assertTrue(lines[0].startsWith("id,sku,name,description,price,"));
+        assertEquals("1,SKU-1,\"Phone, \"\"Pro\"\"\",\"line one\nline two\",99.90,,true,3,Phones,,7,12,2025-01-02T03:04:05,",
+                lines[1]);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void exportInventory_Ndjson_WritesOneJsonObjectPerLine() throws Exception {
+        when(inventoryRepository.streamExportRows()).thenReturn(Stream.of(
+                new InventoryExportRow(1L, 10L, "A", "Apple", 1L, 5, 2, null, null, null),
+                new InventoryExportRow(2L, 11L, "B", "Banana", 1L, 0, 2, null, null, null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.exportInventory(CatalogExportService.ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,\"productId\":10,"));
+        assertTrue(lines[1].contains("\"productName\":\"Banana\""));
+    }
+
+    @Test
+    void exportFormat_RejectsUnknownValues() {
+        assertEquals(CatalogExportService.ExportFormat.CSV, CatalogExportService.ExportFormat.from(null));
+        assertEquals(CatalogExportService.ExportFormat.NDJSON, CatalogExportService.ExportFormat.from("NDJSON"));
+        assertThrows(InvalidExportFormatException.class, () -> CatalogExportService.ExportFormat.from("xml"));
+    }
+}
@@ -0,0 +1,279 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.allocation.FewestSplitsStrategy;
+import org.rakhmonov.inventoryservice.allocation.MostStockFirstStrategy;
+import org.rakhmonov.inventoryservice.allocation.PreferredWarehouseStrategy;
+import org.rakhmonov.inventoryservice.allocation.StockAllocationEngine;
+import org.rakhmonov.inventoryservice.dto.response.StockAllocationResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.OrderStockAllocation;
+import org.rakhmonov.inventoryservice.entity.ProcessedOrder;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.hotstock.HotStockService;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.OrderStockAllocationRepository;
+import org.rakhmonov.inventoryservice.repo.ProcessedOrderRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private HotStockService hotStockService;
+    @Mock
+    private ReorderEngine reorderEngine;
+    @Mock
+    private OrderStockAllocationRepository orderStockAllocationRepository;
+    @Mock
+    private ProcessedOrderRepository processedOrderRepository;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        StockAllocationEngine engine = new StockAllocationEngine(List.of(new MostStockFirstStrategy(),
+                new FewestSplitsStrategy(), new PreferredWarehouseStrategy()), MostStockFirstStrategy.NAME);
+        inventoryService = new InventoryService(inventoryRepository, productRepository, eventPublisher, engine, hotStockService, reorderEngine,
+                orderStockAllocationRepository, processedOrderRepository);
+    }
+
+    @Test
+    void decreaseStock_WithWarehouse_IsOneConditionalUpdate() {
+        // the oversell guard itself is the UPDATE's stock predicate, see InventoryRepositoryTest
+        when(inventoryRepository.decrementStock(1L, 7L, 3)).thenReturn(1);
+
+        StockAllocationResponse response = inventoryService.decreaseStock(1L, 3, 7L);
+
+        assertEquals(7L, response.getAllocations().get(0).getWarehouseId());
+        assertEquals(3, response.getAllocations().get(0).getQuantity());
+        verify(inventoryRepository).decrementStock(1L, 7L, 3);
+        verify(hotStockService, never()).requireNotHot(any());
+        verifyNoMoreInteractions(inventoryRepository);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void decreaseStock_Failures_ExplainWhy() {
+        when(inventoryRepository.decrementStock(1L, 7L, 5)).thenReturn(0);
+        when(inventoryRepository.findCurrentStock(1L, 7L)).thenReturn(Optional.of(3));
+        RuntimeException insufficient = assertThrows(RuntimeException.class, () -> inventoryService.decreaseStock(1L, 5, 7L));
+        assertEquals("Insufficient stock. Available: 3, Requested: 5", insufficient.getMessage());
+
+        when(inventoryRepository.decrementStock(2L, 7L, 1)).thenReturn(0);
+        when(inventoryRepository.findCurrentStock(2L, 7L)).thenReturn(Optional.empty());
+        when(productRepository.existsById(2L)).thenReturn(false);
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> inventoryService.decreaseStock(2L, 1, 7L));
+        assertEquals("Product not found with id: 2", missing.getMessage());
+
+        assertThrows(RuntimeException.class, () -> inventoryService.decreaseStock(1L, 0, 7L));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void decreaseStock_RowHotOnAnotherInstance_SaysSo() {
+        when(inventoryRepository.decrementStock(1L, 7L, 5)).thenReturn(0);
+        doThrow(new RuntimeException("Product 1 is in hot stock mode on another instance"))
+                .when(hotStockService).requireNotHot(List.of(1L));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> inventoryService.decreaseStock(1L, 5, 7L));
+
+        assertEquals("Product 1 is in hot stock mode on another instance", e.getMessage());
+        verify(inventoryRepository, never()).findCurrentStock(any(), any());
+    }
+
+    @Test
+    void increaseStock_WithoutWarehouse_RefillsTheEmptiestOne() {
+        when(inventoryRepository.findByProductIdIn(any())).thenReturn(List.of(
+                inventory(10L, 1L, 1L, 8), inventory(11L, 1L, 2L, 2)));
+        when(inventoryRepository.incrementStock(1L, 2L, 4)).thenReturn(1);
+
+        inventoryService.increaseStock(1L, 4, null);
+
+        verify(inventoryRepository, never()).findCurrentStock(any(), any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void decreaseStockForOrder_LocksSortedAndSplitsLinesAcrossWarehouses() {
+        Inventory phone = inventory(10L, 2L, 1L, 5);
+        Inventory caseRow = inventory(20L, 9L, 1L, 2);
+        Inventory caseSecondWarehouse = inventory(21L, 9L, 2L, 4);
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(phone, caseRow, caseSecondWarehouse));
+
+        Map<Long, Integer> order = new LinkedHashMap<>();
+        order.put(9L, 5);
+        order.put(2L, 5);
+        List<StockAllocationResponse> allocations = inventoryService.decreaseStockForOrder(order);
+
+        ArgumentCaptor<Collection<Long>> locked = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryRepository).lockByProductIdIn(locked.capture());
+        assertEquals(List.of(2L, 9L), new ArrayList<>(locked.getValue()));
+        assertEquals(0, phone.getCurrentStock());
+        // most stock first: 4 from warehouse 2, the remaining 1 from warehouse 1
+        assertEquals(0, caseSecondWarehouse.getCurrentStock());
+        assertEquals(1, caseRow.getCurrentStock());
+        assertEquals(List.of(2L, 9L), allocations.stream().map(StockAllocationResponse::getProductId).toList());
+        assertEquals(2, allocations.get(1).getAllocations().size());
+        assertEquals(MostStockFirstStrategy.NAME, allocations.get(1).getStrategy());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void decreaseStockForOrder_ShortLine_ChangesNothing() {
+        Inventory phone = inventory(10L, 2L, 1L, 5);
+        Inventory laptop = inventory(11L, 3L, 1L, 1);
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(phone, laptop));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> inventoryService.decreaseStockForOrder(Map.of(2L, 2, 3L, 4, 4L, 1)));
+
+        assertEquals("Insufficient stock for product 3 (available 1, requested 4), product 4 (available 0, requested 1)",
+                e.getMessage());
+        assertEquals(5, phone.getCurrentStock());
+        assertEquals(1, laptop.getCurrentStock());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void decreaseStockForOrders_OrdersShareLockedRows_AndFailAlone() {
+        Inventory phone = inventory(10L, 2L, 1L, 5);
+        Inventory laptop = inventory(11L, 3L, 1L, 1);
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(phone, laptop));
+
+        List<InventoryService.OrderStockResult> results = inventoryService.decreaseStockForOrders(List.of(
+                new InventoryService.OrderStockRequest("ORD-1", Map.of(2L, 3)),
+                // laptop is short: the phone line is not taken either
+                new InventoryService.OrderStockRequest("ORD-2", Map.of(2L, 1, 3L, 2)),
+                new InventoryService.OrderStockRequest("ORD-3", Map.of(2L, 2, 3L, 1)),
+                // the earlier orders left no phones
+                new InventoryService.OrderStockRequest("ORD-4", Map.of(2L, 1))));
+
+        assertEquals(List.of(true, false, true, false),
+                results.stream().map(InventoryService.OrderStockResult::success).toList());
+        assertEquals("Insufficient stock for product 3 (available 1, requested 2)", results.get(1).message());
+        assertEquals(0, phone.getCurrentStock());
+        assertEquals(0, laptop.getCurrentStock());
+        verify(inventoryRepository, times(1)).lockByProductIdIn(any());
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+        verify(reorderEngine).stockChanged(Set.of(2L, 3L));
+        ArgumentCaptor<List<OrderStockAllocation>> taken = ArgumentCaptor.forClass(List.class);
+        verify(orderStockAllocationRepository).saveAll(taken.capture());
+        assertEquals(List.of("ORD-1", "ORD-3", "ORD-3"),
+                taken.getValue().stream().map(OrderStockAllocation::getOrderNumber).toList());
+    }
+
+    @Test
+    void decreaseStockForOrders_RedeliveredOrders_GetTheirFirstResultWithoutTakingStock() {
+        Inventory phone = inventory(10L, 2L, 1L, 5);
+        when(processedOrderRepository.findByOrderNumberIn(any())).thenReturn(List.of(
+                ProcessedOrder.builder().orderNumber("ORD-1").success(true).build(),
+                ProcessedOrder.builder().orderNumber("ORD-2").success(false).message("Insufficient stock").build()));
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(phone));
+
+        List<InventoryService.OrderStockResult> results = inventoryService.decreaseStockForOrders(List.of(
+                new InventoryService.OrderStockRequest("ORD-1", Map.of(3L, 1)),
+                new InventoryService.OrderStockRequest("ORD-2", Map.of(3L, 1)),
+                new InventoryService.OrderStockRequest("ORD-3", Map.of(2L, 2)),
+                // delivered twice in the same poll
+                new InventoryService.OrderStockRequest("ORD-3", Map.of(2L, 2))));
+
+        assertEquals(List.of(new InventoryService.OrderStockResult(true, null),
+                new InventoryService.OrderStockResult(false, "Insufficient stock"),
+                new InventoryService.OrderStockResult(true, null),
+                new InventoryService.OrderStockResult(true, null)), results);
+        assertEquals(3, phone.getCurrentStock());
+        verify(inventoryRepository).lockByProductIdIn(Set.of(2L));
+        ArgumentCaptor<List<ProcessedOrder>> processed = ArgumentCaptor.forClass(List.class);
+        verify(processedOrderRepository).saveAll(processed.capture());
+        assertEquals(List.of("ORD-3"), processed.getValue().stream().map(ProcessedOrder::getOrderNumber).toList());
+        ArgumentCaptor<List<OrderStockAllocation>> taken = ArgumentCaptor.forClass(List.class);
+        verify(orderStockAllocationRepository).saveAll(taken.capture());
+        assertEquals(1, taken.getValue().size());
+    }
+
+    @Test
+    void decreaseStockForOrders_FailedOrders_AreRecordedToo() {
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(inventory(10L, 2L, 1L, 1)));
+
+        inventoryService.decreaseStockForOrders(List.of(new InventoryService.OrderStockRequest("ORD-1", Map.of(2L, 4))));
+
+        ArgumentCaptor<List<ProcessedOrder>> processed = ArgumentCaptor.forClass(List.class);
+        verify(processedOrderRepository).saveAll(processed.capture());
+        ProcessedOrder failure = processed.getValue().get(0);
+        assertFalse(failure.getSuccess());
+        assertEquals("Insufficient stock for product 2 (available 1, requested 4)", failure.getMessage());
+    }
+
+    @Test
+    void decreaseStockForOrder_Redelivered_ReturnsTheRecordedAllocations() {
+        when(processedOrderRepository.findByOrderNumber("ORD-1"))
+                .thenReturn(Optional.of(ProcessedOrder.builder().orderNumber("ORD-1").success(true).build()));
+        when(orderStockAllocationRepository.findByOrderNumberOrderByProductIdAscWarehouseIdAsc("ORD-1")).thenReturn(List.of(
+                OrderStockAllocation.builder().orderNumber("ORD-1").productId(9L).warehouseId(1L).quantity(1).build(),
+                OrderStockAllocation.builder().orderNumber("ORD-1").productId(9L).warehouseId(2L).quantity(4).build()));
+
+        List<StockAllocationResponse> responses = inventoryService.decreaseStockForOrder("ORD-1", Map.of(9L, 5));
+
+        assertEquals(1, responses.size());
+        assertEquals(5, responses.get(0).getRequestedQuantity());
+        assertEquals(2, responses.get(0).getAllocations().size());
+        verifyNoInteractions(inventoryRepository, eventPublisher);
+        verify(orderStockAllocationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void releaseStockForOrder_ReturnsStockToTheWarehousesItCameFrom() {
+        Inventory full = inventory(20L, 9L, 1L, 2);
+        Inventory fuller = inventory(21L, 9L, 2L, 4);
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(full, fuller));
+
+        inventoryService.decreaseStockForOrder("ORD-1", Map.of(9L, 5));
+
+        ArgumentCaptor<List<OrderStockAllocation>> taken = ArgumentCaptor.forClass(List.class);
+        verify(orderStockAllocationRepository).saveAll(taken.capture());
+        List<OrderStockAllocation> lines = taken.getValue();
+        lines.get(0).setId(1L);
+        lines.get(1).setId(2L);
+        when(orderStockAllocationRepository.lockUnreleased("ORD-1")).thenReturn(lines).thenReturn(List.of());
+        when(inventoryRepository.incrementStock(eq(9L), anyLong(), anyInt())).thenReturn(1);
+
+        assertTrue(inventoryService.releaseStockForOrder("ORD-1"));
+        assertFalse(inventoryService.releaseStockForOrder("ORD-1"));
+
+        // most stock first took 4 from warehouse 2 and 1 from warehouse 1; the emptiest (warehouse 1) gets nothing extra
+        verify(inventoryRepository).incrementStock(9L, 2L, 4);
+        verify(inventoryRepository).incrementStock(9L, 1L, 1);
+        verify(inventoryRepository, never()).findByProductIdIn(any());
+        verify(orderStockAllocationRepository).markReleased(eq(List.of(1L, 2L)), any());
+    }
+
+    private static Inventory inventory(Long id, Long productId, Long warehouseId, int stock) {
+        return Inventory.builder()
+                .id(id)
+                .product(Product.builder().id(productId).build())
+                .warehouseId(warehouseId)
+                .currentStock(stock)
+                .build();
+    }
+}
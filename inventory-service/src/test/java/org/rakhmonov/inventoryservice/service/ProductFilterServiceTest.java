@@ -0,0 +1,131 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.cache.CategoryTreeIndex;
+import org.rakhmonov.inventoryservice.dto.request.ProductSearchRequest;
+import org.rakhmonov.inventoryservice.dto.response.FacetCountResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductListResponse;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.search.ProductSearchIndex;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFilterServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CategoryTreeIndex categoryTreeIndex;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ProductPageAssembler productPageAssembler;
+
+    private ProductFilterService productFilterService;
+
+    @BeforeEach
+    void setUp() {
+        productFilterService = new ProductFilterService(productRepository, categoryTreeIndex, productSearchIndex,
+                productPageAssembler);
+    }
+
+    @Test
+    void filterProducts_SumsTheFacetRowsIntoTotals() {
+        // category id, name, products, active, in stock, low stock, marketplace, price buckets
+        stubFacets(List.of(
+                new Object[]{3L, "Phones", 5L, 4L, 3L, 1L, 2L, 1L, 0L, 3L, 1L, 0L},
+                new Object[]{4L, "Cables", 7L, 7L, 7L, 0L, 0L, 7L, 0L, 0L, 0L, 0L},
+                new Object[]{null, null, 2L, 1L, 0L, 0L, 0L, 0L, 2L, 0L, 0L, 0L}));
+        when(productRepository.findFilteredIds(anyBoolean(), anyCollection(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        ProductListResponse response = productFilterService.filterProducts(ProductSearchRequest.builder().size(5).build());
+
+        assertEquals(14, response.getTotalElements());
+        assertEquals(3, response.getTotalPages());
+        assertEquals(12, response.getActiveProducts());
+        assertEquals(2, response.getInactiveProducts());
+        assertEquals(4, response.getOutOfStockProducts());
+        assertEquals(1, response.getLowStockProducts());
+        assertEquals(2, response.getMarketplaceProducts());
+        assertEquals(12, response.getWarehouseProducts());
+        assertEquals(List.of("4", "3"), response.getCategoryFacets().stream().map(FacetCountResponse::getKey).toList());
+        assertEquals(List.of(8L, 2L, 3L, 1L, 0L),
+                response.getPriceRangeFacets().stream().map(FacetCountResponse::getCount).toList());
+        assertEquals(List.of(10L, 4L), response.getStockFacets().stream().map(FacetCountResponse::getCount).toList());
+    }
+
+    @Test
+    void filterProducts_PagesInTheDatabaseAndSkipsPagesPastTheEnd() {
+        stubFacets(List.<Object[]>of(new Object[]{null, null, 25L, 25L, 25L, 0L, 0L, 25L, 0L, 0L, 0L, 0L}));
+        when(productRepository.findFilteredIds(anyBoolean(), anyCollection(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        productFilterService.filterProducts(ProductSearchRequest.builder()
+                .page(2).size(10).sortBy("price").sortDirection("DESC").build());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(productRepository).findFilteredIds(anyBoolean(), anyCollection(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), pageable.capture());
+        assertEquals(20, pageable.getValue().getOffset());
+        assertEquals(10, pageable.getValue().getPageSize());
+        assertEquals(Sort.by(Sort.Direction.DESC, "price", "id"), pageable.getValue().getSort());
+
+        // page * size overflows an int: still past the end, answered without a page query
+        ProductListResponse beyond = productFilterService.filterProducts(ProductSearchRequest.builder()
+                .page(Integer.MAX_VALUE).size(100).build());
+
+        assertTrue(beyond.getProducts().isEmpty());
+        assertEquals(25, beyond.getTotalElements());
+        assertFalse(beyond.isHasNext());
+        verify(productRepository, times(1)).findFilteredIds(anyBoolean(), anyCollection(), anyBoolean(),
+                anyCollection(), any(), any(), any(), any(), any(), any(), any(), any(Pageable.class));
+        verify(productRepository, never()).findByIdInAndIsDeletedFalse(anyCollection());
+    }
+
+    @Test
+    void filterProducts_SearchWithoutSort_PagesInRelevanceOrderOverTheBestMatches() {
+        List<Long> ranked = new ArrayList<>(LongStream.rangeClosed(1, ProductFilterService.SEARCH_RESULT_LIMIT + 10)
+                .boxed().toList());
+        Collections.reverse(ranked);
+        when(productSearchIndex.search("phone")).thenReturn(ranked);
+        stubFacets(List.<Object[]>of(new Object[]{null, null, 3L, 3L, 3L, 0L, 0L, 3L, 0L, 0L, 0L, 0L}));
+        when(productRepository.findFilteredIds(anyBoolean(), anyCollection(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), eq(Pageable.unpaged()))).thenReturn(List.of(500L, 900L, 1000L));
+        when(productRepository.findByIdInAndIsDeletedFalse(List.of(900L))).thenReturn(List.of(product(900L)));
+
+        productFilterService.filterProducts(ProductSearchRequest.builder().searchQuery("phone").page(1).size(1).build());
+
+        ArgumentCaptor<List<Long>> filteredIds = ArgumentCaptor.forClass(List.class);
+        verify(productRepository).countFacets(eq(true), filteredIds.capture(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+        assertEquals(ProductFilterService.SEARCH_RESULT_LIMIT, filteredIds.getValue().size());
+        // relevance order is 1000, 900, 500: page 1 of size 1 is 900
+        verify(productPageAssembler).toResponseList(List.of(product(900L)));
+    }
+
+    private void stubFacets(List<Object[]> rows) {
+        when(productRepository.countFacets(anyBoolean(), anyCollection(), anyBoolean(), anyCollection(), any(),
+                any(), any(), any(), any(), any(), any(), any(), any(), any(), any())).thenReturn(rows);
+    }
+
+    private static Product product(Long id) {
+        return Product.builder().id(id).name("Product " + id).build();
+    }
+}
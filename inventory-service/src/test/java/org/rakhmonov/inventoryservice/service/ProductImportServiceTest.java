@@ -0,0 +1,133 @@
+package org.rakhmonov.inventoryservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.ProductImportErrorResponse;
+import org.rakhmonov.inventoryservice.dto.response.ProductImportResponse;
+import org.rakhmonov.inventoryservice.entity.Category;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.entity.ProductVariant;
+import org.rakhmonov.inventoryservice.event.ProductsImportedEvent;
+import org.rakhmonov.inventoryservice.exception.InvalidImportFileException;
+import org.rakhmonov.inventoryservice.repo.CategoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(productRepository, productVariantRepository, categoryRepository,
+                eventPublisher, new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper(),
+                entityManager);
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        lenient().when(categoryRepository.findAll()).thenReturn(List.of(
+                Category.builder().id(1L).name("Phones").build(),
+                Category.builder().id(2L).name("Laptops").build()));
+    }
+
+    @Test
+    void importProducts_Csv_ImportsValidRowsInChunksAndReportsTheRest() {
+        String csv = """
+                name,price,sku,category_id,category,warehouse_id,current_stock
+                Phone A,100.00,SKU-1,1,,5,10
+                Phone B,,SKU-2,1,,,
+                Laptop,900,SKU-3,,laptops,,
+                "Phone, ""Pro""\",150,SKU-1,1,,,
+                Tablet,300,SKU-4,99,,,
+                Cable,5,SKU-5,,Phones,,
+                """;
+        when(productRepository.findExistingSkus(anyCollection())).thenReturn(List.of());
+
+        ProductImportResponse response = importService.importProducts(file("products.csv", csv), null);
+
+        assertEquals("CSV", response.getFormat());
+        assertEquals(6, response.getTotalRows());
+        assertEquals(3, response.getImportedRows());
+        assertEquals(3, response.getFailedRows());
+        assertEquals(List.of(2L, 4L, 5L), response.getErrors().stream().map(ProductImportErrorResponse::getRowNumber).toList());
+        assertTrue(response.getErrors().get(0).getMessage().contains("Price is required"));
+        assertTrue(response.getErrors().get(1).getMessage().contains("Duplicate SKU in file: SKU-1"));
+        assertTrue(response.getErrors().get(2).getMessage().contains("Category not found: 99"));
+
+        // three valid rows with a chunk size of two -> two batched saves, one SKU lookup per chunk
+        ArgumentCaptor<List<Product>> saved = ArgumentCaptor.forClass(List.class);
+        verify(productRepository, times(2)).saveAll(saved.capture());
+        verify(productRepository, times(2)).findExistingSkus(anyCollection());
+        List<Product> first = saved.getAllValues().get(0);
+        assertEquals(List.of("Phone A", "Laptop"), first.stream().map(Product::getName).toList());
+        assertEquals(10, first.get(0).getInventory().getCurrentStock());
+        assertEquals(2L, first.get(1).getCategory().getId());
+        // one search index update per chunk, and each chunk is detached once written
+        verify(eventPublisher, times(2)).publishEvent(any(ProductsImportedEvent.class));
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void importProducts_Ndjson_SkipsSkusThatAlreadyExist() {
+        String ndjson = """
+                {"name":"Shirt","price":20,"sku":"SH-1","categoryId":1,"variants":[{"variantName":"Size","variantValue":"L","sku":"SH-1-L"}]}
+                {"name":"Old shirt","price":20,"sku":"SH-OLD","categoryId":1}
+                not json
+                """;
+        when(productRepository.findExistingSkus(anyCollection())).thenReturn(List.of("SH-OLD"));
+        when(productVariantRepository.findExistingSkus(anyCollection())).thenReturn(List.of());
+
+        ProductImportResponse response = importService.importProducts(file("products.ndjson", ndjson), null);
+
+        assertEquals(3, response.getTotalRows());
+        assertEquals(1, response.getImportedRows());
+        assertEquals(2, response.getFailedRows());
+        assertEquals("SH-OLD", response.getErrors().stream()
+                .filter(error -> error.getRowNumber() == 2).findFirst().orElseThrow().getSku());
+
+        ArgumentCaptor<List<ProductVariant>> variants = ArgumentCaptor.forClass(List.class);
+        verify(productVariantRepository).saveAll(variants.capture());
+        assertEquals("SH-1-L", variants.getValue().get(0).getSku());
+        assertEquals("Shirt", variants.getValue().get(0).getProduct().getName());
+    }
+
+    @Test
+    void importProducts_UnknownFormat_Throws() {
+        assertThrows(InvalidImportFileException.class,
+                () -> importService.importProducts(file("products.xlsx", "x"), null));
+        verifyNoInteractions(productRepository);
+    }
+
+    private MockMultipartFile file(String name, String content) {
+        return new MockMultipartFile("file", name, "text/plain", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,80 @@
+package org.rakhmonov.inventoryservice.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+import org.rakhmonov.inventoryservice.entity.Category;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.CategoryRepository;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counts the statements a product listing really sends, Product.inventory's inverse one-to-one included
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class ProductPageAssemblerQueryCountTest {
+    private static final int PRODUCTS = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProductPageAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        assembler = new ProductPageAssembler(inventoryRepository);
+        ReflectionTestUtils.setField(assembler, "baseUrl", "http://localhost:8082");
+        Category category = categoryRepository.save(Category.builder().name("Electronics").build());
+        for (int i = 1; i <= PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Product " + i)
+                    .price(BigDecimal.TEN)
+                    .category(category)
+                    .build());
+            inventoryRepository.save(Inventory.builder().product(product).warehouseId(1L).currentStock(i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void toResponsePage_SendsTheSameStatementsWhateverThePageSize(int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<ProductResponse> page = assembler.toResponsePage(productRepository.findAll(PageRequest.of(0, pageSize)));
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(response -> response.getInventory() != null
+                && response.getCategory().getName().equals("Electronics")));
+        // the page with its categories, the count, and one IN query for the page's inventories
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,95 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.ProductResponse;
+import org.rakhmonov.inventoryservice.entity.Category;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPageAssemblerTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private ProductPageAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        assembler = new ProductPageAssembler(inventoryRepository);
+        ReflectionTestUtils.setField(assembler, "baseUrl", "http://localhost:8082");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void toResponsePage_UsesOneInventoryQueryWhateverThePageSize(int pageSize) {
+        List<Product> products = new ArrayList<>();
+        List<Inventory> inventories = new ArrayList<>();
+        for (long id = 1; id <= pageSize; id++) {
+            Product product = product(id);
+            products.add(product);
+            inventories.add(Inventory.builder().id(id).product(product).warehouseId(1L).currentStock(5).build());
+        }
+        when(inventoryRepository.findByProductIdIn(anyCollection())).thenReturn(inventories);
+
+        Page<ProductResponse> page = assembler.toResponsePage(
+                new PageImpl<>(products, PageRequest.of(0, pageSize), pageSize));
+
+        assertEquals(pageSize, page.getNumberOfElements());
+        assertTrue(page.getContent().stream().allMatch(response -> response.getInventory() != null));
+        verify(inventoryRepository, times(1)).findByProductIdIn(anyCollection());
+        verifyNoMoreInteractions(inventoryRepository);
+    }
+
+    @Test
+    void toResponsePage_KeepsFirstInventoryPerProduct() {
+        Product product = product(1L);
+        Inventory first = Inventory.builder().id(10L).product(product).warehouseId(1L).currentStock(3).build();
+        Inventory second = Inventory.builder().id(11L).product(product).warehouseId(2L).currentStock(7).build();
+        when(inventoryRepository.findByProductIdIn(anyCollection())).thenReturn(List.of(first, second));
+
+        Page<ProductResponse> page = assembler.toResponsePage(new PageImpl<>(List.of(product)));
+
+        ProductResponse response = page.getContent().get(0);
+        assertEquals(10L, response.getInventory().getId());
+        assertEquals("Electronics", response.getCategory().getName());
+        assertEquals("http://localhost:8082/uploads/p1.png", response.getImageUrl());
+    }
+
+    @Test
+    void toResponsePage_EmptyPage_SkipsInventoryQuery() {
+        Page<ProductResponse> page = assembler.toResponsePage(Page.empty());
+
+        assertTrue(page.isEmpty());
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    private Product product(Long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.TEN)
+                .imageUrl("/uploads/p" + id + ".png")
+                .category(Category.builder().id(1L).name("Electronics").build())
+                .build();
+    }
+}
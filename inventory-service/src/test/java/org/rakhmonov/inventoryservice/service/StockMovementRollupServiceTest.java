@@ -0,0 +1,86 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementRollupBackfillResponse;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.entity.StockMovementDailyRollup;
+import org.rakhmonov.inventoryservice.exception.InvalidDateRangeException;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRollupRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMovementRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Mock
+    private StockMovementRollupRepository stockMovementRollupRepository;
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    private StockMovementRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new StockMovementRollupService(stockMovementRollupRepository, stockMovementRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(rollupService, "maxReportDays", 31);
+    }
+
+    @Test
+    void record_AddsInboundAndRemovesOutbound() {
+        rollupService.record(movement(StockMovement.MovementType.IN, 5L, new BigDecimal("50.00")), 1);
+        rollupService.record(movement(StockMovement.MovementType.OUT, null, null), -1);
+
+        verify(stockMovementRollupRepository).add(1L, 5L, DAY, 4, 0, new BigDecimal("50.00"), 1);
+        verify(stockMovementRollupRepository).add(1L, StockMovementDailyRollup.NO_WAREHOUSE, DAY, 0, -4,
+                BigDecimal.ZERO, -1);
+    }
+
+    @Test
+    void backfill_RebuildsEveryDayFromTheFirstMovement() {
+        when(stockMovementRepository.findEarliestCreatedAt()).thenReturn(DAY.minusDays(2).atTime(17, 30));
+        when(stockMovementRollupRepository.insertFromLedger(any(), any())).thenReturn(3);
+
+        StockMovementRollupBackfillResponse response = rollupService.backfill(null, DAY);
+
+        assertEquals(DAY.minusDays(2), response.getFrom());
+        assertEquals(3, response.getDays());
+        assertEquals(9, response.getRollupRows());
+        verify(stockMovementRollupRepository).deleteDay(DAY.minusDays(1));
+        verify(stockMovementRollupRepository).insertFromLedger(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    void getDailyReport_RejectsReversedAndOverlongRanges() {
+        assertThrows(InvalidDateRangeException.class, () -> rollupService.getDailyReport(DAY, DAY.minusDays(1), null, null));
+        assertThrows(InvalidDateRangeException.class, () -> rollupService.getDailyReport(DAY, DAY.plusDays(31), null, null));
+        verifyNoInteractions(stockMovementRollupRepository);
+    }
+
+    private static StockMovement movement(StockMovement.MovementType type, Long warehouseId, BigDecimal totalCost) {
+        return StockMovement.builder()
+                .product(Product.builder().id(1L).build())
+                .warehouseId(warehouseId)
+                .movementType(type)
+                .quantity(4)
+                .totalCost(totalCost)
+                .createdAt(DAY.atTime(12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,196 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.events.paging.CursorCodec;
+import org.rakhmonov.events.paging.InvalidCursorException;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementBatchRequest;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementFilterRequest;
+import org.rakhmonov.inventoryservice.dto.request.StockMovementRequest;
+import org.rakhmonov.inventoryservice.dto.response.CursorPageResponse;
+import org.rakhmonov.inventoryservice.dto.response.StockMovementResponse;
+import org.rakhmonov.inventoryservice.entity.Inventory;
+import org.rakhmonov.inventoryservice.entity.Product;
+import org.rakhmonov.inventoryservice.entity.StockMovement;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.exception.InvalidStockMovementBatchException;
+import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
+import org.rakhmonov.inventoryservice.hotstock.HotStockService;
+import org.rakhmonov.inventoryservice.reorder.ReorderEngine;
+import org.rakhmonov.inventoryservice.repo.InventoryRepository;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMovementServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private InventoryRepository inventoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private StockMovementRollupService stockMovementRollupService;
+    @Mock
+    private ReorderEngine reorderEngine;
+    @Mock
+    private HotStockService hotStockService;
+
+    @InjectMocks
+    private StockMovementService stockMovementService;
+
+    @Test
+    void filterStockMovements_FetchesOneExtraRowToDetectTheNextPage() {
+        JpaSpecificationExecutor.SpecificationFluentQuery<StockMovement> query = fluentQuery(movements(3));
+
+        CursorPageResponse<StockMovementResponse> page = stockMovementService.filterStockMovements(
+                StockMovementFilterRequest.builder().warehouseId(7L).size(2).build());
+
+        verify(query).sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        verify(query).limit(3);
+        assertEquals(2, page.getSize());
+        assertTrue(page.isHasNext());
+        assertEquals(new CursorCodec.Cursor(NOW.minusMinutes(2), 2L), CursorCodec.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void filterStockMovements_LastPage_HasNoCursor() {
+        fluentQuery(movements(1));
+
+        CursorPageResponse<StockMovementResponse> page = stockMovementService.filterStockMovements(
+                StockMovementFilterRequest.builder()
+                        .cursor(CursorCodec.encode(NOW, 10L))
+                        .build());
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        assertEquals(1, page.getContent().size());
+    }
+
+    @Test
+    void filterStockMovements_BadCursor_Throws() {
+        assertThrows(InvalidCursorException.class, () -> stockMovementService.filterStockMovements(
+                StockMovementFilterRequest.builder().cursor("not-a-cursor").build()));
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    @Test
+    void createStockMovements_ComputesLevelsInSubmissionOrder() {
+        Product product = Product.builder().id(1L).name("Phone").build();
+        Inventory existing = Inventory.builder().id(5L).product(product).warehouseId(1L).currentStock(10).build();
+        ReflectionTestUtils.setField(stockMovementService, "batchMaxSize", 10);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(inventoryRepository.lockByProductIdIn(any())).thenReturn(List.of(existing));
+
+        List<StockMovementResponse> responses = stockMovementService.createStockMovements(batch(
+                line(1L, 1L, StockMovement.MovementType.IN, 5),
+                line(1L, 1L, StockMovement.MovementType.OUT, 20),
+                line(1L, 2L, StockMovement.MovementType.IN, 3),
+                line(1L, null, StockMovement.MovementType.OUT, 1)));
+
+        assertEquals(List.of(10, 15, 0, 3), responses.stream().map(StockMovementResponse::getStockBefore).toList());
+        assertEquals(List.of(15, 0, 3, 2), responses.stream().map(StockMovementResponse::getStockAfter).toList());
+        assertEquals(0, existing.getCurrentStock());
+
+        ArgumentCaptor<List<Inventory>> created = ArgumentCaptor.forClass(List.class);
+        verify(inventoryRepository).saveAll(created.capture());
+        assertEquals(2L, created.getValue().get(0).getWarehouseId());
+        assertEquals(3, created.getValue().get(0).getCurrentStock());
+        verify(stockMovementRepository).saveAll(argThat((List<StockMovement> movements) -> movements.size() == 4));
+        verify(stockMovementRollupService).recordAll(argThat(movements -> movements.size() == 4));
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void createStockMovements_InvalidOrUnknownLine_WritesNothing() {
+        ReflectionTestUtils.setField(stockMovementService, "batchMaxSize", 10);
+
+        InvalidStockMovementBatchException invalid = assertThrows(InvalidStockMovementBatchException.class,
+                () -> stockMovementService.createStockMovements(batch(
+                        line(1L, 1L, StockMovement.MovementType.IN, 5),
+                        line(1L, 1L, StockMovement.MovementType.IN, 0))));
+        assertEquals("Movement 2: quantity must be positive", invalid.getMessage());
+
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+        assertThrows(ProductNotFoundException.class, () -> stockMovementService.createStockMovements(batch(
+                line(9L, 1L, StockMovement.MovementType.IN, 5))));
+        verifyNoInteractions(inventoryRepository, stockMovementRepository);
+    }
+
+    @Test
+    void createStockMovement_HotProduct_WritesNothing() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(Product.builder().id(1L).name("Phone").build()));
+        doThrow(new RuntimeException("Product 1 is in hot stock mode on another instance"))
+                .when(hotStockService).requireNotHot(List.of(1L));
+
+        assertThrows(RuntimeException.class, () -> stockMovementService.createStockMovement(
+                line(1L, 1L, StockMovement.MovementType.IN, 5)));
+
+        verify(inventoryRepository).lockByProductIdIn(List.of(1L));
+        verify(inventoryRepository, never()).save(any());
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    private static StockMovementBatchRequest batch(StockMovementRequest... lines) {
+        return StockMovementBatchRequest.builder().movements(List.of(lines)).build();
+    }
+
+    private static StockMovementRequest line(Long productId, Long warehouseId, StockMovement.MovementType type,
+                                             int quantity) {
+        return StockMovementRequest.builder()
+                .productId(productId)
+                .warehouseId(warehouseId)
+                .movementType(type)
+                .quantity(quantity)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private JpaSpecificationExecutor.SpecificationFluentQuery<StockMovement> fluentQuery(List<StockMovement> result) {
+        JpaSpecificationExecutor.SpecificationFluentQuery<StockMovement> query = mock(JpaSpecificationExecutor.SpecificationFluentQuery.class);
+        when(query.sortBy(any())).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.all()).thenReturn(result);
+        when(stockMovementRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                ((Function<JpaSpecificationExecutor.SpecificationFluentQuery<StockMovement>, Object>) invocation.getArgument(1)).apply(query));
+        return query;
+    }
+
+    private static List<StockMovement> movements(int count) {
+        Product product = Product.builder().id(1L).name("Phone").build();
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> StockMovement.builder()
+                        .id(id)
+                        .product(product)
+                        .movementType(StockMovement.MovementType.OUT)
+                        .quantity(1)
+                        .createdAt(NOW.minusMinutes(id))
+                        .build())
+                .toList();
+    }
+}
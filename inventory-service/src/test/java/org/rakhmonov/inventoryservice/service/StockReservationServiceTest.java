@@ -0,0 +1,119 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.StockReservationResponse;
+import org.rakhmonov.inventoryservice.entity.ProductVariant;
+import org.rakhmonov.inventoryservice.entity.StockReservation;
+import org.rakhmonov.inventoryservice.entity.StockReservation.ReservationStatus;
+import org.rakhmonov.inventoryservice.event.ProductChangedEvent;
+import org.rakhmonov.inventoryservice.repo.ProductVariantRepository;
+import org.rakhmonov.inventoryservice.repo.StockReservationRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @InjectMocks
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reservationService, "defaultTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(reservationService, "maxTtl", Duration.ofHours(1));
+    }
+
+    @Test
+    void reserve_HoldsStockWithAnExpiryCappedAtTheMaximum() {
+        when(productVariantRepository.findByIdAndProductId(5L, 1L)).thenReturn(Optional.of(variant(10, 0)));
+        when(productVariantRepository.reserve(5L, 3)).thenReturn(1);
+        when(stockReservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StockReservationResponse response = reservationService.reserve(1L, 5L, 3, 86_400L);
+
+        assertEquals(ReservationStatus.ACTIVE, response.getStatus());
+        assertEquals(3, response.getQuantity());
+        assertTrue(response.getExpiresAt().isBefore(LocalDateTime.now().plusMinutes(61)));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L));
+    }
+
+    @Test
+    void reserve_NotEnoughAvailable_CreatesNoReservation() {
+        when(productVariantRepository.findByIdAndProductId(5L, 1L)).thenReturn(Optional.of(variant(10, 8)));
+        when(productVariantRepository.reserve(5L, 3)).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> reservationService.reserve(1L, 5L, 3, null));
+
+        assertEquals("Insufficient stock to reserve. Available: 2, Requested: 3", e.getMessage());
+        verify(stockReservationRepository, never()).save(any());
+    }
+
+    @Test
+    void release_SecondReleaseDoesNotGiveStockBackTwice() {
+        UUID id = UUID.randomUUID();
+        when(stockReservationRepository.findById(id)).thenReturn(Optional.of(reservation(id, 5L, 3)));
+        when(stockReservationRepository.close(eq(id), eq(ReservationStatus.RELEASED), any())).thenReturn(1, 0);
+
+        assertEquals(ReservationStatus.RELEASED, reservationService.release(1L, 5L, id).getStatus());
+        reservationService.release(1L, 5L, id);
+
+        verify(productVariantRepository, times(1)).unreserve(5L, 3);
+    }
+
+    @Test
+    void expireBatch_ReleasesPerVariantAndMarksTheBatchExpired() {
+        List<StockReservation> expired = List.of(
+                reservation(UUID.randomUUID(), 5L, 2),
+                reservation(UUID.randomUUID(), 5L, 1),
+                reservation(UUID.randomUUID(), 6L, 4));
+        when(stockReservationRepository.lockExpired(any(), eq(100))).thenReturn(expired);
+
+        assertEquals(3, reservationService.expireBatch(100));
+
+        verify(productVariantRepository).unreserve(5L, 3);
+        verify(productVariantRepository).unreserve(6L, 4);
+        verify(productVariantRepository, times(2)).unreserve(any(), anyInt());
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(stockReservationRepository).markExpired(ids.capture(), any());
+        assertEquals(3, ids.getValue().size());
+    }
+
+    private static ProductVariant variant(int stock, int reserved) {
+        return ProductVariant.builder().id(5L).stockQuantity(stock).reservedQuantity(reserved).build();
+    }
+
+    private static StockReservation reservation(UUID id, Long variantId, int quantity) {
+        return StockReservation.builder()
+                .id(id)
+                .productId(1L)
+                .variantId(variantId)
+                .quantity(quantity)
+                .expiresAt(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package org.rakhmonov.inventoryservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.inventoryservice.dto.response.StockLevelResponse;
+import org.rakhmonov.inventoryservice.entity.StockSnapshot;
+import org.rakhmonov.inventoryservice.exception.ProductNotFoundException;
+import org.rakhmonov.inventoryservice.repo.ProductRepository;
+import org.rakhmonov.inventoryservice.repo.StockMovementRepository;
+import org.rakhmonov.inventoryservice.repo.StockSnapshotRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockSnapshotServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 2, 12, 0);
+
+    @Mock
+    private StockSnapshotRepository stockSnapshotRepository;
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private StockSnapshotService stockSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockSnapshotService, "interval", Duration.ofHours(1));
+        ReflectionTestUtils.setField(stockSnapshotService, "settleLag", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void dueCutoff_IsTheLastBoundaryPastTheSettleLag() {
+        assertEquals(NOON, stockSnapshotService.dueCutoff(NOON.plusMinutes(5)));
+        assertEquals(NOON.minusHours(1), stockSnapshotService.dueCutoff(NOON.plusMinutes(4)));
+    }
+
+    @Test
+    void takeSnapshot_AddsChangesSincePreviousRunToLatestSnapshots() {
+        LocalDateTime previous = NOON.minusHours(1);
+        when(stockSnapshotRepository.findLatestAsOf(NOON)).thenReturn(previous);
+        when(stockMovementRepository.sumEffectiveQuantityByKey(previous, NOON)).thenReturn(List.of(
+                new Object[]{1L, 10L, -3L},
+                new Object[]{1L, null, 2L},
+                new Object[]{2L, 10L, 7L}));
+        when(stockSnapshotRepository.findLatestByProductIdIn(any())).thenReturn(List.of(
+                StockSnapshot.builder().productId(1L).warehouseId(10L).asOf(previous.minusHours(5)).stock(40L).build()));
+
+        assertEquals(3, stockSnapshotService.takeSnapshot(NOON.plusMinutes(30)));
+
+        ArgumentCaptor<List<StockSnapshot>> saved = ArgumentCaptor.forClass(List.class);
+        verify(stockSnapshotRepository).saveAll(saved.capture());
+        List<StockSnapshot> snapshots = saved.getValue().stream()
+                .sorted(Comparator.comparing(StockSnapshot::getProductId)
+                        .thenComparing(StockSnapshot::getWarehouseId))
+                .toList();
+        assertEquals(List.of(2L, 37L, 7L), snapshots.stream().map(StockSnapshot::getStock).toList());
+        // no NULL in the unique key, so a second instance racing for the run hits it
+        assertEquals(List.of(StockSnapshot.NO_WAREHOUSE, 10L, 10L),
+                snapshots.stream().map(StockSnapshot::getWarehouseId).toList());
+        assertTrue(snapshots.stream().allMatch(snapshot -> snapshot.getAsOf().equals(NOON)));
+    }
+
+    @Test
+    void shiftSnapshots_MovementWithoutWarehouse_ShiftsTheNoWarehouseKey() {
+        stockSnapshotService.shiftSnapshots(1L, null, NOON, -4);
+
+        verify(stockSnapshotRepository).shiftFrom(1L, StockSnapshot.NO_WAREHOUSE, NOON, -4);
+    }
+
+    @Test
+    void takeSnapshot_RunAlreadyTaken_DoesNothing() {
+        when(stockSnapshotRepository.findLatestAsOf(NOON)).thenReturn(NOON);
+
+        assertEquals(0, stockSnapshotService.takeSnapshot(NOON.plusMinutes(10)));
+
+        verifyNoInteractions(stockMovementRepository);
+    }
+
+    @Test
+    void getStockAsOf_IsSnapshotPlusLedgerChangeAfterIt() {
+        LocalDateTime at = NOON.plusMinutes(42);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(stockSnapshotRepository.findLatestAsOf(at)).thenReturn(NOON);
+        when(stockSnapshotRepository.sumStockAt(1L, null, NOON)).thenReturn(120L);
+        when(stockMovementRepository.sumEffectiveQuantity(1L, null, NOON, at)).thenReturn(-15L);
+
+        StockLevelResponse level = stockSnapshotService.getStockAsOf(1L, null, at);
+
+        assertEquals(105L, level.getStock());
+        assertEquals(NOON, level.getSnapshotAt());
+        assertEquals(-15L, level.getChangeSinceSnapshot());
+
+        when(productRepository.existsById(2L)).thenReturn(false);
+        assertThrows(ProductNotFoundException.class, () -> stockSnapshotService.getStockAsOf(2L, null, at));
+    }
+}
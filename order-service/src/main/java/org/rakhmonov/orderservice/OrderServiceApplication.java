@@ -2,8 +2,10 @@ package org.rakhmonov.orderservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "org.rakhmonov.orderservice")
+@EnableScheduling
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package org.rakhmonov.orderservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.rakhmonov.events.EventContracts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Declares the topics order-service produces to, created on startup if missing. Both are keyed by order number
+ * and have the same partition count, so an order's created and status-changed events land on the same partition
+ * number. More partitions can be added later, but that moves keys to other partitions: drain consumers first.
+ */
+@Configuration
+public class KafkaTopicConfig {
+
+    @Value("${app.kafka.order-events.partitions:6}")
+    private int partitions;
+
+    @Value("${app.kafka.order-events.replicas:1}")
+    private int replicas;
+
+    @Bean
+    public NewTopic orderCreatedTopic() {
+        return TopicBuilder.name(EventContracts.ORDER_CREATED_TOPIC).partitions(partitions).replicas(replicas).build();
+    }
+
+    @Bean
+    public NewTopic orderStatusChangedTopic() {
+        return TopicBuilder.name(EventContracts.ORDER_STATUS_CHANGED_TOPIC).partitions(partitions).replicas(replicas).build();
+    }
+}
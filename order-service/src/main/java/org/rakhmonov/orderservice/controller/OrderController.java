@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.rakhmonov.orderservice.dto.request.OrderRequest;
+import org.rakhmonov.orderservice.dto.response.CursorPageResponse;
 import org.rakhmonov.orderservice.dto.response.OrderResponse;
 import org.rakhmonov.orderservice.entity.Order;
 import org.rakhmonov.orderservice.service.OrderService;
@@ -47,6 +48,23 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrdersByCursor(null, cursor, size));
+    }
+
+    @GetMapping("/user/{userId}/cursor")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageResponse<OrderResponse>> getOrdersByUserIdAndCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrdersByCursor(userId, cursor, size));
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Page<OrderResponse>> getOrdersByUserId(
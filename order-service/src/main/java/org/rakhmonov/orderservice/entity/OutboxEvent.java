@@ -0,0 +1,70 @@
+package org.rakhmonov.orderservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event waiting to be published to Kafka, written in the same transaction as the change it describes
+ * and marked sent by the outbox relay once the broker acknowledged it. A failed send is retried after
+ * {@link #nextAttemptAt}; once the relay gives up the event is marked failed and kept for inspection.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_sent_at_id", columnList = "sent_at, id"),
+        @Index(name = "idx_outbox_events_message_key", columnList = "message_key")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    // Kafka record key (the order number)
+    @Column(name = "message_key", length = 100)
+    private String messageKey;
+
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+
+    // Avro single-object encoding of the event (see org.rakhmonov.events.AvroEventCodec)
+    @Column(nullable = false)
+    private byte[] payload;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    // Not retried before this time; null until the first failed send
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Set when the relay gave up on the event (dead letter); it is never sent or purged after that
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,16 +0,0 @@
-package org.rakhmonov.orderservice.event;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.util.List;
-
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class OrderCreatedEvent {
-    private String orderNumber;
-    private List<OrderItemEvent> orderItems;
-}
@@ -2,24 +2,47 @@ package org.rakhmonov.orderservice.event;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
+import org.apache.avro.specific.SpecificRecord;
+import org.rakhmonov.events.AvroEventCodec;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.rakhmonov.events.OrderStatusChangedEvent;
+import org.rakhmonov.orderservice.entity.OutboxEvent;
+import org.rakhmonov.orderservice.repo.OutboxEventRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Writes order events to the outbox in the caller's transaction, so an event exists exactly when the order change
+ * it describes committed; {@link org.rakhmonov.orderservice.outbox.OutboxRelay} publishes them to Kafka.
+ * Payloads are stored already Avro-encoded, so the relay sends the bytes as they are.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OrderEventPublisher {
-    
-    private final ApplicationEventPublisher eventPublisher;
-    
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderCreated(OrderCreatedEvent event) {
         log.info("Publishing OrderCreatedEvent: {}", event);
-        eventPublisher.publishEvent(event);
+        append(EventContracts.ORDER_CREATED_TOPIC, event.getOrderNumber(), event);
     }
-    
+
+    @Transactional(propagation = Propagation.MANDATORY)
     public void publishOrderStatusChanged(OrderStatusChangedEvent event) {
         log.info("Publishing OrderStatusChangedEvent: {}", event);
-        eventPublisher.publishEvent(event);
+        append(EventContracts.ORDER_STATUS_CHANGED_TOPIC, event.getOrderNumber(), event);
     }
-}
 
+    private void append(String topic, String key, SpecificRecord event) {
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .eventType(event.getSchema().getName())
+                .payload(AvroEventCodec.DEFAULT.encode(event))
+                .build());
+    }
+}
@@ -1,18 +0,0 @@
-package org.rakhmonov.orderservice.event;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class OrderItemEvent {
-    private Long productId;
-    private Integer quantity;
-}
-
-
-
-
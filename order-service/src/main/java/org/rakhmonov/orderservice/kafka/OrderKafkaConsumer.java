@@ -2,14 +2,14 @@ package org.rakhmonov.orderservice.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.InventoryDecreasedEvent;
 import org.rakhmonov.orderservice.entity.Order;
 import org.rakhmonov.orderservice.repo.OrderRepository;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Map;
-
 @Component
 @RequiredArgsConstructor
 @Slf4j
@@ -17,14 +17,15 @@ public class OrderKafkaConsumer {
     
     private final OrderRepository orderRepository;
     
-    @KafkaListener(topics = "inventory-decreased-topic", groupId = "order-service-group")
+    // Keyed by order number, so the events of one order stay in order on their partition
+    @KafkaListener(topics = EventContracts.INVENTORY_DECREASED_TOPIC, groupId = "order-service-group",
+            concurrency = "${app.kafka.inventory-events.concurrency:3}")
     @Transactional
-    public void handleInventoryDecreased(Map<String, Object> event) {
+    public void handleInventoryDecreased(InventoryDecreasedEvent event) {
         try {
             log.info("Received InventoryDecreasedEvent: {}", event);
             
-            String orderNumber = (String) event.get("orderNumber");
-            Boolean success = (Boolean) event.get("success");
+            String orderNumber = event.getOrderNumber();
             
             if (orderNumber == null) {
                 log.warn("Order number is null in InventoryDecreasedEvent");
@@ -40,7 +41,7 @@ public class OrderKafkaConsumer {
                 return;
             }
             
-            if (success != null && success) {
+            if (event.getSuccess()) {
                 if (order.getStatus() == Order.OrderStatus.PENDING) {
                     order.setStatus(Order.OrderStatus.CONFIRMED);
                     orderRepository.save(order);
@@ -49,7 +50,7 @@ public class OrderKafkaConsumer {
                     log.info("Order {} status is already {}, not updating", orderNumber, order.getStatus());
                 }
             } else {
-                log.warn("Inventory decrease failed for order {}: {}", orderNumber, event.get("message"));
+                log.warn("Inventory decrease failed for order {}: {}", orderNumber, event.getMessage());
             }
             
         } catch (Exception e) {
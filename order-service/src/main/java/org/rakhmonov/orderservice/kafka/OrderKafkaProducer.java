@@ -1,53 +1,72 @@
 package org.rakhmonov.orderservice.kafka;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.rakhmonov.orderservice.event.OrderCreatedEvent;
-import org.rakhmonov.orderservice.event.OrderStatusChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
+/**
+ * Sends events without waiting for the broker; the returned future completes on the producer's I/O thread, where
+ * only the metrics are recorded. At most {@code app.kafka.publish.max-in-flight} sends are outstanding at a time;
+ * past that a send fails at once instead of blocking, and the outbox relay tries the event again on its next run.
+ * <p>
+ * Metrics: {@code order.kafka.publish} (latency by topic and outcome), {@code order.kafka.publish.failures}
+ * (by topic and reason) and the {@code order.kafka.publish.in-flight} gauge.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderKafkaProducer {
-    
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    private static final int KAFKA_TIMEOUT_SECONDS = 3; // 3 seconds timeout
-    
-    public void publishOrderCreated(OrderCreatedEvent event) {
-        try {
-            log.info("Publishing OrderCreatedEvent to Kafka: {}", event);
-            kafkaTemplate.send("order-created-topic", event)
-                    .get(KAFKA_TIMEOUT_SECONDS, TimeUnit.SECONDS); // Wait with timeout
-            log.info("OrderCreatedEvent published successfully to Kafka");
-        } catch (TimeoutException e) {
-            log.warn("Timeout publishing OrderCreatedEvent to Kafka ({}s): {}", KAFKA_TIMEOUT_SECONDS, e.getMessage());
-            throw new RuntimeException("Timeout publishing OrderCreatedEvent to Kafka", e);
-        } catch (Exception e) {
-            log.error("Error publishing OrderCreatedEvent to Kafka: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to publish OrderCreatedEvent to Kafka", e);
-        }
+    private final MeterRegistry meterRegistry;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    public OrderKafkaProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.kafka.publish.max-in-flight:1000}") int maxInFlight) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        meterRegistry.gauge("order.kafka.publish.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits());
     }
-    
-    public void publishOrderStatusChanged(OrderStatusChangedEvent event) {
+
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object event) {
+        if (!inFlight.tryAcquire()) {
+            failed(topic, "in-flight-limit");
+            return CompletableFuture.failedFuture(new IllegalStateException(maxInFlight + " Kafka sends already in flight"));
+        }
+        long startedAt = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> sent;
         try {
-            log.info("Publishing OrderStatusChangedEvent to Kafka: {}", event);
-            kafkaTemplate.send("order-status-changed-topic", event)
-                    .get(KAFKA_TIMEOUT_SECONDS, TimeUnit.SECONDS); // Wait with timeout
-            log.info("OrderStatusChangedEvent published successfully to Kafka");
-        } catch (TimeoutException e) {
-            log.warn("Timeout publishing OrderStatusChangedEvent to Kafka ({}s): {}", KAFKA_TIMEOUT_SECONDS, e.getMessage());
-            throw new RuntimeException("Timeout publishing OrderStatusChangedEvent to Kafka", e);
+            sent = kafkaTemplate.send(topic, key, event);
         } catch (Exception e) {
-            log.error("Error publishing OrderStatusChangedEvent to Kafka: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to publish OrderStatusChangedEvent to Kafka", e);
+            inFlight.release();
+            failed(topic, "send");
+            return CompletableFuture.failedFuture(e);
         }
+        return sent.whenComplete((result, ex) -> {
+            inFlight.release();
+            Timer.builder("order.kafka.publish")
+                    .tag("topic", topic)
+                    .tag("outcome", ex == null ? "success" : "failure")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                failed(topic, "broker");
+                log.warn("Failed to publish to {} (key {}): {}", topic, key, ex.getMessage());
+            }
+        });
     }
-}
-
-
 
+    private void failed(String topic, String reason) {
+        meterRegistry.counter("order.kafka.publish.failures", "topic", topic, "reason", reason).increment();
+    }
+}
@@ -0,0 +1,150 @@
+package org.rakhmonov.orderservice.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.orderservice.entity.OutboxEvent;
+import org.rakhmonov.orderservice.kafka.OrderKafkaProducer;
+import org.rakhmonov.orderservice.repo.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves outbox events to Kafka. Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, so several instances
+ * relay side by side without sending a row twice; the whole batch is sent at once, the acknowledgements are awaited
+ * together and the acknowledged rows are marked sent in the same transaction. Rows that failed stay unsent and are
+ * retried with exponential backoff, so a broker outage delays events but loses none. After
+ * {@code app.outbox.max-attempts} failed sends (about an hour with the default backoff) an event is marked failed
+ * instead: it stays in the table with its last error, counted by {@code order.outbox.dead-lettered}, and no longer
+ * holds back the events after it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderKafkaProducer orderKafkaProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${app.outbox.retention:P7D}")
+    private Duration retention;
+
+    @Value("${app.outbox.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${app.outbox.max-retry-backoff:PT5M}")
+    private Duration maxRetryBackoff;
+
+    // Drains the backlog: a batch sent in full is followed at once by the next one
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            while (relayBatch() == batchSize) {
+                log.debug("Outbox batch full, relaying the next one");
+            }
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.cleanup-interval-ms:3600000}")
+    public void purgeSent() {
+        int deleted = outboxEventRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} outbox events sent more than {} ago", deleted, retention);
+        }
+    }
+
+    /**
+     * Relays one batch of unsent events.
+     *
+     * @return the number of events sent
+     */
+    int relayBatch() {
+        Integer sentCount = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> batch = outboxEventRepository.lockUnsent(now, batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                CompletableFuture<?> sent = orderKafkaProducer.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+                sends.add(sent);
+                if (sent.isCompletedExceptionally()) {
+                    break; // refused before reaching the broker (no metadata, in-flight limit): the rest would be too
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+            List<Long> sentIds = new ArrayList<>();
+            for (int i = 0; i < sends.size(); i++) {
+                OutboxEvent event = batch.get(i);
+                try {
+                    sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    sentIds.add(event.getId());
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    failed(event, cause, now);
+                }
+            }
+            if (!sentIds.isEmpty()) {
+                outboxEventRepository.markSent(sentIds, LocalDateTime.now());
+            }
+            meterRegistry.counter("order.outbox.relayed", "outcome", "sent").increment(sentIds.size());
+            meterRegistry.counter("order.outbox.relayed", "outcome", "failed").increment(batch.size() - sentIds.size());
+            if (sentIds.size() < batch.size()) {
+                log.warn("Outbox relay sent {} of {} events, the rest are retried on the next run",
+                        sentIds.size(), batch.size());
+            }
+            return sentIds.size();
+        });
+        return sentCount != null ? sentCount : 0;
+    }
+
+    // Schedules the next attempt, or gives up on the event once it used all of them
+    private void failed(OutboxEvent event, Throwable cause, LocalDateTime now) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setFailedAt(now);
+            meterRegistry.counter("order.outbox.dead-lettered", "topic", event.getTopic()).increment();
+            log.error("Outbox event {} ({} for key {}) failed {} times, giving up: {}",
+                    event.getId(), event.getEventType(), event.getMessageKey(), attempts, event.getLastError());
+        } else {
+            event.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+    }
+
+    // retry-backoff doubled for every earlier failure, at most max-retry-backoff
+    Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration backoff = retryBackoff.multipliedBy(1L << doublings);
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
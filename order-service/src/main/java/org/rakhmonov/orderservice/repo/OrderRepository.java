@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,22 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     
     Page<Order> findByUserIdAndIsDeletedFalse(Long userId, Pageable pageable);
     
+    // Keyset pagination, newest first: (createdAt, id) < cursor
+    @Query("SELECT o FROM Order o WHERE o.isDeleted = false ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstSlice(Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.isDeleted = false " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findSliceAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.isDeleted = false ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstSliceByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.isDeleted = false " +
+            "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findSliceAfterByUserId(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable pageable);
+    
     @Query("SELECT o FROM Order o WHERE o.orderNumber = :orderNumber AND o.isDeleted = false")
     Optional<Order> findByOrderNumber(@Param("orderNumber") String orderNumber);
     
@@ -0,0 +1,39 @@
+package org.rakhmonov.orderservice.repo;
+
+import org.rakhmonov.orderservice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Oldest unsent events that are due, locked until the caller's transaction ends; rows another relay holds are
+    // skipped. An event waits while an earlier one with the same key is backing off, so a key's events stay in order.
+    @Query(value = """
+            SELECT * FROM outbox_events o
+            WHERE o.sent_at IS NULL AND o.failed_at IS NULL
+              AND (o.next_attempt_at IS NULL OR o.next_attempt_at <= :now)
+              AND NOT EXISTS (SELECT 1 FROM outbox_events p
+                              WHERE p.message_key = o.message_key AND p.id < o.id
+                                AND p.sent_at IS NULL AND p.failed_at IS NULL AND p.next_attempt_at > :now)
+            ORDER BY o.id LIMIT :limit FOR UPDATE OF o SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEvent> lockUnsent(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
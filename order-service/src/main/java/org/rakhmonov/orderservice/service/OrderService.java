@@ -2,23 +2,27 @@ package org.rakhmonov.orderservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.rakhmonov.events.OrderStatus;
+import org.rakhmonov.events.OrderStatusChangedEvent;
+import org.rakhmonov.events.paging.CursorCodec;
 import org.rakhmonov.orderservice.dto.request.OrderRequest;
+import org.rakhmonov.orderservice.dto.response.CursorPageResponse;
 import org.rakhmonov.orderservice.dto.response.OrderResponse;
 import org.rakhmonov.orderservice.entity.Order;
 import org.rakhmonov.orderservice.entity.OrderItem;
 import org.rakhmonov.orderservice.exception.OrderNotFoundException;
-import org.rakhmonov.orderservice.event.OrderCreatedEvent;
 import org.rakhmonov.orderservice.event.OrderEventPublisher;
-import org.rakhmonov.orderservice.event.OrderItemEvent;
-import org.rakhmonov.orderservice.event.OrderStatusChangedEvent;
 import org.rakhmonov.orderservice.repo.OrderRepository;
 import org.rakhmonov.orderservice.repo.OrderItemRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -75,14 +79,10 @@ public class OrderService {
 
         OrderResponse orderResponse = OrderResponse.fromEntity(savedOrder);
         
-        List<OrderItemEvent> orderItemEvents = orderItems.stream()
-                .map(item -> new OrderItemEvent(item.getProductId(), item.getQuantity()))
-                .collect(Collectors.toList());
-        
-        OrderCreatedEvent orderCreatedEvent = new OrderCreatedEvent(
-                orderNumber,
-                orderItemEvents
-        );
+        OrderCreatedEvent orderCreatedEvent = OrderCreatedEvent.newBuilder()
+                .setOrderNumber(orderNumber)
+                .setOrderItems(toEventItems(orderItems))
+                .build();
         orderEventPublisher.publishOrderCreated(orderCreatedEvent);
         
         log.info("Order created successfully with order number: {}", orderNumber);
@@ -105,6 +105,38 @@ public class OrderService {
                 .map(OrderResponse::fromEntity);
     }
 
+    /**
+     * Keyset-paginated listing (newest first) with an opaque cursor and no count query.
+     * When userId is given only that user's orders are returned.
+     */
+    public CursorPageResponse<OrderResponse> getOrdersByCursor(Long userId, String cursor, Integer size) {
+        int pageSize = CursorCodec.clampSize(size);
+        CursorCodec.Cursor after = CursorCodec.decode(cursor);
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<Order> orders;
+        if (userId != null) {
+            orders = after == null
+                    ? orderRepository.findFirstSliceByUserId(userId, limit)
+                    : orderRepository.findSliceAfterByUserId(userId, after.createdAt(), after.id(), limit);
+        } else {
+            orders = after == null
+                    ? orderRepository.findFirstSlice(limit)
+                    : orderRepository.findSliceAfter(after.createdAt(), after.id(), limit);
+        }
+
+        boolean hasNext = orders.size() > pageSize;
+        if (hasNext) {
+            orders = orders.subList(0, pageSize);
+        }
+        Order last = orders.isEmpty() ? null : orders.get(orders.size() - 1);
+        return CursorPageResponse.<OrderResponse>builder()
+                .content(orders.stream().map(OrderResponse::fromEntity).toList())
+                .size(orders.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? CursorCodec.encode(last.getCreatedAt(), last.getId()) : null)
+                .build();
+    }
+
     @Transactional
     public OrderResponse updateOrderStatus(Long id, Order.OrderStatus status) {
         Order order = orderRepository.findById(id)
@@ -120,17 +152,14 @@ public class OrderService {
         // Publish OrderStatusChangedEvent to Kafka if status changed
         if (oldStatus != status) {
             // Create optimized event with only necessary data
-            List<OrderItemEvent> orderItemEvents = updatedOrder.getOrderItems() != null ?
-                    updatedOrder.getOrderItems().stream()
-                            .map(item -> new OrderItemEvent(item.getProductId(), item.getQuantity()))
-                            .collect(Collectors.toList()) : null;
-            
-            OrderStatusChangedEvent statusChangedEvent = new OrderStatusChangedEvent(
-                    updatedOrder.getOrderNumber(),
-                    oldStatus,
-                    status,
-                    orderItemEvents
-            );
+            OrderStatusChangedEvent statusChangedEvent = OrderStatusChangedEvent.newBuilder()
+                    .setOrderNumber(updatedOrder.getOrderNumber())
+                    .setOldStatus(OrderStatus.valueOf(oldStatus.name()))
+                    .setNewStatus(OrderStatus.valueOf(status.name()))
+                    .setChangedAt(Instant.now())
+                    .setOrderItems(updatedOrder.getOrderItems() != null
+                            ? toEventItems(updatedOrder.getOrderItems()) : List.of())
+                    .build();
             orderEventPublisher.publishOrderStatusChanged(statusChangedEvent);
         }
         
@@ -193,4 +222,10 @@ public class OrderService {
     private String generateOrderNumber() {
         return "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
+
+    private static List<org.rakhmonov.events.OrderItem> toEventItems(List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .map(item -> new org.rakhmonov.events.OrderItem(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,61 @@
+package org.rakhmonov.orderservice.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OrderKafkaProducerTest {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void send_ReturnsBeforeTheBrokerAnswers() {
+        OrderKafkaProducer producer = new OrderKafkaProducer(kafkaTemplate, meterRegistry, 10);
+        CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(EventContracts.ORDER_CREATED_TOPIC), eq("ORD-1"), any())).thenReturn(ack);
+
+        CompletableFuture<?> sent = producer.send(EventContracts.ORDER_CREATED_TOPIC, "ORD-1",
+                new OrderCreatedEvent("ORD-1", List.of()));
+
+        assertFalse(sent.isDone());
+        assertEquals(1.0, meterRegistry.get("order.kafka.publish.in-flight").gauge().value());
+        ack.complete(null);
+        assertTrue(sent.isDone());
+        assertEquals(1, meterRegistry.get("order.kafka.publish").tag("outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("order.kafka.publish.in-flight").gauge().value());
+    }
+
+    @Test
+    void send_Failures_AreCountedByReasonAndNeverBlock() {
+        OrderKafkaProducer producer = new OrderKafkaProducer(kafkaTemplate, meterRegistry, 1);
+        CompletableFuture<SendResult<String, Object>> ack = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq(EventContracts.ORDER_CREATED_TOPIC), any(), any()))
+                .thenReturn(ack)
+                .thenThrow(new RuntimeException("metadata not available"));
+
+        CompletableFuture<?> first = producer.send(EventContracts.ORDER_CREATED_TOPIC, "ORD-1", "first");
+        CompletableFuture<?> overLimit = producer.send(EventContracts.ORDER_CREATED_TOPIC, "ORD-2", "second");
+        ack.completeExceptionally(new RuntimeException("broker down"));
+        CompletableFuture<?> refused = producer.send(EventContracts.ORDER_CREATED_TOPIC, "ORD-3", "third");
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(overLimit.isCompletedExceptionally());
+        assertTrue(refused.isCompletedExceptionally());
+        for (String reason : List.of("in-flight-limit", "broker", "send")) {
+            assertEquals(1.0, meterRegistry.get("order.kafka.publish.failures").tag("reason", reason).counter().count());
+        }
+        assertEquals(0.0, meterRegistry.get("order.kafka.publish.in-flight").gauge().value());
+    }
+}
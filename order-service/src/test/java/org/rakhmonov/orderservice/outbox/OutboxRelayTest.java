@@ -0,0 +1,132 @@
+package org.rakhmonov.orderservice.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.rakhmonov.events.AvroEventCodec;
+import org.rakhmonov.events.EventContracts;
+import org.rakhmonov.events.OrderCreatedEvent;
+import org.rakhmonov.orderservice.entity.OutboxEvent;
+import org.rakhmonov.orderservice.kafka.OrderKafkaProducer;
+import org.rakhmonov.orderservice.repo.OutboxEventRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private OrderKafkaProducer orderKafkaProducer;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, orderKafkaProducer,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 3);
+        ReflectionTestUtils.setField(outboxRelay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(outboxRelay, "retryBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(outboxRelay, "maxRetryBackoff", Duration.ofSeconds(3));
+    }
+
+    @Test
+    void relayBatch_MarksOnlyAcknowledgedEventsSent() {
+        OutboxEvent sent = event(1L, "ORD-1");
+        OutboxEvent failed = event(2L, "ORD-2");
+        when(outboxEventRepository.lockUnsent(any(), eq(3))).thenReturn(List.of(sent, failed));
+        when(orderKafkaProducer.send(EventContracts.ORDER_CREATED_TOPIC, "ORD-1", sent.getPayload()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        CompletableFuture<Object> brokerDown = new CompletableFuture<>();
+        doReturn(brokerDown).when(orderKafkaProducer).send(any(), eq("ORD-2"), any());
+        brokerDown.completeExceptionally(new RuntimeException("broker down"));
+
+        assertEquals(1, outboxRelay.relayBatch());
+
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+        assertEquals(0, sent.getAttempts());
+        assertEquals(1, failed.getAttempts());
+        assertEquals("RuntimeException: broker down", failed.getLastError());
+        assertNull(sent.getNextAttemptAt());
+        assertNotNull(failed.getNextAttemptAt());
+        assertNull(failed.getFailedAt());
+    }
+
+    @Test
+    void relayBatch_LastAttemptFails_MarksTheEventFailed() {
+        OutboxEvent poison = event(1L, "ORD-1");
+        poison.setAttempts(2);
+        when(outboxEventRepository.lockUnsent(any(), eq(3))).thenReturn(List.of(poison));
+        doReturn(CompletableFuture.failedFuture(new RuntimeException("record too large")))
+                .when(orderKafkaProducer).send(any(), any(), any());
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        assertEquals(3, poison.getAttempts());
+        assertNotNull(poison.getFailedAt());
+        assertEquals("RuntimeException: record too large", poison.getLastError());
+        assertEquals(1, meterRegistry.counter("order.outbox.dead-lettered",
+                "topic", EventContracts.ORDER_CREATED_TOPIC).count());
+        verify(outboxEventRepository, never()).markSent(anyCollection(), any());
+    }
+
+    @Test
+    void backoff_DoublesPerFailureUpToTheMaximum() {
+        assertEquals(Duration.ofSeconds(1), outboxRelay.backoff(1));
+        assertEquals(Duration.ofSeconds(2), outboxRelay.backoff(2));
+        assertEquals(Duration.ofSeconds(3), outboxRelay.backoff(3));
+        assertEquals(Duration.ofSeconds(3), outboxRelay.backoff(1_000));
+    }
+
+    @Test
+    void relayBatch_ProducerRefuses_StopsSendingTheBatch() {
+        when(outboxEventRepository.lockUnsent(any(), eq(3))).thenReturn(List.of(event(1L, "ORD-1"), event(2L, "ORD-2")));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("1000 Kafka sends already in flight")))
+                .when(orderKafkaProducer).send(any(), any(), any());
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        verify(orderKafkaProducer, times(1)).send(any(), any(), any());
+        verify(outboxEventRepository, never()).markSent(anyCollection(), any());
+    }
+
+    @Test
+    void relay_DrainsFullBatchesThenStops() {
+        when(outboxEventRepository.lockUnsent(any(), eq(3)))
+                .thenReturn(List.of(event(1L, "ORD-1"), event(2L, "ORD-2"), event(3L, "ORD-3")))
+                .thenReturn(List.of(event(4L, "ORD-4")));
+        doReturn(CompletableFuture.completedFuture(null)).when(orderKafkaProducer).send(any(), any(), any());
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, times(2)).lockUnsent(any(), eq(3));
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L, 3L)), any());
+        verify(outboxEventRepository).markSent(eq(List.of(4L)), any());
+    }
+
+    private static OutboxEvent event(Long id, String orderNumber) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(EventContracts.ORDER_CREATED_TOPIC)
+                .messageKey(orderNumber)
+                .eventType(OrderCreatedEvent.class.getSimpleName())
+                .payload(AvroEventCodec.DEFAULT.encode(new OrderCreatedEvent(orderNumber, List.of())))
+                .build();
+    }
+}